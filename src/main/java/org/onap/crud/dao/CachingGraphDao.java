@@ -0,0 +1,479 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.ws.rs.core.MultivaluedHashMap;
+import org.onap.aai.restclient.client.OperationResult;
+import org.onap.crud.dao.champ.ChampBulkPayload;
+import org.onap.crud.entity.Edge;
+import org.onap.crud.entity.Vertex;
+import org.onap.crud.exception.CrudException;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Read-through cache in front of a {@link GraphDao} for single vertex and edge lookups.
+ *
+ * <p>
+ * Vertices, the edges incident to a vertex and edges are cached by id, type, version and query parameters for a
+ * bounded time. Writes made through this DAO invalidate the affected entries; writes made elsewhere (for example
+ * through the async pipeline) must be reported with {@link #invalidateVertex(String)} and
+ * {@link #invalidateEdge(String)}. All other operations are passed straight to the underlying DAO.
+ *
+ * <p>
+ * Invalidation looks the affected entries up by id, and by edge id or neighbour id for the cached edge lists of a
+ * vertex, rather than scanning the cache. Invalidating a vertex also drops the cached edge lists of its neighbours,
+ * which would otherwise still show an edge to a deleted vertex. A read which races with an invalidation of the entity it read is not left in the cache: every
+ * invalidation advances a generation counter for the ids involved, and a read is only kept if none of those counters
+ * moved while it was in flight. Callers get their own copy of a cached result.
+ */
+public class CachingGraphDao implements GraphDao, PublicMetrics {
+
+  public static final long DEFAULT_TTL = 5000;
+
+  private static final String METRIC_PREFIX = "gizmo.entity.cache.";
+
+  private static final int GENERATION_STRIPES = 64;
+
+  private enum Kind {
+    VERTEX, VERTEX_EDGES, EDGE
+  }
+
+  private final GraphDao delegate;
+  private final Cache<CacheKey, Object> cache;
+
+  // Keys cached for a vertex or edge id, and keys of the cached edge lists which contain an edge id or an edge to a
+  // vertex id. An index entry
+  // is kept for twice the TTL after it was last used, so it outlives the entries it points to; a stale key only
+  // costs a no-op invalidation.
+  private final Cache<String, Set<CacheKey>> keysById;
+  private final Cache<String, Set<CacheKey>> edgeListsById;
+
+  // Advanced, by id stripe, before the entries of an id are invalidated
+  private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES + 1);
+
+  /**
+   * @param delegate the DAO to read through to
+   * @param maxSize maximum number of cached entries
+   * @param ttlInMs time after which a cached entry is refreshed from the underlying DAO
+   */
+  public CachingGraphDao(GraphDao delegate, long maxSize, long ttlInMs) {
+    this.delegate = Objects.requireNonNull(delegate);
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttlInMs, TimeUnit.MILLISECONDS)
+        .recordStats()
+        .build();
+    this.keysById = CacheBuilder.newBuilder().expireAfterAccess(2 * ttlInMs, TimeUnit.MILLISECONDS).build();
+    this.edgeListsById =
+        CacheBuilder.newBuilder().expireAfterAccess(2 * ttlInMs, TimeUnit.MILLISECONDS).build();
+  }
+
+  @Override
+  public Vertex getVertex(String id, String version) throws CrudException {
+    return delegate.getVertex(id, version);
+  }
+
+  @Override
+  public OperationResult getVertex(String id, String type, String version, Map<String, String> queryParams)
+      throws CrudException {
+    CacheKey key = new CacheKey(Kind.VERTEX, id, type, version, queryParams);
+    OperationResult result = (OperationResult) cache.getIfPresent(key);
+    if (result == null) {
+      long[] generation = generations();
+      result = delegate.getVertex(id, type, version, queryParams);
+      store(key, result, generation, Collections.<String>emptyList());
+    }
+    return copy(result);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<Edge> getVertexEdges(String id, Map<String, String> queryParams, String txId) throws CrudException {
+    if (txId != null) {
+      // Reads inside a transaction must see its uncommitted writes
+      return delegate.getVertexEdges(id, queryParams, txId);
+    }
+    CacheKey key = new CacheKey(Kind.VERTEX_EDGES, id, null, null, queryParams);
+    List<String> edgesJson = (List<String>) cache.getIfPresent(key);
+    if (edgesJson == null) {
+      long[] generation = generations();
+      List<Edge> edges = delegate.getVertexEdges(id, queryParams, txId);
+      Set<String> memberIds = new HashSet<>();
+      edgesJson = new ArrayList<>(edges.size());
+      for (Edge edge : edges) {
+        edge.getId().ifPresent(memberIds::add);
+        for (Vertex endpoint : Arrays.asList(edge.getSource(), edge.getTarget())) {
+          if (endpoint != null) {
+            endpoint.getId().ifPresent(memberIds::add);
+          }
+        }
+        edgesJson.add(edge.toJson());
+      }
+      // The vertex itself is an endpoint of each of its edges
+      memberIds.remove(id);
+      store(key, edgesJson, generation, memberIds);
+    }
+    List<Edge> edges = new ArrayList<>(edgesJson.size());
+    for (String edgeJson : edgesJson) {
+      edges.add(Edge.fromJson(edgeJson));
+    }
+    return edges;
+  }
+
+  @Override
+  public OperationResult getVertices(String type, Map<String, Object> filter, String version) throws CrudException {
+    return delegate.getVertices(type, filter, version);
+  }
+
+  @Override
+  public OperationResult getVertices(String type, Map<String, Object> filter, Set<String> properties,
+      String version) throws CrudException {
+    return delegate.getVertices(type, filter, properties, version);
+  }
+
+  @Override
+  public OperationResult getEdge(String id, String type, Map<String, String> queryParams) throws CrudException {
+    CacheKey key = new CacheKey(Kind.EDGE, id, type, null, queryParams);
+    OperationResult result = (OperationResult) cache.getIfPresent(key);
+    if (result == null) {
+      long[] generation = generations();
+      result = delegate.getEdge(id, type, queryParams);
+      store(key, result, generation, Collections.<String>emptyList());
+    }
+    return copy(result);
+  }
+
+  @Override
+  public OperationResult getEdges(String type, Map<String, Object> filter) throws CrudException {
+    return delegate.getEdges(type, filter);
+  }
+
+  @Override
+  public OperationResult addVertex(String type, Map<String, Object> properties, String version)
+      throws CrudException {
+    return delegate.addVertex(type, properties, version);
+  }
+
+  @Override
+  public OperationResult updateVertex(String id, String type, Map<String, Object> properties, String version)
+      throws CrudException {
+    try {
+      return delegate.updateVertex(id, type, properties, version);
+    } finally {
+      invalidateVertex(id);
+    }
+  }
+
+  @Override
+  public void deleteVertex(String id, String type) throws CrudException {
+    try {
+      delegate.deleteVertex(id, type);
+    } finally {
+      invalidateVertex(id);
+    }
+  }
+
+  @Override
+  public OperationResult addEdge(String type, Vertex source, Vertex target, Map<String, Object> properties,
+      String version) throws CrudException {
+    try {
+      return delegate.addEdge(type, source, target, properties, version);
+    } finally {
+      invalidateEndpoints(source, target);
+    }
+  }
+
+  @Override
+  public OperationResult updateEdge(Edge edge) throws CrudException {
+    try {
+      return delegate.updateEdge(edge);
+    } finally {
+      invalidateEdge(edge);
+    }
+  }
+
+  @Override
+  public void deleteEdge(String id) throws CrudException {
+    try {
+      delegate.deleteEdge(id);
+    } finally {
+      invalidateEdge(id);
+    }
+  }
+
+  @Override
+  public String openTransaction() {
+    return delegate.openTransaction();
+  }
+
+  @Override
+  public void commitTransaction(String id) throws CrudException {
+    try {
+      delegate.commitTransaction(id);
+    } finally {
+      // The entities written in the transaction are not tracked individually
+      invalidateAll();
+    }
+  }
+
+  @Override
+  public void rollbackTransaction(String id) throws CrudException {
+    delegate.rollbackTransaction(id);
+  }
+
+  @Override
+  public boolean transactionExists(String id) throws CrudException {
+    return delegate.transactionExists(id);
+  }
+
+  @Override
+  public Vertex addVertex(String type, Map<String, Object> properties, String version, String txId)
+      throws CrudException {
+    return delegate.addVertex(type, properties, version, txId);
+  }
+
+  @Override
+  public Edge addEdge(String type, Vertex source, Vertex target, Map<String, Object> properties, String version,
+      String txId) throws CrudException {
+    return delegate.addEdge(type, source, target, properties, version, txId);
+  }
+
+  @Override
+  public Vertex updateVertex(String id, String type, Map<String, Object> properties, String version, String txId)
+      throws CrudException {
+    return delegate.updateVertex(id, type, properties, version, txId);
+  }
+
+  @Override
+  public Edge updateEdge(Edge edge, String txId) throws CrudException {
+    return delegate.updateEdge(edge, txId);
+  }
+
+  @Override
+  public void deleteVertex(String id, String type, String txId) throws CrudException {
+    delegate.deleteVertex(id, type, txId);
+  }
+
+  @Override
+  public void deleteEdge(String id, String txId) throws CrudException {
+    delegate.deleteEdge(id, txId);
+  }
+
+  @Override
+  public Edge getEdge(String id, String txId) throws CrudException {
+    return delegate.getEdge(id, txId);
+  }
+
+  @Override
+  public Edge getEdge(String id) throws CrudException {
+    return delegate.getEdge(id);
+  }
+
+  @Override
+  public OperationResult bulkOperation(ChampBulkPayload champPayload) throws CrudException {
+    try {
+      return delegate.bulkOperation(champPayload);
+    } finally {
+      invalidateAll();
+    }
+  }
+
+  /**
+   * Drops the cached copies of a vertex and of the edges incident to it, and the cached edge lists of its neighbours.
+   */
+  public void invalidateVertex(String id) {
+    advanceGeneration(id);
+    invalidateKeys(keysById.getIfPresent(id), Kind.VERTEX, Kind.VERTEX_EDGES);
+    invalidateKeys(edgeListsById.getIfPresent(id), Kind.VERTEX_EDGES);
+  }
+
+  /**
+   * Drops the cached copies of an edge, and the cached edge lists of any vertex it is incident to.
+   */
+  public void invalidateEdge(String id) {
+    advanceGeneration(id);
+    invalidateKeys(keysById.getIfPresent(id), Kind.EDGE);
+    invalidateKeys(edgeListsById.getIfPresent(id), Kind.VERTEX_EDGES);
+  }
+
+  /**
+   * Drops the cached copies of an edge and of the edge lists of its source and target vertices.
+   */
+  public void invalidateEdge(Edge edge) {
+    if (edge.getId().isPresent()) {
+      invalidateEdge(edge.getId().get());
+    }
+    invalidateEndpoints(edge.getSource(), edge.getTarget());
+  }
+
+  public void invalidateAll() {
+    generations.incrementAndGet(GENERATION_STRIPES);
+    cache.invalidateAll();
+  }
+
+  private void invalidateEndpoints(Vertex source, Vertex target) {
+    for (Vertex vertex : Arrays.asList(source, target)) {
+      if (vertex != null && vertex.getId().isPresent()) {
+        String vertexId = vertex.getId().get();
+        advanceGeneration(vertexId);
+        invalidateKeys(keysById.getIfPresent(vertexId), Kind.VERTEX_EDGES);
+      }
+    }
+  }
+
+  private void invalidateKeys(Set<CacheKey> keys, Kind... kinds) {
+    if (keys == null) {
+      return;
+    }
+    List<Kind> invalidated = Arrays.asList(kinds);
+    for (CacheKey key : keys) {
+      if (invalidated.contains(key.kind)) {
+        cache.invalidate(key);
+      }
+    }
+  }
+
+  /**
+   * Caches the result of a read, unless one of the entities it covers was invalidated since the read started. The
+   * key is indexed before it is cached and the generations are checked after, so that an invalidation running
+   * concurrently either finds the entry or is seen by the check.
+   */
+  private void store(CacheKey key, Object value, long[] generation, Collection<String> memberIds) {
+    index(keysById, key.id).add(key);
+    for (String memberId : memberIds) {
+      index(edgeListsById, memberId).add(key);
+    }
+    cache.put(key, value);
+
+    boolean changed = generation[GENERATION_STRIPES] != generations.get(GENERATION_STRIPES)
+        || generation[stripe(key.id)] != generations.get(stripe(key.id));
+    for (String memberId : memberIds) {
+      changed |= generation[stripe(memberId)] != generations.get(stripe(memberId));
+    }
+    if (changed) {
+      cache.invalidate(key);
+    }
+  }
+
+  private static Set<CacheKey> index(Cache<String, Set<CacheKey>> index, String id) {
+    try {
+      return index.get(id, ConcurrentHashMap::newKeySet);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private long[] generations() {
+    long[] snapshot = new long[GENERATION_STRIPES + 1];
+    for (int i = 0; i < snapshot.length; i++) {
+      snapshot[i] = generations.get(i);
+    }
+    return snapshot;
+  }
+
+  private void advanceGeneration(String id) {
+    generations.incrementAndGet(stripe(id));
+  }
+
+  private static int stripe(String id) {
+    return (id.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+  }
+
+  private static OperationResult copy(OperationResult result) {
+    OperationResult copy = new OperationResult();
+    copy.setResult(result.getResultCode(), result.getResult());
+    if (result.getHeaders() != null) {
+      copy.setHeaders(new MultivaluedHashMap<>(result.getHeaders()));
+    }
+    return copy;
+  }
+
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  public long getSize() {
+    return cache.size();
+  }
+
+  @Override
+  public Collection<Metric<?>> metrics() {
+    CacheStats stats = cache.stats();
+    return Arrays.<Metric<?>>asList(
+        new Metric<Long>(METRIC_PREFIX + "size", cache.size()),
+        new Metric<Long>(METRIC_PREFIX + "hits", stats.hitCount()),
+        new Metric<Long>(METRIC_PREFIX + "misses", stats.missCount()),
+        new Metric<Double>(METRIC_PREFIX + "hit.rate", stats.hitRate()),
+        new Metric<Long>(METRIC_PREFIX + "evictions", stats.evictionCount()));
+  }
+
+  private static final class CacheKey {
+    private final Kind kind;
+    private final String id;
+    private final String type;
+    private final String version;
+    private final Map<String, String> queryParams;
+
+    CacheKey(Kind kind, String id, String type, String version, Map<String, String> queryParams) {
+      this.kind = kind;
+      this.id = id;
+      this.type = type;
+      this.version = version;
+      this.queryParams = queryParams == null ? null : new TreeMap<>(queryParams);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) o;
+      return kind == other.kind && Objects.equals(id, other.id) && Objects.equals(type, other.type)
+          && Objects.equals(version, other.version) && Objects.equals(queryParams, other.queryParams);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(kind, id, type, version, queryParams);
+    }
+  }
+}
@@ -21,7 +21,6 @@
 package org.onap.crud.dao;
 
 import org.eclipse.jetty.util.security.Password;
-import org.onap.aai.restclient.client.RestClient;
 import org.onap.aai.restclient.enums.RestAuthenticationMode;
 import org.onap.crud.dao.champ.ChampDao;
 import org.onap.crud.util.CrudServiceConstants;
@@ -30,7 +29,9 @@ public class DataRouterDAO extends ChampDao {
   public DataRouterDAO(String url, String certPassword) {
     try {
       String deobfuscatedCertPassword = certPassword.startsWith("OBF:")?Password.deobfuscate(certPassword):certPassword;
-      client = new RestClient().authenticationMode(RestAuthenticationMode.SSL_CERT).validateServerHostname(false)
+      client = createMeteredClient("datarouter", CrudServiceConstants.CRD_DATAROUTER_CLIENT_MAX_REQUESTS,
+          CrudServiceConstants.CRD_DATAROUTER_CLIENT_ACQUIRE_TIMEOUT)
+          .authenticationMode(RestAuthenticationMode.SSL_CERT).validateServerHostname(false)
           .validateServerCertChain(false).clientCertFile(CrudServiceConstants.CRD_DATAROUTER_AUTH_FILE)
           .clientCertPassword(deobfuscatedCertPassword);
 
@@ -0,0 +1,175 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.dao;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.core.Response.Status;
+import org.onap.crud.exception.CrudException;
+import org.onap.crud.util.CrudProperties;
+import org.onap.crud.util.CrudServiceConstants;
+import org.slf4j.MDC;
+
+/**
+ * Bounded pool for graph operations (mostly reads) that are issued alongside the work of the request thread.
+ *
+ * <p>
+ * Operations run with the logging context of the thread that submitted them, which carries the transaction id sent
+ * to Champ. When every thread is busy, or the pool has no threads, an operation runs on the submitting thread
+ * instead, so that a burst falls back to running in sequence rather than queueing.
+ */
+public class GraphReadExecutor {
+
+  public static final int DEFAULT_THREADS = 16;
+  public static final long DEFAULT_TIMEOUT = 30000;
+
+  @FunctionalInterface
+  public interface GraphOperation<T> {
+    T execute() throws CrudException;
+  }
+
+  private final ThreadPoolExecutor executor;
+  private final long timeoutInMs;
+
+  /**
+   * @param name prefix of the thread names
+   * @param threads maximum number of threads, 0 to run every operation on the submitting thread
+   * @param timeoutInMs maximum time to wait for an operation
+   */
+  public GraphReadExecutor(String name, int threads, long timeoutInMs) {
+    this.timeoutInMs = timeoutInMs;
+    if (threads <= 0) {
+      executor = null;
+      return;
+    }
+
+    AtomicInteger threadNumber = new AtomicInteger(1);
+    executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+        runnable -> {
+          Thread thread = new Thread(runnable, name + "-" + threadNumber.getAndIncrement());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Creates an executor sized from the vertex read configuration.
+   */
+  public static GraphReadExecutor fromConfiguration(String name) {
+    return fromConfiguration(name, CrudServiceConstants.CRD_VERTEX_READ_THREADS,
+        CrudServiceConstants.CRD_VERTEX_READ_TIMEOUT);
+  }
+
+  /**
+   * Creates an executor sized from the given properties.
+   *
+   * @param threadsKey property holding the maximum number of threads
+   * @param timeoutKey property holding the maximum time to wait for an operation
+   */
+  public static GraphReadExecutor fromConfiguration(String name, String threadsKey, String timeoutKey) {
+    int threads = DEFAULT_THREADS;
+    long timeout = DEFAULT_TIMEOUT;
+    try {
+      threads = Integer.parseInt(CrudProperties.get(threadsKey, Integer.toString(DEFAULT_THREADS)));
+      timeout = Long.parseLong(CrudProperties.get(timeoutKey, Long.toString(DEFAULT_TIMEOUT)));
+    } catch (NumberFormatException ex) {
+      // Leave the defaults
+    }
+    return new GraphReadExecutor(name, threads, timeout);
+  }
+
+  public <T> CompletableFuture<T> submit(GraphOperation<T> operation) {
+    if (executor == null) {
+      CompletableFuture<T> future = new CompletableFuture<>();
+      try {
+        future.complete(operation.execute());
+      } catch (CrudException e) {
+        future.completeExceptionally(e);
+      }
+      return future;
+    }
+
+    Map<String, String> callerContext = MDC.getCopyOfContextMap();
+    return CompletableFuture.supplyAsync(() -> {
+      Map<String, String> previousContext = MDC.getCopyOfContextMap();
+      setContextMap(callerContext);
+      try {
+        return operation.execute();
+      } catch (CrudException e) {
+        throw new CompletionException(e);
+      } finally {
+        setContextMap(previousContext);
+      }
+    }, executor);
+  }
+
+  /**
+   * Waits for a submitted operation, unwrapping any failure back into the {@link CrudException} it was raised as.
+   *
+   * @param description what is being read, for the timeout message
+   */
+  public <T> T await(CompletableFuture<T> future, String description) throws CrudException {
+    try {
+      return future.get(timeoutInMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      future.cancel(false);
+      throw new CrudException("Timed out reading " + description, Status.INTERNAL_SERVER_ERROR);
+    } catch (InterruptedException e) {
+      // Restore interrupted state...
+      Thread.currentThread().interrupt();
+      throw new CrudException("Interrupted while waiting for response", Status.INTERNAL_SERVER_ERROR);
+    } catch (ExecutionException e) {
+      throw toCrudException(e.getCause());
+    }
+  }
+
+  /**
+   * Converts the failure of a future into a {@link CrudException}, unwrapping any {@link CompletionException}.
+   */
+  public static CrudException toCrudException(Throwable error) {
+    Throwable cause = error;
+    if (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof CrudException && ((CrudException) cause).getHttpStatus() != null) {
+      return (CrudException) cause;
+    }
+    CrudException crudException = new CrudException(cause.getMessage(), cause);
+    crudException.setHttpStatus(Status.INTERNAL_SERVER_ERROR);
+    return crudException;
+  }
+
+  private static void setContextMap(Map<String, String> contextMap) {
+    if (contextMap == null) {
+      MDC.clear();
+    } else {
+      MDC.setContextMap(contextMap);
+    }
+  }
+}
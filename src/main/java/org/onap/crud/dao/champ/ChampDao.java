@@ -23,33 +23,47 @@ package org.onap.crud.dao.champ;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.message.BasicNameValuePair;
 import org.eclipse.jetty.util.security.Password;
+import org.onap.aai.cl.api.Logger;
+import org.onap.aai.cl.eelf.LoggerFactory;
 import org.onap.aai.cl.mdc.MdcContext;
 import org.onap.aai.restclient.client.OperationResult;
 import org.onap.aai.restclient.client.RestClient;
 import org.onap.aai.restclient.enums.RestAuthenticationMode;
+import org.onap.crud.dao.CachingGraphDao;
 import org.onap.crud.dao.GraphDao;
+import org.onap.crud.dao.GraphReadExecutor;
 import org.onap.crud.entity.Edge;
 import org.onap.crud.entity.Vertex;
 import org.onap.crud.exception.CrudException;
+import org.onap.crud.logging.CrudServiceMsgs;
+import org.onap.crud.util.CrudProperties;
 import org.onap.crud.util.CrudServiceConstants;
 import org.slf4j.MDC;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import net.dongliu.gson.GsonJava8TypeAdapterFactory;
 
-public class ChampDao implements GraphDao {
+public class ChampDao implements GraphDao, PublicMetrics {
   protected RestClient client;
   protected String baseObjectUrl;
   protected String baseRelationshipUrl;
@@ -64,6 +78,8 @@ public class ChampDao implements GraphDao {
   protected static final String TRANSACTION_SUB_URL = "transaction";
   protected static final String BULK_SUB_URL = "bulk";
 
+  private static Logger logger = LoggerFactory.getInstance().getLogger(ChampDao.class.getName());
+
   // We use a custom vertex serializer for champ because it expects "key"
   // instead of "id"
   protected static final Gson champGson = new GsonBuilder()
@@ -71,13 +87,27 @@ public class ChampDao implements GraphDao {
           .registerTypeAdapter(Vertex.class, new ChampVertexSerializer())
           .registerTypeAdapter(Edge.class, new ChampEdgeSerializer()).create();
 
+  // Types of vertices recently read from Champ, used to skip the endpoint reads of edge creates. Null when disabled.
+  protected Cache<String, String> knownVertexTypes = createKnownVertexCache();
+
+  // Reads the target of an edge while its source is read. Sized separately from the vertex reads of the service.
+  protected GraphReadExecutor endpointReadExecutor = GraphReadExecutor.fromConfiguration("champEndpointRead",
+      CrudServiceConstants.CRD_CHAMP_ENDPOINT_READ_THREADS, CrudServiceConstants.CRD_CHAMP_ENDPOINT_READ_TIMEOUT);
+
+  @FunctionalInterface
+  private interface EndpointRead {
+    Vertex read(Vertex endpoint) throws CrudException;
+  }
+
   public ChampDao() {
   }
 
   public ChampDao(String champUrl, String certPassword) {
     try {
       String deobfuscatedCertPassword = certPassword.startsWith("OBF:")?Password.deobfuscate(certPassword):certPassword;
-      client = new RestClient().authenticationMode(RestAuthenticationMode.SSL_CERT).validateServerHostname(false)
+      client = createMeteredClient("champ", CrudServiceConstants.CRD_CHAMP_CLIENT_MAX_REQUESTS,
+              CrudServiceConstants.CRD_CHAMP_CLIENT_ACQUIRE_TIMEOUT)
+              .authenticationMode(RestAuthenticationMode.SSL_CERT).validateServerHostname(false)
               .validateServerCertChain(false).clientCertFile(CrudServiceConstants.CRD_CHAMP_AUTH_FILE)
               .clientCertPassword(deobfuscatedCertPassword);
 
@@ -135,6 +165,9 @@ public class ChampDao implements GraphDao {
         throw new CrudException("No vertex with id " + id + " and type " + type + " found in graph",
                 javax.ws.rs.core.Response.Status.NOT_FOUND);
       }
+      if (knownVertexTypes != null) {
+        knownVertexTypes.put(id, vert.getType());
+      }
       return getResult;
     } else {
       // We didn't find a vertex with the supplied id, so just throw an
@@ -301,6 +334,7 @@ public class ChampDao implements GraphDao {
 
   @Override
   public void deleteVertex(String id, String type) throws CrudException {
+    forgetVertex(id);
     String url = baseObjectUrl + "/" + id;
     OperationResult getResult = client.delete(url, createHeader(), MediaType.APPLICATION_JSON_TYPE);
 
@@ -315,13 +349,10 @@ public class ChampDao implements GraphDao {
   public OperationResult addEdge(String type, Vertex source, Vertex target, Map<String, Object> properties, String version) throws CrudException {
     String url = baseRelationshipUrl;
 
-    // Try requests to ensure source and target exist in Champ
-    OperationResult dbSourceOpResult = getVertex(source.getId().get(), source.getType(), version, new HashMap<String, String>());
-    Vertex dbSource = Vertex.fromJson(dbSourceOpResult.getResult(), version);
-    OperationResult dbTargetOpResult = getVertex(target.getId().get(), target.getType(), version, new HashMap<String, String>());
-    Vertex dbTarget = Vertex.fromJson(dbTargetOpResult.getResult(), version);
-
-    Edge.Builder insertEdgeBuilder = new Edge.Builder(type).source(dbSource).target(dbTarget);
+    // Ensure source and target exist in Champ
+    Edge.Builder insertEdgeBuilder = edgeBuilderWithEndpoints(type, source, target, null, endpoint -> Vertex.fromJson(
+        getVertex(endpoint.getId().get(), endpoint.getType(), version, new HashMap<String, String>()).getResult(),
+        version));
     properties.forEach(insertEdgeBuilder::property);
     Edge insertEdge = insertEdgeBuilder.build();
 
@@ -450,11 +481,9 @@ public class ChampDao implements GraphDao {
           throws CrudException {
     String url = baseRelationshipUrl + "?transactionId=" + txId;
 
-    // Try requests to ensure source and target exist in Champ
-    Vertex dbSource = getVertex(source.getId().get(), source.getType(), version, txId);
-    Vertex dbTarget = getVertex(target.getId().get(), target.getType(), version, txId);
-
-    Edge.Builder insertEdgeBuilder = new Edge.Builder(type).source(dbSource).target(dbTarget);
+    // Ensure source and target exist in Champ
+    Edge.Builder insertEdgeBuilder = edgeBuilderWithEndpoints(type, source, target, txId,
+        endpoint -> getVertex(endpoint.getId().get(), endpoint.getType(), version, txId));
     properties.forEach(insertEdgeBuilder::property);
     Edge insertEdge = insertEdgeBuilder.build();
 
@@ -498,6 +527,7 @@ public class ChampDao implements GraphDao {
 
   @Override
   public void deleteVertex(String id, String type, String txId) throws CrudException {
+    forgetVertex(id);
     String url = baseObjectUrl + "/" + id + "?transactionId=" + txId;
     OperationResult getResult = client.delete(url, createHeader(), MediaType.APPLICATION_JSON_TYPE);
 
@@ -607,6 +637,103 @@ public class ChampDao implements GraphDao {
     return nvpList;
   }
 
+  /**
+   * Starts building an edge between the source and target as they are stored in Champ. Endpoints read recently are
+   * not read again; of the others, the target is read while the source is read. Reads within a transaction are kept
+   * in sequence, so that the requests of a transaction reach Champ one at a time.
+   */
+  private Edge.Builder edgeBuilderWithEndpoints(String type, Vertex source, Vertex target, String txId,
+      EndpointRead read) throws CrudException {
+    Vertex dbSource = knownVertex(source);
+    Vertex dbTarget = knownVertex(target);
+
+    CompletableFuture<Vertex> targetRead = null;
+    if (dbTarget == null && txId == null) {
+      targetRead = endpointReadExecutor.submit(() -> read.read(target));
+    }
+    if (dbSource == null) {
+      try {
+        dbSource = read.read(source);
+      } catch (CrudException e) {
+        if (targetRead != null) {
+          targetRead.cancel(false);
+        }
+        throw e;
+      }
+    }
+    if (targetRead != null) {
+      dbTarget = endpointReadExecutor.await(targetRead, "vertex " + target.getId().get());
+    } else if (dbTarget == null) {
+      dbTarget = read.read(target);
+    }
+
+    return new Edge.Builder(type).source(dbSource).target(dbTarget);
+  }
+
+  private Vertex knownVertex(Vertex vertex) {
+    if (knownVertexTypes == null) {
+      return null;
+    }
+    String knownType = knownVertexTypes.getIfPresent(vertex.getId().get());
+    if (knownType == null || !knownType.equalsIgnoreCase(vertex.getType())) {
+      return null;
+    }
+    return new Vertex.Builder(knownType).id(vertex.getId().get()).build();
+  }
+
+  private void forgetVertex(String id) {
+    if (knownVertexTypes != null) {
+      knownVertexTypes.invalidate(id);
+    }
+  }
+
+  private static Cache<String, String> createKnownVertexCache() {
+    long cacheSize = 0;
+    long cacheTtl = CachingGraphDao.DEFAULT_TTL;
+    try {
+      cacheSize = Long.parseLong(CrudProperties.get(CrudServiceConstants.CRD_CHAMP_ENDPOINT_CACHE_SIZE, "0"));
+      cacheTtl = Long.parseLong(CrudProperties.get(CrudServiceConstants.CRD_ENTITY_CACHE_TTL,
+          Long.toString(CachingGraphDao.DEFAULT_TTL)));
+    } catch (NumberFormatException ex) {
+      // Leave the cache disabled
+      cacheSize = 0;
+    }
+    if (cacheSize <= 0) {
+      return null;
+    }
+    return CacheBuilder.newBuilder().maximumSize(cacheSize).expireAfterWrite(cacheTtl, TimeUnit.MILLISECONDS)
+        .build();
+  }
+
+  @Override
+  public Collection<Metric<?>> metrics() {
+    if (client instanceof PublicMetrics) {
+      return ((PublicMetrics) client).metrics();
+    }
+    return Collections.emptyList();
+  }
+
+  /**
+   * Creates a metered client for an endpoint. Requests are not limited unless the max requests property is set.
+   *
+   * @param name name of the endpoint, used to prefix the client metrics
+   * @param maxRequestsKey property holding the maximum number of requests in flight
+   * @param acquireTimeoutKey property holding the time a request waits when the limit is reached
+   */
+  protected static MeteredRestClient createMeteredClient(String name, String maxRequestsKey,
+      String acquireTimeoutKey) {
+    int maxRequests = MeteredRestClient.DEFAULT_MAX_CONCURRENT_REQUESTS;
+    long acquireTimeout = MeteredRestClient.DEFAULT_ACQUIRE_TIMEOUT;
+    try {
+      maxRequests = Integer.parseInt(CrudProperties.get(maxRequestsKey, Integer.toString(maxRequests)));
+      acquireTimeout = Long.parseLong(CrudProperties.get(acquireTimeoutKey, Long.toString(acquireTimeout)));
+    } catch (Exception ex) {
+      logger.error(CrudServiceMsgs.CHAMP_DAO_CONFIG_ERROR,
+          "Unable to parse " + name + " client configuration: " + ex.getMessage());
+    }
+    return new MeteredRestClient(name, maxRequests, acquireTimeout);
+  }
+
   private Map<String, List<String>> createHeader() {
     Map<String, List<String>> headers = new HashMap<>();
     headers.put(HEADER_FROM_APP, Arrays.asList(FROM_APP_NAME));
@@ -627,6 +754,10 @@ public class ChampDao implements GraphDao {
   @Override
   public OperationResult bulkOperation(ChampBulkPayload champPayload) throws CrudException {
     String url = baseBulkUrl;
+    if (knownVertexTypes != null) {
+      // A bulk request may delete vertices
+      knownVertexTypes.invalidateAll();
+    }
 
     OperationResult getResult = client.post(url, champPayload.toJson(), createHeader(), MediaType.APPLICATION_JSON_TYPE,
             MediaType.APPLICATION_JSON_TYPE);
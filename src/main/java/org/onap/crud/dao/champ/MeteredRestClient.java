@@ -0,0 +1,185 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.dao.champ;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response.Status;
+import org.onap.aai.restclient.client.OperationResult;
+import org.onap.aai.restclient.client.RestClient;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+/**
+ * REST client for a single Champ (or Champ compatible) endpoint that meters its requests and can bound the number of
+ * requests in flight.
+ *
+ * <p>
+ * Requests are not limited by default. When a limit is set, a request waits up to the acquire timeout for one of the
+ * slots, and a request that times out fails with a 503 without being sent. The number of requests in flight, requests
+ * waiting and the time spent waiting are exported as metrics.
+ *
+ * <p>
+ * The client does not pool connections itself: they are reused through the JDK keep-alive cache, which keeps at most
+ * http.maxConnections idle connections per destination (5 by default). Set that system property to at least the
+ * request limit when bursts should reuse warm connections and their TLS sessions.
+ */
+public class MeteredRestClient extends RestClient implements PublicMetrics {
+
+  public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 0;
+  public static final long DEFAULT_ACQUIRE_TIMEOUT = 5000;
+
+  private final String metricPrefix;
+  private final int maxConcurrentRequests;
+  private final long acquireTimeoutInMs;
+  private final Semaphore slots;
+
+  private final AtomicLong active = new AtomicLong();
+  private final AtomicLong waiting = new AtomicLong();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong waitTimeInNanos = new AtomicLong();
+  private final AtomicLong maxWaitTimeInNanos = new AtomicLong();
+  private final AtomicLong rejections = new AtomicLong();
+
+  /**
+   * @param name name of the endpoint, used to prefix the metrics
+   * @param maxConcurrentRequests maximum number of requests in flight to the endpoint, 0 for no limit
+   * @param acquireTimeoutInMs maximum time a request waits for a slot
+   */
+  public MeteredRestClient(String name, int maxConcurrentRequests, long acquireTimeoutInMs) {
+    this.metricPrefix = "gizmo." + name + ".client.";
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.acquireTimeoutInMs = acquireTimeoutInMs;
+    this.slots = maxConcurrentRequests > 0 ? new Semaphore(maxConcurrentRequests, true) : null;
+  }
+
+  @Override
+  public OperationResult get(String url, Map<String, List<String>> headers, MediaType responseType) {
+    return execute(url, () -> super.get(url, headers, responseType));
+  }
+
+  @Override
+  public OperationResult post(String url, String payload, Map<String, List<String>> headers, MediaType contentType,
+      MediaType responseType) {
+    return execute(url, () -> super.post(url, payload, headers, contentType, responseType));
+  }
+
+  @Override
+  public OperationResult put(String url, String payload, Map<String, List<String>> headers, MediaType contentType,
+      MediaType responseType) {
+    return execute(url, () -> super.put(url, payload, headers, contentType, responseType));
+  }
+
+  @Override
+  public OperationResult delete(String url, Map<String, List<String>> headers, MediaType responseType) {
+    return execute(url, () -> super.delete(url, headers, responseType));
+  }
+
+  public int getMaxConcurrentRequests() {
+    return maxConcurrentRequests;
+  }
+
+  public long getActiveRequests() {
+    return active.get();
+  }
+
+  public long getWaiting() {
+    return waiting.get();
+  }
+
+  public long getRejections() {
+    return rejections.get();
+  }
+
+  /**
+   * Exports the client metrics. A max of 0 means requests are not limited, in which case the utilization is 0.
+   */
+  @Override
+  public Collection<Metric<?>> metrics() {
+    long requestCount = requests.get();
+    long waitTimeInMs = TimeUnit.NANOSECONDS.toMillis(waitTimeInNanos.get());
+    return Arrays.<Metric<?>>asList(
+        new Metric<Integer>(metricPrefix + "max", maxConcurrentRequests),
+        new Metric<Long>(metricPrefix + "active", getActiveRequests()),
+        new Metric<Double>(metricPrefix + "utilization",
+            maxConcurrentRequests > 0 ? (double) getActiveRequests() / maxConcurrentRequests : 0.0),
+        new Metric<Long>(metricPrefix + "waiting", getWaiting()),
+        new Metric<Long>(metricPrefix + "requests", requestCount),
+        new Metric<Long>(metricPrefix + "rejections", getRejections()),
+        new Metric<Double>(metricPrefix + "wait.time.mean",
+            requestCount == 0 ? 0.0 : (double) waitTimeInMs / requestCount),
+        new Metric<Long>(metricPrefix + "wait.time.max",
+            TimeUnit.NANOSECONDS.toMillis(maxWaitTimeInNanos.get())));
+  }
+
+  OperationResult execute(String url, Supplier<OperationResult> request) {
+    if (slots == null) {
+      requests.incrementAndGet();
+      return run(request);
+    }
+
+    long start = System.nanoTime();
+    waiting.incrementAndGet();
+    boolean acquired = false;
+    try {
+      acquired = slots.tryAcquire(acquireTimeoutInMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      waiting.decrementAndGet();
+    }
+
+    long waitTime = System.nanoTime() - start;
+    requests.incrementAndGet();
+    waitTimeInNanos.addAndGet(waitTime);
+    maxWaitTimeInNanos.accumulateAndGet(waitTime, Math::max);
+
+    if (!acquired) {
+      rejections.incrementAndGet();
+      OperationResult result = new OperationResult();
+      result.setResultCode(Status.SERVICE_UNAVAILABLE.getStatusCode());
+      result.setFailureCause("Timed out waiting to send a request to " + url);
+      return result;
+    }
+
+    try {
+      return run(request);
+    } finally {
+      slots.release();
+    }
+  }
+
+  private OperationResult run(Supplier<OperationResult> request) {
+    active.incrementAndGet();
+    try {
+      return request.get();
+    } finally {
+      active.decrementAndGet();
+    }
+  }
+}
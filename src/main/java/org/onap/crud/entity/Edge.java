@@ -25,6 +25,7 @@ import net.dongliu.gson.GsonJava8TypeAdapterFactory;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -114,6 +115,13 @@ public class Edge {
     return gson.fromJson(jsonString, Edge.class);
   }
 
+  /**
+   * Reads the next edge of a stream.
+   */
+  public static Edge fromJson(JsonReader reader) {
+    return gson.fromJson(reader, Edge.class);
+  }
+
   public Optional<String> getId() {
     return id;
   }
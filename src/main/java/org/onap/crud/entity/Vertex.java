@@ -20,8 +20,11 @@
  */
 package org.onap.crud.entity;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -29,7 +32,6 @@ import org.eclipse.persistence.dynamic.DynamicType;
 import org.eclipse.persistence.internal.helper.DatabaseField;
 import org.eclipse.persistence.jaxb.dynamic.DynamicJAXBContext;
 import org.eclipse.persistence.mappings.DatabaseMapping;
-import org.json.JSONArray;
 import org.json.JSONObject;
 import org.onap.crud.exception.CrudException;
 import org.onap.crud.util.CrudServiceUtil;
@@ -39,12 +41,17 @@ import org.onap.schema.OxmModelValidator;
 import com.google.common.base.CaseFormat;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
 import net.dongliu.gson.GsonJava8TypeAdapterFactory;
 
 public class Vertex {
   private static final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new GsonJava8TypeAdapterFactory())
       .create();
+  private static final JsonParser jsonParser = new JsonParser();
 
   @SerializedName(value = "id", alternate = { "key" })
   private final Optional<String> id;
@@ -106,55 +113,89 @@ public class Vertex {
   }
 
   public static Vertex fromJson(JSONObject jsonObject, String version) throws CrudException {
-    Builder builder;
-
     try {
-      String type = jsonObject.getString("type");
-      builder = new Builder(type).id(jsonObject.getString("key"));
-
-      type = OxmModelValidator.resolveCollectionType(version, type);
-      DynamicJAXBContext jaxbContext = OxmModelLoader.getContextForVersion(version);
-      
-      final DynamicType modelObjectType = OxmModelLoader.getDynamicTypeForVersion(version, type);
-      final DynamicType reservedType = jaxbContext.getDynamicType("ReservedPropNames");
-
-
-      if (modelObjectType == null) {
-        throw new CrudException("Unable to load oxm version", javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR);
-      }
-
+      Map<String, String> properties = new LinkedHashMap<>();
       if (jsonObject.has("properties")) {
         JSONObject jsonProps = jsonObject.getJSONObject("properties");
         for (String key : jsonProps.keySet()) {
-          String keyJavaName = CaseFormat.LOWER_HYPHEN.to(CaseFormat.LOWER_CAMEL, key);
-          DatabaseMapping mapping = modelObjectType.getDescriptor().getMappingForAttributeName(keyJavaName);
-
-          if (mapping == null) {
-            // This might be one of the reserved properties
-            mapping = reservedType.getDescriptor().getMappingForAttributeName(keyJavaName);
-          }
-
-          if (mapping != null) {
-            DatabaseField field = mapping.getField();
-            Object value = CrudServiceUtil.validateFieldType(jsonProps.get(key).toString(), field.getType());
-            builder.property(key, value);
-          }
+          properties.put(key, jsonProps.get(key).toString());
         }
       }
+      return fromChamp(jsonObject.getString("type"), jsonObject.getString("key"), properties, version);
     }
     catch (Exception ex) {
       throw new CrudException("Unable to transform response: " + jsonObject.toString(), javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR);
     }
+  }
+
+  /**
+   * Gson counterpart of {@link #fromJson(JSONObject, String)}, for vertices decoded one at a time from a stream.
+   */
+  public static Vertex fromJson(JsonObject jsonObject, String version) throws CrudException {
+    try {
+      Map<String, String> properties = new LinkedHashMap<>();
+      if (jsonObject.has("properties")) {
+        for (Map.Entry<String, JsonElement> property : jsonObject.getAsJsonObject("properties").entrySet()) {
+          JsonElement value = property.getValue();
+          properties.put(property.getKey(), value.isJsonPrimitive() ? value.getAsString() : value.toString());
+        }
+      }
+      return fromChamp(jsonObject.get("type").getAsString(), jsonObject.get("key").getAsString(), properties,
+          version);
+    }
+    catch (Exception ex) {
+      throw new CrudException("Unable to transform response: " + jsonObject.toString(), javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  /**
+   * Builds a vertex from the fields of a Champ object, keeping the properties defined by the OXM model of the
+   * vertex type (or reserved) and converting them to their model type.
+   */
+  private static Vertex fromChamp(String type, String key, Map<String, String> properties, String version)
+      throws CrudException {
+    Builder builder = new Builder(type).id(key);
+
+    type = OxmModelValidator.resolveCollectionType(version, type);
+    DynamicJAXBContext jaxbContext = OxmModelLoader.getContextForVersion(version);
+
+    final DynamicType modelObjectType = OxmModelLoader.getDynamicTypeForVersion(version, type);
+    final DynamicType reservedType = jaxbContext.getDynamicType("ReservedPropNames");
+
+
+    if (modelObjectType == null) {
+      throw new CrudException("Unable to load oxm version", javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR);
+    }
+
+    for (Map.Entry<String, String> property : properties.entrySet()) {
+      String keyJavaName = CaseFormat.LOWER_HYPHEN.to(CaseFormat.LOWER_CAMEL, property.getKey());
+      DatabaseMapping mapping = modelObjectType.getDescriptor().getMappingForAttributeName(keyJavaName);
+
+      if (mapping == null) {
+        // This might be one of the reserved properties
+        mapping = reservedType.getDescriptor().getMappingForAttributeName(keyJavaName);
+      }
+
+      if (mapping != null) {
+        DatabaseField field = mapping.getField();
+        Object value = CrudServiceUtil.validateFieldType(property.getValue(), field.getType());
+        builder.property(property.getKey(), value);
+      }
+    }
 
     return builder.build();
   }
 
   public static List<Vertex> collectionFromJson(String jsonString, String version) throws CrudException {
     List<Vertex> result = new ArrayList<>();
-    JSONArray array = new JSONArray(jsonString);
-
-    for (Object jsonObject : array) {
-      result.add(Vertex.fromJson((JSONObject)jsonObject, version));
+    try (JsonReader reader = new JsonReader(new StringReader(jsonString))) {
+      reader.beginArray();
+      while (reader.hasNext()) {
+        result.add(Vertex.fromJson(jsonParser.parse(reader).getAsJsonObject(), version));
+      }
+      reader.endArray();
+    } catch (IOException | RuntimeException ex) {
+      throw new CrudException("Unable to transform response: " + ex.getMessage(), javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR);
     }
 
     return result;
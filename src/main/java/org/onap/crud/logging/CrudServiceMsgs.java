@@ -53,6 +53,14 @@ public enum CrudServiceMsgs implements LogMessageEnum {
    */
   LOADED_DB_RULE_FILE,
 
+  /**
+   * Loaded {0} for version {1} in {2} ms
+   *
+   * <p>
+   * Arguments: {0} = schema kind {1} = version {2} = load time
+   */
+  SCHEMA_VERSION_LOAD_TIME,
+
   /**
    * Unable to load OXM schema: {0}
    *
@@ -100,6 +108,14 @@ public enum CrudServiceMsgs implements LogMessageEnum {
    * {0} - Info.
    */
   CHAMP_BULK_OP_INFO,
+
+  /**
+   * Invalid Champ DAO configuration: {0}
+   *
+   * <p>Arguments:
+   * {0} - Error.
+   */
+  CHAMP_DAO_CONFIG_ERROR,
   
   /**
    * Any info log related to ASYNC_DATA_CACHE_INFO
@@ -20,10 +20,14 @@
  */
 package org.onap.crud.parser;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.ws.rs.core.Response.Status;
 import org.onap.crud.entity.Edge;
 import org.onap.crud.entity.Vertex;
 import org.onap.crud.exception.CrudException;
@@ -36,10 +40,14 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 public class CrudResponseBuilder {
 
   private static final Gson gson = new GsonBuilder().create();
+  private static final JsonParser jsonParser = new JsonParser();
 
   public static final String SOURCE = "source";
   public static final String TARGET = "target";
@@ -141,24 +149,51 @@ public class CrudResponseBuilder {
 
     JsonArray arry = new JsonArray();
     for (Vertex v : items) {
-      JsonObject item = new JsonObject();
-      item.addProperty("id", v.getId().get());
-      item.addProperty("type", v.getType());
-      item.addProperty("url", "services/inventory/" + version + "/" + v.getType() + "/" + v.getId().get());
-      if (!v.getProperties().isEmpty()) {
-        JsonObject propertiesObject = new JsonObject();
-        for (String key : v.getProperties().keySet()) {
-          propertiesObject.addProperty(key, v.getProperties().get(key).toString());
-        }
-        item.add("properties", propertiesObject);
-      }
-
-      arry.add(item);
+      arry.add(buildGetVerticesItem(v, version));
     }
 
     return gson.toJson(arry);
   }
 
+  /**
+   * Builds the same response as {@link #buildGetVerticesResponse(List, String)} from a Champ collection response,
+   * decoding and writing one vertex at a time instead of holding every vertex in memory.
+   */
+  public static String buildGetVerticesResponse(Reader champVertices, String version) throws CrudException {
+    StringWriter response = new StringWriter();
+    try (JsonReader reader = new JsonReader(champVertices)) {
+      JsonWriter writer = gson.newJsonWriter(response);
+      reader.beginArray();
+      writer.beginArray();
+      while (reader.hasNext()) {
+        Vertex v = Vertex.fromJson(jsonParser.parse(reader).getAsJsonObject(), version);
+        gson.toJson(buildGetVerticesItem(v, version), writer);
+      }
+      reader.endArray();
+      writer.endArray();
+      writer.flush();
+    } catch (IOException | RuntimeException ex) {
+      throw new CrudException("Unable to transform response: " + ex.getMessage(),
+          Status.INTERNAL_SERVER_ERROR);
+    }
+    return response.toString();
+  }
+
+  private static JsonObject buildGetVerticesItem(Vertex v, String version) {
+    JsonObject item = new JsonObject();
+    item.addProperty("id", v.getId().get());
+    item.addProperty("type", v.getType());
+    item.addProperty("url", "services/inventory/" + version + "/" + v.getType() + "/" + v.getId().get());
+    if (!v.getProperties().isEmpty()) {
+      JsonObject propertiesObject = new JsonObject();
+      for (String key : v.getProperties().keySet()) {
+        propertiesObject.addProperty(key, v.getProperties().get(key).toString());
+      }
+      item.add("properties", propertiesObject);
+    }
+    return item;
+  }
+
   public static String buildGetEdgeResponse(Edge edge, String version) throws CrudException {
 
     EdgePayload payload = new EdgePayload();
@@ -180,20 +215,47 @@ public class CrudResponseBuilder {
 
     JsonArray arry = new JsonArray();
     for (Edge e : items) {
-      JsonObject item = new JsonObject();
-      item.addProperty("id", e.getId().get());
-      item.addProperty("type", e.getType());
-      item.addProperty("url", URL_BASE + "relationships/" + version + "/" + e.getType() + "/" + e.getId().get());
-      item.addProperty(SOURCE,
-          "services/inventory/" + version + "/" + e.getSource().getType() + "/" + e.getSource().getId().get());
-      item.addProperty(TARGET,
-          "services/inventory/" + version + "/" + e.getTarget().getType() + "/" + e.getTarget().getId().get());
-      arry.add(item);
+      arry.add(buildGetEdgesItem(e, version));
     }
 
     return gson.toJson(arry);
   }
 
+  /**
+   * Builds the same response as {@link #buildGetEdgesResponse(List, String)} from a Champ collection response,
+   * decoding and writing one edge at a time instead of holding every edge in memory.
+   */
+  public static String buildGetEdgesResponse(Reader champEdges, String version) throws CrudException {
+    StringWriter response = new StringWriter();
+    try (JsonReader reader = new JsonReader(champEdges)) {
+      JsonWriter writer = gson.newJsonWriter(response);
+      reader.beginArray();
+      writer.beginArray();
+      while (reader.hasNext()) {
+        gson.toJson(buildGetEdgesItem(Edge.fromJson(reader), version), writer);
+      }
+      reader.endArray();
+      writer.endArray();
+      writer.flush();
+    } catch (IOException | RuntimeException ex) {
+      throw new CrudException("Unable to transform response: " + ex.getMessage(),
+          Status.INTERNAL_SERVER_ERROR);
+    }
+    return response.toString();
+  }
+
+  private static JsonObject buildGetEdgesItem(Edge e, String version) {
+    JsonObject item = new JsonObject();
+    item.addProperty("id", e.getId().get());
+    item.addProperty("type", e.getType());
+    item.addProperty("url", URL_BASE + "relationships/" + version + "/" + e.getType() + "/" + e.getId().get());
+    item.addProperty(SOURCE,
+        "services/inventory/" + version + "/" + e.getSource().getType() + "/" + e.getSource().getId().get());
+    item.addProperty(TARGET,
+        "services/inventory/" + version + "/" + e.getTarget().getType() + "/" + e.getTarget().getId().get());
+    return item;
+  }
+
   private static void addJsonProperperty(JsonObject jsonObj, String key, Object value) {
     if (value instanceof Integer) {
       jsonObj.addProperty(key, (Integer) value);
@@ -20,62 +20,252 @@
  */
 package org.onap.crud.service;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
-import net.dongliu.gson.GsonJava8TypeAdapterFactory;
+import javax.ws.rs.core.Response.Status;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.onap.aai.restclient.client.OperationResult;
+import org.onap.crud.dao.CachingGraphDao;
 import org.onap.crud.dao.GraphDao;
-import org.onap.crud.dao.champ.ChampEdgeSerializer;
-import org.onap.crud.dao.champ.ChampVertexSerializer;
+import org.onap.crud.dao.GraphReadExecutor;
 import org.onap.crud.entity.Edge;
 import org.onap.crud.entity.Vertex;
 import org.onap.crud.exception.CrudException;
 import org.onap.crud.parser.CrudResponseBuilder;
+import org.onap.crud.util.CrudProperties;
+import org.onap.crud.util.CrudServiceConstants;
 import org.onap.crud.util.CrudServiceUtil;
 import org.onap.schema.OxmModelValidator;
 import org.onap.schema.RelationshipSchemaValidator;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
 
-public abstract class AbstractGraphDataService {
+/**
+ * Base of the graph data services. The data service is the Spring bean of the service layer, so it exports the
+ * metrics of the components it creates itself.
+ */
+public abstract class AbstractGraphDataService implements PublicMetrics {
   protected GraphDao daoForGet;
   protected GraphDao dao;
 
+  // Read-through cache wrapping daoForGet, null when entity caching is disabled
+  protected CachingGraphDao entityCache;
+
+  // Serialize the conditional writes of vertices and edges
+  protected EntityWriteGuard vertexWrites;
+  protected EntityWriteGuard edgeWrites;
+
+  // Runs the reads of daoForGet which are issued alongside the request thread, for example fetching the edges of a
+  // vertex while the vertex is fetched
+  protected GraphReadExecutor vertexReadExecutor = GraphReadExecutor.fromConfiguration("crudVertexRead");
+
   public AbstractGraphDataService() throws CrudException {
   }
 
+  /**
+   * Wraps the DAO used for reads in an entity cache when one is configured, and sets up the guards of conditional
+   * writes.
+   */
+  protected GraphDao withEntityCache(GraphDao daoForGet) {
+    long cacheSize = 0;
+    long cacheTtl = CachingGraphDao.DEFAULT_TTL;
+    try {
+      cacheSize = Long.parseLong(CrudProperties.get(CrudServiceConstants.CRD_ENTITY_CACHE_SIZE, "0"));
+      cacheTtl = Long.parseLong(CrudProperties.get(CrudServiceConstants.CRD_ENTITY_CACHE_TTL,
+          Long.toString(CachingGraphDao.DEFAULT_TTL)));
+    } catch (NumberFormatException ex) {
+      // Leave caching disabled
+      cacheSize = 0;
+    }
+    vertexWrites = new EntityWriteGuard(getPendingWriteTimeout());
+    edgeWrites = new EntityWriteGuard(getPendingWriteTimeout());
+    if (cacheSize <= 0) {
+      return daoForGet;
+    }
+    entityCache = new CachingGraphDao(daoForGet, cacheSize, cacheTtl);
+    return entityCache;
+  }
+
+  /**
+   * Time after which a conditional write which hasn't ended releases its entity. It must be longer than any write can
+   * take.
+   */
+  protected long getPendingWriteTimeout() {
+    return EntityWriteGuard.DEFAULT_PENDING_WRITE_TIMEOUT;
+  }
+
+  /**
+   * Time after which a request suspended while this service completes it is answered with a timeout error, or 0 for
+   * no limit. Requests to the graph are bounded by the timeouts of its client, so there is no limit by default.
+   */
+  public long getSuspendTimeout() {
+    return 0;
+  }
+
+  /**
+   * Returns the current state of a vertex about to be written, first evaluating the If-Match precondition if one is
+   * given. The vertex is always read from the graph, so that the precondition is checked against its current tag. A
+   * conditional write started this way must be ended with {@link EntityWriteGuard#endWrite(String)}.
+   */
+  protected Vertex getVertexForWrite(String version, String id, String type, String ifMatch) throws CrudException {
+    if (ifMatch != null) {
+      vertexWrites.beginWrite(id);
+    }
+    try {
+      OperationResult existingVertexOpResult = dao.getVertex(id, OxmModelValidator.resolveCollectionType(version, type),
+          version, new HashMap<String, String>());
+      if (ifMatch != null) {
+        vertexWrites.verify(id, ifMatch, CrudServiceUtil.getETagFromHeader(existingVertexOpResult.getHeaders()));
+      }
+      return Vertex.fromJson(existingVertexOpResult.getResult(), version);
+    } catch (CrudException e) {
+      if (ifMatch != null) {
+        vertexWrites.endWrite(id);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Edge counterpart of {@link #getVertexForWrite(String, String, String, String)}.
+   */
+  protected Edge getEdgeForWrite(String id, String type, String ifMatch) throws CrudException {
+    if (ifMatch != null) {
+      edgeWrites.beginWrite(id);
+    }
+    try {
+      OperationResult operationResult = dao.getEdge(id, type, new HashMap<String, String>());
+      if (ifMatch != null) {
+        edgeWrites.verify(id, ifMatch, CrudServiceUtil.getETagFromHeader(operationResult.getHeaders()));
+      }
+      return Edge.fromJson(operationResult.getResult());
+    } catch (CrudException e) {
+      if (ifMatch != null) {
+        edgeWrites.endWrite(id);
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  public Collection<Metric<?>> metrics() {
+    Collection<Metric<?>> metrics = new ArrayList<>();
+    if (entityCache != null) {
+      metrics.addAll(entityCache.metrics());
+    }
+    return metrics;
+  }
+
+  public CachingGraphDao getEntityCache() {
+    return entityCache;
+  }
+
+  protected void invalidateVertex(String id) {
+    if (entityCache != null) {
+      entityCache.invalidateVertex(id);
+    }
+  }
+
+  protected void invalidateEdge(String id) {
+    if (entityCache != null) {
+      entityCache.invalidateEdge(id);
+    }
+  }
+
+  protected void invalidateEdge(Edge edge) {
+    if (entityCache != null) {
+      entityCache.invalidateEdge(edge);
+    }
+  }
+
+  protected void invalidateAll() {
+    if (entityCache != null) {
+      entityCache.invalidateAll();
+    }
+  }
+
   public ImmutablePair<EntityTag, String> getEdge(String version, String id, String type, Map<String, String> queryParams) throws CrudException {
+    return getEdge(version, id, type, queryParams, false);
+  }
+
+  public ImmutablePair<EntityTag, String> getEdge(String version, String id, String type, Map<String, String> queryParams,
+      boolean bypassCache) throws CrudException {
+    return getEdge(version, id, type, queryParams, bypassCache, null);
+  }
+
+  /**
+   * @param bypassCache true to read the edge from the graph rather than from the entity cache
+   * @param ifNoneMatch the If-None-Match header of the request, or null. When it matches the current entity tag, the
+   *        response payload is not built and null is returned in its place.
+   */
+  public ImmutablePair<EntityTag, String> getEdge(String version, String id, String type, Map<String, String> queryParams,
+      boolean bypassCache, String ifNoneMatch) throws CrudException {
     RelationshipSchemaValidator.validateType(version, type);
+    if (bypassCache) {
+      invalidateEdge(id);
+    }
     OperationResult operationResult = daoForGet.getEdge(id, type, queryParams);
     EntityTag entityTag = CrudServiceUtil.getETagFromHeader(operationResult.getHeaders());
     Edge edge = Edge.fromJson(operationResult.getResult());
+    if (CrudServiceUtil.matchesETag(ifNoneMatch, entityTag)) {
+      return new ImmutablePair<>(entityTag, null);
+    }
     return new ImmutablePair<>(entityTag, CrudResponseBuilder.buildGetEdgeResponse(RelationshipSchemaValidator.validateOutgoingPayload(version, edge), version));
   }
 
   public ImmutablePair<EntityTag, String> getEdges(String version, String type, Map<String, String> filter) throws CrudException {
-     Gson champGson = new GsonBuilder()
-              .registerTypeAdapterFactory(new GsonJava8TypeAdapterFactory())
-              .registerTypeAdapter(Vertex.class, new ChampVertexSerializer())
-              .registerTypeAdapter(Edge.class, new ChampEdgeSerializer()).create();
     RelationshipSchemaValidator.validateType(version, type);
     OperationResult operationResult = daoForGet.getEdges(type, RelationshipSchemaValidator.resolveCollectionfilter(version, type, filter));
-    List<Edge> items = champGson.fromJson(operationResult.getResult(), new TypeToken<List<Edge>>() {
-    }.getType());
     EntityTag entityTag = CrudServiceUtil.getETagFromHeader(operationResult.getHeaders());
-    return new ImmutablePair<>(entityTag, CrudResponseBuilder.buildGetEdgesResponse(items, version));
+    return new ImmutablePair<>(entityTag,
+        CrudResponseBuilder.buildGetEdgesResponse(new StringReader(operationResult.getResult()), version));
   }
 
   public ImmutablePair<EntityTag, String> getVertex(String version, String id, String type, Map<String, String> queryParams) throws CrudException {
+    return getVertex(version, id, type, queryParams, false);
+  }
+
+  public ImmutablePair<EntityTag, String> getVertex(String version, String id, String type, Map<String, String> queryParams,
+      boolean bypassCache) throws CrudException {
+    return getVertex(version, id, type, queryParams, bypassCache, null);
+  }
+
+  /**
+   * @param bypassCache true to read the vertex and its edges from the graph rather than from the entity cache
+   * @param ifNoneMatch the If-None-Match header of the request, or null. When it matches the current entity tag, the
+   *        response payload is not built and null is returned in its place.
+   */
+  public ImmutablePair<EntityTag, String> getVertex(String version, String id, String type, Map<String, String> queryParams,
+      boolean bypassCache, String ifNoneMatch) throws CrudException {
     type = OxmModelValidator.resolveCollectionType(version, type);
-    OperationResult vertexOpResult = daoForGet.getVertex(id, type, version, queryParams);
+    if (bypassCache) {
+      invalidateVertex(id);
+    }
+    CompletableFuture<List<Edge>> edgesFuture =
+        vertexReadExecutor.submit(() -> daoForGet.getVertexEdges(id, queryParams, null));
+    OperationResult vertexOpResult;
+    try {
+      vertexOpResult = daoForGet.getVertex(id, type, version, queryParams);
+    } catch (CrudException e) {
+      edgesFuture.cancel(false);
+      throw e;
+    }
     Vertex vertex = Vertex.fromJson(vertexOpResult.getResult(), version);
-    List<Edge> edges = daoForGet.getVertexEdges(id, queryParams, null);
     EntityTag entityTag = CrudServiceUtil.getETagFromHeader(vertexOpResult.getHeaders());
+    if (CrudServiceUtil.matchesETag(ifNoneMatch, entityTag)) {
+      edgesFuture.cancel(false);
+      return new ImmutablePair<>(entityTag, null);
+    }
+    List<Edge> edges = vertexReadExecutor.await(edgesFuture, "the edges of vertex " + id);
     return new ImmutablePair<>(entityTag, CrudResponseBuilder.buildGetVertexResponse(OxmModelValidator.validateOutgoingPayload(version, vertex), edges,
         version));
   }
@@ -83,26 +273,137 @@ public abstract class AbstractGraphDataService {
   public ImmutablePair<EntityTag, String> getVertices(String version, String type, Map<String, String> filter, Set<String> properties) throws CrudException {
     type = OxmModelValidator.resolveCollectionType(version, type);
     OperationResult operationResult = daoForGet.getVertices(type, OxmModelValidator.resolveCollectionfilter(version, type, filter), properties, version);
-    List<Vertex> vertices = Vertex.collectionFromJson(operationResult.getResult(), version);
     EntityTag entityTag = CrudServiceUtil.getETagFromHeader(operationResult.getHeaders());
-    return new ImmutablePair<>(entityTag, CrudResponseBuilder.buildGetVerticesResponse(vertices, version));
+    return new ImmutablePair<>(entityTag,
+        CrudResponseBuilder.buildGetVerticesResponse(new StringReader(operationResult.getResult()), version));
   }
 
   public abstract ImmutablePair<EntityTag, String> addVertex(String version, String type, VertexPayload payload)
             throws CrudException;
+  public ImmutablePair<EntityTag, String> updateVertex(String version, String id, String type,
+            VertexPayload payload) throws CrudException {
+    return updateVertex(version, id, type, payload, null);
+  }
   public abstract ImmutablePair<EntityTag, String> updateVertex(String version, String id, String type,
-            VertexPayload payload) throws CrudException;
+            VertexPayload payload, String ifMatch) throws CrudException;
+  public ImmutablePair<EntityTag, String> patchVertex(String version, String id, String type,
+            VertexPayload payload) throws CrudException {
+    return patchVertex(version, id, type, payload, null);
+  }
   public abstract ImmutablePair<EntityTag, String> patchVertex(String version, String id, String type,
-            VertexPayload payload) throws CrudException;
+            VertexPayload payload, String ifMatch) throws CrudException;
   public abstract String deleteVertex(String version, String id, String type) throws CrudException;
   public abstract ImmutablePair<EntityTag, String> addEdge(String version, String type, EdgePayload payload)
             throws CrudException;
   public abstract String deleteEdge(String version, String id, String type) throws CrudException;
+  public ImmutablePair<EntityTag, String> updateEdge(String version, String id, String type,
+            EdgePayload payload) throws CrudException {
+    return updateEdge(version, id, type, payload, null);
+  }
   public abstract ImmutablePair<EntityTag, String> updateEdge(String version, String id, String type,
-            EdgePayload payload) throws CrudException;
+            EdgePayload payload, String ifMatch) throws CrudException;
+  public ImmutablePair<EntityTag, String> patchEdge(String version, String id, String type,
+            EdgePayload payload) throws CrudException {
+    return patchEdge(version, id, type, payload, null);
+  }
   public abstract ImmutablePair<EntityTag, String> patchEdge(String version, String id, String type,
-            EdgePayload payload) throws CrudException;
+            EdgePayload payload, String ifMatch) throws CrudException;
   
   public abstract String addBulk(String version, BulkPayload payload, HttpHeaders headers) throws CrudException;
 
+  /*
+   * Non-blocking variants of the write operations. The default implementations perform the blocking operation on the
+   * calling thread and return an already completed future; data services which wait on an external response (such
+   * as the async pipeline) override these so that no thread is held while the operation is in flight. Failures are
+   * reported through the returned future.
+   */
+
+  public CompletableFuture<ImmutablePair<EntityTag, String>> addVertexAsync(String version, String type,
+            VertexPayload payload) {
+    return completedOperation(() -> addVertex(version, type, payload));
+  }
+
+  public CompletableFuture<ImmutablePair<EntityTag, String>> updateVertexAsync(String version, String id, String type,
+            VertexPayload payload) {
+    return updateVertexAsync(version, id, type, payload, null);
+  }
+
+  public CompletableFuture<ImmutablePair<EntityTag, String>> updateVertexAsync(String version, String id, String type,
+            VertexPayload payload, String ifMatch) {
+    return completedOperation(() -> updateVertex(version, id, type, payload, ifMatch));
+  }
+
+  public CompletableFuture<ImmutablePair<EntityTag, String>> patchVertexAsync(String version, String id, String type,
+            VertexPayload payload) {
+    return patchVertexAsync(version, id, type, payload, null);
+  }
+
+  public CompletableFuture<ImmutablePair<EntityTag, String>> patchVertexAsync(String version, String id, String type,
+            VertexPayload payload, String ifMatch) {
+    return completedOperation(() -> patchVertex(version, id, type, payload, ifMatch));
+  }
+
+  public CompletableFuture<String> deleteVertexAsync(String version, String id, String type) {
+    return completedOperation(() -> deleteVertex(version, id, type));
+  }
+
+  public CompletableFuture<ImmutablePair<EntityTag, String>> addEdgeAsync(String version, String type,
+            EdgePayload payload) {
+    return completedOperation(() -> addEdge(version, type, payload));
+  }
+
+  public CompletableFuture<String> deleteEdgeAsync(String version, String id, String type) {
+    return completedOperation(() -> deleteEdge(version, id, type));
+  }
+
+  public CompletableFuture<ImmutablePair<EntityTag, String>> updateEdgeAsync(String version, String id, String type,
+            EdgePayload payload) {
+    return updateEdgeAsync(version, id, type, payload, null);
+  }
+
+  public CompletableFuture<ImmutablePair<EntityTag, String>> updateEdgeAsync(String version, String id, String type,
+            EdgePayload payload, String ifMatch) {
+    return completedOperation(() -> updateEdge(version, id, type, payload, ifMatch));
+  }
+
+  public CompletableFuture<ImmutablePair<EntityTag, String>> patchEdgeAsync(String version, String id, String type,
+            EdgePayload payload) {
+    return patchEdgeAsync(version, id, type, payload, null);
+  }
+
+  public CompletableFuture<ImmutablePair<EntityTag, String>> patchEdgeAsync(String version, String id, String type,
+            EdgePayload payload, String ifMatch) {
+    return completedOperation(() -> patchEdge(version, id, type, payload, ifMatch));
+  }
+
+  @FunctionalInterface
+  protected interface CrudOperation<T> {
+    T execute() throws CrudException;
+  }
+
+  protected static <T> CompletableFuture<T> completedOperation(CrudOperation<T> operation) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    try {
+      future.complete(operation.execute());
+    } catch (CrudException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /**
+   * Blocks until the future completes, unwrapping any failure back into the {@link CrudException} it was raised as.
+   */
+  protected static <T> T await(CompletableFuture<T> future) throws CrudException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      // Restore interrupted state...
+      Thread.currentThread().interrupt();
+      throw new CrudException("Interrupted while waiting for response", Status.INTERNAL_SERVER_ERROR);
+    } catch (ExecutionException e) {
+      throw GraphReadExecutor.toCrudException(e.getCause());
+    }
+  }
+
 }
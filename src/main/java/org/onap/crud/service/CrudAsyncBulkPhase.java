@@ -0,0 +1,112 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.ws.rs.core.Response.Status;
+import org.onap.crud.dao.GraphReadExecutor;
+import org.onap.crud.exception.CrudException;
+import org.onap.crud.service.AbstractGraphDataService.CrudOperation;
+
+/**
+ * One step of an async bulk request. The operations submitted to a phase are published without waiting for each
+ * other's responses, keeping at most {@code window} requests in flight. Operations on the same entity are applied in
+ * the order they were submitted: an operation is only published once the previous operation on its entity has
+ * completed. Once an operation fails no further operations are submitted.
+ */
+class CrudAsyncBulkPhase {
+  private final Semaphore window;
+  private final List<CompletableFuture<?>> inFlight = new ArrayList<>();
+  private final Map<String, CompletableFuture<?>> lastByEntity = new HashMap<>();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  CrudAsyncBulkPhase(int window) {
+    this.window = new Semaphore(Math.max(1, window));
+  }
+
+  /**
+   * @param entityId id of the entity the operation writes, or null for an entity that does not exist yet
+   */
+  <T> CompletableFuture<T> submit(String entityId, CrudOperation<CompletableFuture<T>> operation)
+      throws CrudException {
+    awaitEntity(entityId);
+    try {
+      window.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CrudException("Interrupted while publishing bulk request", Status.INTERNAL_SERVER_ERROR);
+    }
+
+    CompletableFuture<T> future;
+    try {
+      future = operation.execute();
+    } catch (CrudException e) {
+      window.release();
+      throw e;
+    }
+    inFlight.add(future);
+    if (entityId != null) {
+      lastByEntity.put(entityId, future);
+    }
+    future.whenComplete((result, error) -> {
+      if (error != null) {
+        failure.compareAndSet(null, error);
+      }
+      window.release();
+    });
+    return future;
+  }
+
+  /**
+   * Waits until the operations already submitted for an entity have completed, so that the entity can be read
+   * before it is written again.
+   */
+  void awaitEntity(String entityId) throws CrudException {
+    rethrowFailure();
+    CompletableFuture<?> previous = entityId == null ? null : lastByEntity.get(entityId);
+    if (previous != null) {
+      previous.handle((result, error) -> null).join();
+      rethrowFailure();
+    }
+  }
+
+  /**
+   * Waits for every submitted operation to complete, successfully or not.
+   */
+  void drain() {
+    for (CompletableFuture<?> future : inFlight) {
+      future.handle((result, error) -> null).join();
+    }
+  }
+
+  void rethrowFailure() throws CrudException {
+    Throwable error = failure.get();
+    if (error != null) {
+      throw GraphReadExecutor.toCrudException(error);
+    }
+  }
+}
@@ -21,22 +21,21 @@
 package org.onap.crud.service;
 
 import com.google.gson.JsonElement;
-import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.concurrent.Callable;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import javax.annotation.PreDestroy;
 import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
@@ -68,6 +67,7 @@ import org.onap.crud.util.CrudServiceUtil;
 import org.onap.crud.util.etag.EtagGenerator;
 import org.onap.schema.OxmModelValidator;
 import org.onap.schema.RelationshipSchemaValidator;
+import org.springframework.boot.actuate.metrics.Metric;
 
 public class CrudAsyncGraphDataService extends AbstractGraphDataService {
 
@@ -75,10 +75,23 @@ public class CrudAsyncGraphDataService extends AbstractGraphDataService {
 
     private EventPublisher asyncRequestPublisher;
 
-    private Timer timer;
+    private CrudAsyncResponseConsumer crudAsyncResponseConsumer;
+
+    // Requests published to the broker which are still waiting for their response
+    private CrudAsyncGraphEventCache pendingRequests;
+
+    // Coalesces requests from concurrent callers into batched publishes, null when batching is disabled
+    private CrudAsyncRequestBatcher requestBatcher;
+
+    // Maximum number of bulk operations in flight at once within a bulk step. All the operations of a bulk request
+    // share its graph transaction, whose requests reach Champ one at a time unless this is raised.
+    private int bulkWindow;
+
+    // Single shared thread which expires pending requests that have not received a response in time
+    private ScheduledExecutorService requestTimeoutScheduler;
 
     public static final Integer DEFAULT_REQUEST_TIMEOUT = 30000;
-    private static final Integer DEFAULT_ASYNC_RESPONSE_PROCESS_POLL_INTERVAL = 1000;
+    public static final int DEFAULT_BULK_WINDOW = 1;
 
     private static Logger logger = LoggerFactory.getInstance().getLogger(CrudAsyncGraphDataService.class.getName());
     private static Logger metricsLogger =
@@ -96,6 +109,35 @@ public class CrudAsyncGraphDataService extends AbstractGraphDataService {
         return requestTimeOut;
     }
 
+    public CrudAsyncGraphEventCache getPendingRequests() {
+        return pendingRequests;
+    }
+
+    /**
+     * A conditional write waits for its response for up to the request timeout, besides the reads around it.
+     */
+    @Override
+    protected long getPendingWriteTimeout() {
+        return EntityWriteGuard.DEFAULT_PENDING_WRITE_TIMEOUT + requestTimeOut;
+    }
+
+    /**
+     * A request fails once its response has not arrived within the request timeout, so a suspended request waits
+     * longer than that, by the time allowed for the reads around the request.
+     */
+    @Override
+    public long getSuspendTimeout() {
+        return getPendingWriteTimeout();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        Collection<Metric<?>> metrics = super.metrics();
+        metrics.addAll(pendingRequests.metrics());
+        metrics.addAll(crudAsyncResponseConsumer.metrics());
+        return metrics;
+    }
+
     public CrudAsyncGraphDataService(GraphDao dao, EventPublisher asyncRequestPublisher,
             EventConsumer asyncResponseConsumer) throws CrudException, NoSuchAlgorithmException {
         this(dao, dao, asyncRequestPublisher, asyncResponseConsumer);
@@ -105,8 +147,6 @@ public class CrudAsyncGraphDataService extends AbstractGraphDataService {
             EventConsumer asyncResponseConsumer) throws CrudException, NoSuchAlgorithmException {
 
         super();
-        this.dao = dao;
-        this.daoForGet = daoForGet;
 
         requestTimeOut = DEFAULT_REQUEST_TIMEOUT;
         try {
@@ -115,311 +155,476 @@ public class CrudAsyncGraphDataService extends AbstractGraphDataService {
             // Leave it as the default
         }
 
-        Integer responsePollInterval = DEFAULT_ASYNC_RESPONSE_PROCESS_POLL_INTERVAL;
+        this.dao = dao;
+        this.daoForGet = withEntityCache(daoForGet);
+
+        long responseIdleBackoff = CrudAsyncResponseConsumer.DEFAULT_IDLE_BACKOFF;
         try {
-            responsePollInterval =
-                    Integer.parseInt(CrudProperties.get(CrudServiceConstants.CRD_ASYNC_RESPONSE_PROCESS_POLL_INTERVAL));
+            responseIdleBackoff = Long.parseLong(CrudProperties.get(CrudServiceConstants.CRD_ASYNC_RESPONSE_IDLE_BACKOFF,
+                    Long.toString(CrudAsyncResponseConsumer.DEFAULT_IDLE_BACKOFF)));
         } catch (Exception ex) {
             logger.error(CrudServiceMsgs.ASYNC_DATA_SERVICE_ERROR, "Unable to parse "
-                    + CrudServiceConstants.CRD_ASYNC_RESPONSE_PROCESS_POLL_INTERVAL + " error: " + ex.getMessage());
+                    + CrudServiceConstants.CRD_ASYNC_RESPONSE_IDLE_BACKOFF + " error: " + ex.getMessage());
         }
 
-        // Start the Response Consumer timer
-        CrudAsyncResponseConsumer crudAsyncResponseConsumer = new CrudAsyncResponseConsumer(
-                asyncResponseConsumer, new GraphEventUpdater()
-                );
-        timer = new Timer("crudAsyncResponseConsumer-1");
-        timer.schedule(crudAsyncResponseConsumer, responsePollInterval, responsePollInterval);
+        // Evict pending requests 2 sec after they time out
+        long maxPendingRequests = CrudAsyncGraphEventCache.DEFAULT_CAPACITY;
+        try {
+            maxPendingRequests = Long.parseLong(CrudProperties.get(CrudServiceConstants.CRD_ASYNC_REQUEST_MAX_PENDING,
+                    Long.toString(CrudAsyncGraphEventCache.DEFAULT_CAPACITY)));
+        } catch (Exception ex) {
+            logger.error(CrudServiceMsgs.ASYNC_DATA_SERVICE_ERROR, "Unable to parse "
+                    + CrudServiceConstants.CRD_ASYNC_REQUEST_MAX_PENDING + " error: " + ex.getMessage());
+        }
+        pendingRequests = new CrudAsyncGraphEventCache(requestTimeOut + 2000L, maxPendingRequests);
 
-        this.asyncRequestPublisher = asyncRequestPublisher;
-        this.etagGenerator = new EtagGenerator();
+        bulkWindow = DEFAULT_BULK_WINDOW;
+        try {
+            bulkWindow = Math.max(1, Integer.parseInt(CrudProperties.get(CrudServiceConstants.CRD_ASYNC_BULK_WINDOW,
+                    Integer.toString(DEFAULT_BULK_WINDOW))));
+        } catch (Exception ex) {
+            logger.error(CrudServiceMsgs.ASYNC_DATA_SERVICE_ERROR, "Unable to parse "
+                    + CrudServiceConstants.CRD_ASYNC_BULK_WINDOW + " error: " + ex.getMessage());
+        }
 
-        logger.info(CrudServiceMsgs.ASYNC_DATA_SERVICE_INFO, "CrudAsyncGraphDataService initialized SUCCESSFULLY!");
-    }
+        int responseWorkers = CrudAsyncResponseConsumer.DEFAULT_WORKERS;
+        try {
+            responseWorkers = Integer.parseInt(CrudProperties.get(CrudServiceConstants.CRD_ASYNC_RESPONSE_WORKERS,
+                    Integer.toString(CrudAsyncResponseConsumer.DEFAULT_WORKERS)));
+        } catch (Exception ex) {
+            logger.error(CrudServiceMsgs.ASYNC_DATA_SERVICE_ERROR, "Unable to parse "
+                    + CrudServiceConstants.CRD_ASYNC_RESPONSE_WORKERS + " error: " + ex.getMessage());
+        }
 
-    public class CollectGraphResponse implements Callable<GraphEventEnvelope> {
-        private volatile GraphEventEnvelope graphEventEnvelope;
-        private volatile CountDownLatch latch = new CountDownLatch(1);
+        // Start the Response Consumer loop
+        crudAsyncResponseConsumer = new CrudAsyncResponseConsumer(
+                asyncResponseConsumer, new GraphEventUpdater(pendingRequests), responseIdleBackoff, responseWorkers
+                );
+        crudAsyncResponseConsumer.start();
 
-        @Override
-        public GraphEventEnvelope call() throws TimeoutException {
-            try {
-                // Wait until graphEvent is available
-                latch.await(CrudAsyncGraphDataService.getRequestTimeOut(), TimeUnit.MILLISECONDS);
-            } catch (InterruptedException e) {
-                latch.countDown();
-                // Restore interrupted state...
-                Thread.currentThread().interrupt();
-                if (this.graphEventEnvelope != null) {
-                    return this.graphEventEnvelope;
-                } else {
-                    throw new TimeoutException();
-                }
-            }
-            return this.graphEventEnvelope;
-        }
+        this.asyncRequestPublisher = asyncRequestPublisher;
 
-        public void populateGraphEventEnvelope(GraphEventEnvelope eventEnvelope) {
-            this.graphEventEnvelope = eventEnvelope;
-            latch.countDown();
+        int publishBatchSize = CrudAsyncRequestBatcher.DEFAULT_MAX_BATCH_SIZE;
+        long publishLinger = CrudAsyncRequestBatcher.DEFAULT_LINGER;
+        try {
+            publishBatchSize = Integer.parseInt(CrudProperties.get(CrudServiceConstants.CRD_ASYNC_PUBLISH_BATCH_SIZE,
+                    Integer.toString(CrudAsyncRequestBatcher.DEFAULT_MAX_BATCH_SIZE)));
+            publishLinger = Long.parseLong(CrudProperties.get(CrudServiceConstants.CRD_ASYNC_PUBLISH_LINGER,
+                    Long.toString(CrudAsyncRequestBatcher.DEFAULT_LINGER)));
+        } catch (Exception ex) {
+            logger.error(CrudServiceMsgs.ASYNC_DATA_SERVICE_ERROR, "Unable to parse "
+                    + CrudServiceConstants.CRD_ASYNC_PUBLISH_BATCH_SIZE + " or "
+                    + CrudServiceConstants.CRD_ASYNC_PUBLISH_LINGER + " error: " + ex.getMessage());
+        }
+        if (publishBatchSize > 1) {
+            requestBatcher = new CrudAsyncRequestBatcher(asyncRequestPublisher, publishBatchSize, publishLinger);
+            requestBatcher.start();
         }
+        this.etagGenerator = new EtagGenerator();
+        this.requestTimeoutScheduler =
+                Executors.newSingleThreadScheduledExecutor(new CrudThreadFactory("crudAsyncRequestTimeout"));
+
+        logger.info(CrudServiceMsgs.ASYNC_DATA_SERVICE_INFO, "CrudAsyncGraphDataService initialized SUCCESSFULLY!");
     }
 
-    private GraphEventEnvelope sendAndWait(GraphEvent event) throws CrudException {
+    /**
+     * Publishes the event to the request topic and registers it for correlation with its response. No thread is
+     * held while waiting: the returned future is completed by the {@link GraphEventUpdater} when the response
+     * arrives, or exceptionally with a timeout {@link CrudException} by the shared timeout scheduler.
+     *
+     * @param event the graph event to publish
+     * @return a future completed with the response envelope
+     * @throws CrudException if the event could not be published
+     */
+    CompletableFuture<GraphEventEnvelope> sendAsync(GraphEvent event) throws CrudException {
 
         long startTimeInMs = System.currentTimeMillis();
         SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
         MdcOverride override = new MdcOverride();
         override.addAttribute(MdcContext.MDC_START_TIME, formatter.format(startTimeInMs));
 
+        String transactionId = event.getTransactionId();
         String eventEnvelopeJson = new GraphEventEnvelope(event).toJson();
 
+        // Register before publishing so that a fast response cannot arrive ahead of its registration
+        CompletableFuture<GraphEventEnvelope> future = new CompletableFuture<>();
+        pendingRequests.put(transactionId, future);
+
         // publish to request queue
-        try {
-            asyncRequestPublisher.sendSync(eventEnvelopeJson);
-        } catch (Exception e) {
-            throw new CrudException(
-                    "Error publishing request " + event.getTransactionId() + "  Cause: " + e.getMessage(),
-                    Status.INTERNAL_SERVER_ERROR);
+        if (requestBatcher == null) {
+            try {
+                asyncRequestPublisher.sendSync(eventEnvelopeJson);
+            } catch (Exception e) {
+                pendingRequests.invalidate(transactionId);
+                throw new CrudException(
+                        "Error publishing request " + transactionId + "  Cause: " + e.getMessage(),
+                        Status.INTERNAL_SERVER_ERROR);
+            }
+        } else {
+            requestBatcher.publish(eventEnvelopeJson).whenComplete((published, error) -> {
+                if (error != null) {
+                    future.completeExceptionally(new CrudException(
+                            "Error publishing request " + transactionId + "  Cause: " + error.getMessage(),
+                            Status.INTERNAL_SERVER_ERROR));
+                }
+            });
         }
 
         logger.debug(CrudServiceMsgs.ASYNC_DATA_SERVICE_INFO, "Event Sent =" + eventEnvelopeJson);
 
         logger.info(CrudServiceMsgs.ASYNC_DATA_SERVICE_INFO,
                 "Event submitted of type: " + event.getObjectType() + " with key: " + event.getObjectKey()
-                + " , transaction-id: " + event.getTransactionId() + " , operation: "
+                + " , transaction-id: " + transactionId + " , operation: "
                 + event.getOperation().toString());
 
-        ExecutorService executor =
-                Executors.newSingleThreadExecutor(new CrudThreadFactory("TX-" + event.getTransactionId()));
-        CollectGraphResponse collector = new CollectGraphResponse();
-        CrudAsyncGraphEventCache.put(event.getTransactionId(), collector);
-        GraphEventEnvelope response;
-        Future<GraphEventEnvelope> future = executor.submit(collector);
-        try {
-            response = future.get(requestTimeOut, TimeUnit.MILLISECONDS);
-
-        } catch (InterruptedException | ExecutionException | TimeoutException e) {
-            CrudAsyncGraphEventCache.invalidate(event.getTransactionId());
-            logger.error(CrudServiceMsgs.ASYNC_DATA_SERVICE_ERROR,
-                    "Request timed out for transactionId: " + event.getTransactionId());
-            future.cancel(true);
-            if (e instanceof InterruptedException) {
-                // Restore interrupted state...
-                Thread.currentThread().interrupt();
+        ScheduledFuture<?> timeout = requestTimeoutScheduler.schedule(() -> {
+            if (future.completeExceptionally(new CrudException("Timed out , transactionId: " + transactionId
+                    + " , operation: " + event.getOperation().toString(), Status.INTERNAL_SERVER_ERROR))) {
+                logger.error(CrudServiceMsgs.ASYNC_DATA_SERVICE_ERROR,
+                        "Request timed out for transactionId: " + transactionId);
             }
-            throw new CrudException("Timed out , transactionId: " + event.getTransactionId() + " , operation: "
-                    + event.getOperation().toString(), Status.INTERNAL_SERVER_ERROR);
-        } finally {
-            // Kill the thread as the work is completed
-            executor.shutdownNow();
-        }
-        metricsLogger.info(CrudServiceMsgs.ASYNC_DATA_SERVICE_INFO, okFields, override,
-                "Total elapsed time for operation: " + event.getOperation().toString() + " , transactionId: "
-                        + event.getTransactionId() + " is " + Long.toString(System.currentTimeMillis() - startTimeInMs)
-                        + " ms");
-        return response;
+        }, requestTimeOut, TimeUnit.MILLISECONDS);
+
+        future.whenComplete((response, error) -> {
+            timeout.cancel(false);
+            pendingRequests.invalidate(transactionId);
+            invalidateEntities(event);
+            if (error == null) {
+                metricsLogger.info(CrudServiceMsgs.ASYNC_DATA_SERVICE_INFO, okFields, override,
+                        "Total elapsed time for operation: " + event.getOperation().toString() + " , transactionId: "
+                                + transactionId + " is " + Long.toString(System.currentTimeMillis() - startTimeInMs)
+                                + " ms");
+            }
+        });
+
+        return future;
     }
 
     @Override
     public ImmutablePair<EntityTag, String> addVertex(String version, String type, VertexPayload payload)
             throws CrudException {
-        // Validate the incoming payload
-        Vertex vertex = OxmModelValidator.validateIncomingUpsertPayload(null, version, type, payload.getProperties());
-        vertex.getProperties().put(OxmModelValidator.Metadata.NODE_TYPE.propertyName(), type);
-        // Create graph request event
-        GraphEvent event = GraphEvent.builder(GraphEventOperation.CREATE)
-                .vertex(GraphEventVertex.fromVertex(vertex, version)).build();
-
-        GraphEventEnvelope response = sendAndWait(event);
+        return await(addVertexAsync(version, type, payload));
+    }
 
-        EntityTag entityTag;
+    @Override
+    public CompletableFuture<ImmutablePair<EntityTag, String>> addVertexAsync(String version, String type,
+            VertexPayload payload) {
         try {
-            entityTag = new EntityTag(etagGenerator.computeHashForVertex(response.getBody().getVertex()));
-        } catch (IOException e) {
-            throw new CrudException(e);
+            // Validate the incoming payload
+            Vertex vertex =
+                    OxmModelValidator.validateIncomingUpsertPayload(null, version, type, payload.getProperties());
+            vertex.getProperties().put(OxmModelValidator.Metadata.NODE_TYPE.propertyName(), type);
+            // Create graph request event
+            GraphEvent event = GraphEvent.builder(GraphEventOperation.CREATE)
+                    .vertex(GraphEventVertex.fromVertex(vertex, version)).build();
+
+            return sendAsync(event).thenApply(response -> vertexResult(version, event, response));
+        } catch (CrudException e) {
+            return failedFuture(e);
         }
-        String responsePayload = responseHandler.handleVertexResponse(version, event, response);
-
-        return new ImmutablePair<>(entityTag, responsePayload);
     }
 
     @Override
     public ImmutablePair<EntityTag, String> addEdge(String version, String type, EdgePayload payload)
             throws CrudException {
-        Edge edge = RelationshipSchemaValidator.validateIncomingAddPayload(version, type, payload);
+        return await(addEdgeAsync(version, type, payload));
+    }
 
-        // Create graph request event
-        GraphEvent event =
-                GraphEvent.builder(GraphEventOperation.CREATE).edge(GraphEventEdge.fromEdge(edge, version)).build();
+    @Override
+    public CompletableFuture<ImmutablePair<EntityTag, String>> addEdgeAsync(String version, String type,
+            EdgePayload payload) {
+        try {
+            Edge edge = RelationshipSchemaValidator.validateIncomingAddPayload(version, type, payload);
 
-        GraphEventEnvelope response = sendAndWait(event);
+            // Create graph request event
+            GraphEvent event = GraphEvent.builder(GraphEventOperation.CREATE)
+                    .edge(GraphEventEdge.fromEdge(edge, version)).build();
 
-        EntityTag entityTag;
-        try {
-            entityTag = new EntityTag(etagGenerator.computeHashForEdge(response.getBody().getEdge()));
-        } catch (IOException e) {
-            throw new CrudException(e);
+            return sendAsync(event).thenApply(response -> edgeResult(version, event, response));
+        } catch (CrudException e) {
+            return failedFuture(e);
         }
-        String responsePayload = responseHandler.handleEdgeResponse(version, event, response);
-
-        return new ImmutablePair<>(entityTag, responsePayload);
     }
 
     @Override
-    public ImmutablePair<EntityTag, String> updateVertex(String version, String id, String type, VertexPayload payload)
-            throws CrudException {
-        Vertex vertex = OxmModelValidator.validateIncomingUpsertPayload(id, version, type, payload.getProperties());
-        GraphEvent event = GraphEvent.builder(GraphEventOperation.UPDATE)
-                .vertex(GraphEventVertex.fromVertex(vertex, version)).build();
+    public ImmutablePair<EntityTag, String> updateVertex(String version, String id, String type, VertexPayload payload,
+            String ifMatch) throws CrudException {
+        return await(updateVertexAsync(version, id, type, payload, ifMatch));
+    }
 
-        GraphEventEnvelope response = sendAndWait(event);
+    @Override
+    public CompletableFuture<ImmutablePair<EntityTag, String>> updateVertexAsync(String version, String id,
+            String type, VertexPayload payload, String ifMatch) {
+        if (ifMatch != null) {
+            try {
+                getVertexForWrite(version, id, type, ifMatch);
+            } catch (CrudException e) {
+                return failedFuture(e);
+            }
+        }
 
-        EntityTag entityTag;
+        CompletableFuture<ImmutablePair<EntityTag, String>> result;
         try {
-            entityTag = new EntityTag(etagGenerator.computeHashForVertex(response.getBody().getVertex()));
-        } catch (IOException e) {
-            throw new CrudException(e);
+            Vertex vertex =
+                    OxmModelValidator.validateIncomingUpsertPayload(id, version, type, payload.getProperties());
+            GraphEvent event = GraphEvent.builder(GraphEventOperation.UPDATE)
+                    .vertex(GraphEventVertex.fromVertex(vertex, version)).build();
+
+            result = sendAsync(event).thenApply(response -> vertexResult(version, event, response));
+        } catch (CrudException e) {
+            result = failedFuture(e);
         }
-        String responsePayload = responseHandler.handleVertexResponse(version, event, response);
-
-        return new ImmutablePair<>(entityTag, responsePayload);
+        return endWriteOnCompletion(result, vertexWrites, id, ifMatch);
     }
 
     @Override
-    public ImmutablePair<EntityTag, String> patchVertex(String version, String id, String type, VertexPayload payload)
-            throws CrudException {
-        OperationResult existingVertexOpResult = dao.getVertex(id, OxmModelValidator.resolveCollectionType(version, type), version,
-                new HashMap<String, String>());
-        Vertex existingVertex = Vertex.fromJson(existingVertexOpResult.getResult(), version);
-        Vertex patchedVertex = OxmModelValidator.validateIncomingPatchPayload(id, version, type,
-                payload.getProperties(), existingVertex);
-        GraphEvent event = GraphEvent.builder(GraphEventOperation.UPDATE)
-                .vertex(GraphEventVertex.fromVertex(patchedVertex, version)).build();
-
-        GraphEventEnvelope response = sendAndWait(event);
+    public ImmutablePair<EntityTag, String> patchVertex(String version, String id, String type, VertexPayload payload,
+            String ifMatch) throws CrudException {
+        return await(patchVertexAsync(version, id, type, payload, ifMatch));
+    }
 
-        EntityTag entityTag;
+    @Override
+    public CompletableFuture<ImmutablePair<EntityTag, String>> patchVertexAsync(String version, String id,
+            String type, VertexPayload payload, String ifMatch) {
+        Vertex existingVertex;
         try {
-            entityTag = new EntityTag(etagGenerator.computeHashForVertex(response.getBody().getVertex()));
-        } catch (IOException e) {
-            throw new CrudException(e);
+            existingVertex = getVertexForWrite(version, id, type, ifMatch);
+        } catch (CrudException e) {
+            return failedFuture(e);
         }
-        String responsePayload = responseHandler.handleVertexResponse(version, event, response);
 
-        return new ImmutablePair<>(entityTag, responsePayload);
+        CompletableFuture<ImmutablePair<EntityTag, String>> result;
+        try {
+            Vertex patchedVertex = OxmModelValidator.validateIncomingPatchPayload(id, version, type,
+                    payload.getProperties(), existingVertex);
+            GraphEvent event = GraphEvent.builder(GraphEventOperation.UPDATE)
+                    .vertex(GraphEventVertex.fromVertex(patchedVertex, version)).build();
+
+            result = sendAsync(event).thenApply(response -> vertexResult(version, event, response));
+        } catch (CrudException e) {
+            result = failedFuture(e);
+        }
+        return endWriteOnCompletion(result, vertexWrites, id, ifMatch);
     }
 
     @Override
     public String deleteVertex(String version, String id, String type) throws CrudException {
-        type = OxmModelValidator.resolveCollectionType(version, type);
-        GraphEvent event = GraphEvent.builder(GraphEventOperation.DELETE)
-                .vertex(new GraphEventVertex(id, version, type, null)).build();
+        return await(deleteVertexAsync(version, id, type));
+    }
+
+    @Override
+    public CompletableFuture<String> deleteVertexAsync(String version, String id, String type) {
+        try {
+            String resolvedType = OxmModelValidator.resolveCollectionType(version, type);
+            GraphEvent event = GraphEvent.builder(GraphEventOperation.DELETE)
+                    .vertex(new GraphEventVertex(id, version, resolvedType, null)).build();
 
-        GraphEventEnvelope response = sendAndWait(event);
-        return responseHandler.handleDeletionResponse(event, response);
+            return sendAsync(event).thenApply(response -> deletionResult(event, response));
+        } catch (CrudException e) {
+            return failedFuture(e);
+        }
     }
 
     @Override
     public String deleteEdge(String version, String id, String type) throws CrudException {
-        RelationshipSchemaValidator.validateType(version, type);
-        GraphEvent event = GraphEvent.builder(GraphEventOperation.DELETE)
-                .edge(new GraphEventEdge(id, version, type, null, null, null)).build();
-
-        GraphEventEnvelope response = sendAndWait(event);
-        return responseHandler.handleDeletionResponse(event, response);
+        return await(deleteEdgeAsync(version, id, type));
     }
 
     @Override
-    public ImmutablePair<EntityTag, String> updateEdge(String version, String id, String type, EdgePayload payload)
-            throws CrudException {
-        OperationResult operationResult = dao.getEdge(id, type, new HashMap<String, String>());
-        Edge edge = Edge.fromJson(operationResult.getResult());
-        Edge validatedEdge = RelationshipSchemaValidator.validateIncomingUpdatePayload(edge, version, payload);
+    public CompletableFuture<String> deleteEdgeAsync(String version, String id, String type) {
+        try {
+            RelationshipSchemaValidator.validateType(version, type);
+            GraphEvent event = GraphEvent.builder(GraphEventOperation.DELETE)
+                    .edge(new GraphEventEdge(id, version, type, null, null, null)).build();
 
-        GraphEvent event = GraphEvent.builder(GraphEventOperation.UPDATE)
-                .edge(GraphEventEdge.fromEdge(validatedEdge, version)).build();
+            return sendAsync(event).thenApply(response -> deletionResult(event, response));
+        } catch (CrudException e) {
+            return failedFuture(e);
+        }
+    }
 
-        GraphEventEnvelope response = sendAndWait(event);
+    @Override
+    public ImmutablePair<EntityTag, String> updateEdge(String version, String id, String type, EdgePayload payload,
+            String ifMatch) throws CrudException {
+        return await(updateEdgeAsync(version, id, type, payload, ifMatch));
+    }
 
-        EntityTag entityTag;
+    @Override
+    public CompletableFuture<ImmutablePair<EntityTag, String>> updateEdgeAsync(String version, String id, String type,
+            EdgePayload payload, String ifMatch) {
+        Edge edge;
         try {
-            entityTag = new EntityTag(etagGenerator.computeHashForEdge(response.getBody().getEdge()));
-        } catch (IOException e) {
-            throw new CrudException(e);
+            edge = getEdgeForWrite(id, type, ifMatch);
+        } catch (CrudException e) {
+            return failedFuture(e);
         }
-        String responsePayload = responseHandler.handleEdgeResponse(version, event, response);
 
-        return new ImmutablePair<>(entityTag, responsePayload);
+        CompletableFuture<ImmutablePair<EntityTag, String>> result;
+        try {
+            Edge validatedEdge = RelationshipSchemaValidator.validateIncomingUpdatePayload(edge, version, payload);
+
+            GraphEvent event = GraphEvent.builder(GraphEventOperation.UPDATE)
+                    .edge(GraphEventEdge.fromEdge(validatedEdge, version)).build();
+
+            result = sendAsync(event).thenApply(response -> edgeResult(version, event, response));
+        } catch (CrudException e) {
+            result = failedFuture(e);
+        }
+        return endWriteOnCompletion(result, edgeWrites, id, ifMatch);
     }
 
     @Override
-    public ImmutablePair<EntityTag, String> patchEdge(String version, String id, String type, EdgePayload payload)
-            throws CrudException {
-        OperationResult operationResult = dao.getEdge(id, type, new HashMap<String, String>());
-        Edge edge = Edge.fromJson(operationResult.getResult());
-        Edge patchedEdge = RelationshipSchemaValidator.validateIncomingPatchPayload(edge, version, payload);
-        GraphEvent event = GraphEvent.builder(GraphEventOperation.UPDATE)
-                .edge(GraphEventEdge.fromEdge(patchedEdge, version)).build();
+    public ImmutablePair<EntityTag, String> patchEdge(String version, String id, String type, EdgePayload payload,
+            String ifMatch) throws CrudException {
+        return await(patchEdgeAsync(version, id, type, payload, ifMatch));
+    }
+
+    @Override
+    public CompletableFuture<ImmutablePair<EntityTag, String>> patchEdgeAsync(String version, String id, String type,
+            EdgePayload payload, String ifMatch) {
+        Edge edge;
+        try {
+            edge = getEdgeForWrite(id, type, ifMatch);
+        } catch (CrudException e) {
+            return failedFuture(e);
+        }
 
-        GraphEventEnvelope response = sendAndWait(event);
+        CompletableFuture<ImmutablePair<EntityTag, String>> result;
+        try {
+            Edge patchedEdge = RelationshipSchemaValidator.validateIncomingPatchPayload(edge, version, payload);
+            GraphEvent event = GraphEvent.builder(GraphEventOperation.UPDATE)
+                    .edge(GraphEventEdge.fromEdge(patchedEdge, version)).build();
+
+            result = sendAsync(event).thenApply(response -> edgeResult(version, event, response));
+        } catch (CrudException e) {
+            result = failedFuture(e);
+        }
+        return endWriteOnCompletion(result, edgeWrites, id, ifMatch);
+    }
+
+    /**
+     * Builds the response to a vertex write. Its entity tag is computed from the vertex in the response, which gives
+     * the same tag Champ reports for it.
+     */
+    private ImmutablePair<EntityTag, String> vertexResult(String version, GraphEvent event,
+            GraphEventEnvelope response) {
+        try {
+            String responsePayload = responseHandler.handleVertexResponse(version, event, response);
+            EntityTag entityTag = new EntityTag(etagGenerator.computeHashForVertex(response.getBody().getVertex()));
 
-        EntityTag entityTag;
+            return new ImmutablePair<>(entityTag, responsePayload);
+        } catch (CrudException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private ImmutablePair<EntityTag, String> edgeResult(String version, GraphEvent event,
+            GraphEventEnvelope response) {
         try {
-            entityTag = new EntityTag(etagGenerator.computeHashForEdge(response.getBody().getEdge()));
-        } catch (IOException e) {
-            throw new CrudException(e);
+            String responsePayload = responseHandler.handleEdgeResponse(version, event, response);
+            EntityTag entityTag = new EntityTag(etagGenerator.computeHashForEdge(response.getBody().getEdge()));
+
+            return new ImmutablePair<>(entityTag, responsePayload);
+        } catch (CrudException e) {
+            throw new CompletionException(e);
         }
-        String responsePayload = responseHandler.handleEdgeResponse(version, event, response);
+    }
 
-        return new ImmutablePair<>(entityTag, responsePayload);
+    private String deletionResult(GraphEvent event, GraphEventEnvelope response) {
+        try {
+            return responseHandler.handleDeletionResponse(event, response);
+        } catch (CrudException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Ends the conditional write of an entity once the write completes, whatever its outcome.
+     */
+    private static <T> CompletableFuture<T> endWriteOnCompletion(CompletableFuture<T> write, EntityWriteGuard writes,
+            String id, String ifMatch) {
+        if (ifMatch != null) {
+            write.whenComplete((result, error) -> writes.endWrite(id));
+        }
+        return write;
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(CrudException e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    /**
+     * Drops any cached copies of the entities touched by a write event. This is done whatever the outcome since a
+     * request which timed out may still have been applied.
+     */
+    private void invalidateEntities(GraphEvent event) {
+        if (event.getVertex() != null && event.getVertex().getId() != null) {
+            invalidateVertex(event.getVertex().getId());
+        }
+        GraphEventEdge edge = event.getEdge();
+        if (edge != null) {
+            if (edge.getId() != null) {
+                invalidateEdge(edge.getId());
+            }
+            for (GraphEventVertex endpoint : Arrays.asList(edge.getSource(), edge.getTarget())) {
+                if (endpoint != null && endpoint.getId() != null) {
+                    invalidateVertex(endpoint.getId());
+                }
+            }
+        }
     }
 
     @PreDestroy
     protected void preShutdown() {
-        timer.cancel();
+        crudAsyncResponseConsumer.stop();
+        if (requestBatcher != null) {
+            requestBatcher.stop();
+        }
+        requestTimeoutScheduler.shutdownNow();
     }
 
-    private Vertex addBulkVertex(Vertex vertex, String version, String dbTransId) throws CrudException {
+    private CompletableFuture<Vertex> addBulkVertex(Vertex vertex, String version, String dbTransId)
+            throws CrudException {
         GraphEvent event = GraphEvent.builder(GraphEventOperation.CREATE)
                 .vertex(GraphEventVertex.fromVertex(vertex, version)).build();
         event.setDbTransactionId(dbTransId);
-        GraphEvent response = publishEvent(event);
-        return response.getVertex().toVertex();
+        return publishEvent(event).thenApply(response -> response.getVertex().toVertex());
     }
 
-    private Vertex updateBulkVertex(Vertex vertex, String id, String version, String dbTransId) throws CrudException {
+    private CompletableFuture<Vertex> updateBulkVertex(Vertex vertex, String id, String version, String dbTransId)
+            throws CrudException {
         GraphEvent event = GraphEvent.builder(GraphEventOperation.UPDATE)
                 .vertex(GraphEventVertex.fromVertex(vertex, version)).build();
         event.setDbTransactionId(dbTransId);
-        GraphEvent response = publishEvent(event);
-        return response.getVertex().toVertex();
+        return publishEvent(event).thenApply(response -> response.getVertex().toVertex());
     }
 
-    private void deleteBulkVertex(String id, String version, String type, String dbTransId) throws CrudException {
+    private CompletableFuture<GraphEvent> deleteBulkVertex(String id, String version, String type, String dbTransId)
+            throws CrudException {
         GraphEvent event = GraphEvent.builder(GraphEventOperation.DELETE)
                 .vertex(new GraphEventVertex(id, version, type, null)).build();
         event.setDbTransactionId(dbTransId);
-        publishEvent(event);
+        return publishEvent(event);
     }
 
-    private Edge addBulkEdge(Edge edge, String version, String dbTransId) throws CrudException {
+    private CompletableFuture<Edge> addBulkEdge(Edge edge, String version, String dbTransId) throws CrudException {
         GraphEvent event =
                 GraphEvent.builder(GraphEventOperation.CREATE).edge(GraphEventEdge.fromEdge(edge, version)).build();
         event.setDbTransactionId(dbTransId);
-        GraphEvent response = publishEvent(event);
-        return response.getEdge().toEdge();
+        return publishEvent(event).thenApply(response -> response.getEdge().toEdge());
     }
 
-    private Edge updateBulkEdge(Edge edge, String version, String dbTransId) throws CrudException {
+    private CompletableFuture<Edge> updateBulkEdge(Edge edge, String version, String dbTransId) throws CrudException {
         GraphEvent event =
                 GraphEvent.builder(GraphEventOperation.UPDATE).edge(GraphEventEdge.fromEdge(edge, version)).build();
         event.setDbTransactionId(dbTransId);
-        GraphEvent response = publishEvent(event);
-        return response.getEdge().toEdge();
+        return publishEvent(event).thenApply(response -> response.getEdge().toEdge());
     }
 
-    private void deleteBulkEdge(String id, String version, String dbTransId) throws CrudException {
+    private CompletableFuture<GraphEvent> deleteBulkEdge(String id, String version, String dbTransId)
+            throws CrudException {
         // Get the edge type
         String type = null;
         try {
@@ -434,181 +639,220 @@ public class CrudAsyncGraphDataService extends AbstractGraphDataService {
         GraphEvent event = GraphEvent.builder(GraphEventOperation.DELETE)
                 .edge(new GraphEventEdge(id, version, type, null, null, null)).build();
         event.setDbTransactionId(dbTransId);
-        publishEvent(event);
+        return publishEvent(event);
     }
 
     @Override
     public String addBulk(String version, BulkPayload payload, HttpHeaders headers) throws CrudException {
         HashMap<String, Vertex> vertices = new HashMap<>();
         HashMap<String, Edge> edges = new HashMap<>();
+        Map<String, CompletableFuture<Vertex>> persistedVertices = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Edge>> persistedEdges = new LinkedHashMap<>();
 
         String txId = dao.openTransaction();
 
         try {
+            // Operations within a step are pipelined up to the bulk window, except that operations on the same entity
+            // are applied in payload order, while each step waits for all of its responses before the next one
+            // starts.
+
             // Step 1. Handle edge deletes (must happen before vertex deletes)
-            for (JsonElement v : payload.getRelationships()) {
-                List<Map.Entry<String, JsonElement>> entries = new ArrayList<Map.Entry<String, JsonElement>>(
-                        v.getAsJsonObject().entrySet());
+            CrudAsyncBulkPhase edgeDeletes = new CrudAsyncBulkPhase(bulkWindow);
+            try {
+                for (JsonElement v : payload.getRelationships()) {
+                    List<Map.Entry<String, JsonElement>> entries = new ArrayList<Map.Entry<String, JsonElement>>(
+                            v.getAsJsonObject().entrySet());
 
-                if (entries.size() != 2) {
-                    throw new CrudException("", Status.BAD_REQUEST);
-                }
-                Map.Entry<String, JsonElement> opr = entries.get(0);
-                Map.Entry<String, JsonElement> item = entries.get(1);
-                EdgePayload edgePayload = EdgePayload.fromJson(item.getValue().getAsJsonObject().toString());
+                    if (entries.size() != 2) {
+                        throw new CrudException("", Status.BAD_REQUEST);
+                    }
+                    Map.Entry<String, JsonElement> opr = entries.get(0);
+                    Map.Entry<String, JsonElement> item = entries.get(1);
+                    EdgePayload edgePayload = EdgePayload.fromJson(item.getValue().getAsJsonObject().toString());
 
-                if (opr.getValue().getAsString().equalsIgnoreCase("delete")) {
-                    deleteBulkEdge(edgePayload.getId(), version, txId);
+                    if (opr.getValue().getAsString().equalsIgnoreCase("delete")) {
+                        edgeDeletes.submit(edgePayload.getId(),
+                                () -> deleteBulkEdge(edgePayload.getId(), version, txId));
+                    }
                 }
+            } finally {
+                edgeDeletes.drain();
             }
+            edgeDeletes.rethrowFailure();
 
             // Step 2: Handle vertex deletes
-            for (JsonElement v : payload.getObjects()) {
-                List<Map.Entry<String, JsonElement>> entries = new ArrayList<Map.Entry<String, JsonElement>>(
-                        v.getAsJsonObject().entrySet());
+            CrudAsyncBulkPhase vertexDeletes = new CrudAsyncBulkPhase(bulkWindow);
+            try {
+                for (JsonElement v : payload.getObjects()) {
+                    List<Map.Entry<String, JsonElement>> entries = new ArrayList<Map.Entry<String, JsonElement>>(
+                            v.getAsJsonObject().entrySet());
 
-                if (entries.size() != 2) {
-                    throw new CrudException("", Status.BAD_REQUEST);
-                }
+                    if (entries.size() != 2) {
+                        throw new CrudException("", Status.BAD_REQUEST);
+                    }
 
-                Map.Entry<String, JsonElement> opr = entries.get(0);
-                Map.Entry<String, JsonElement> item = entries.get(1);
-                VertexPayload vertexPayload = VertexPayload.fromJson(item.getValue().getAsJsonObject().toString());
+                    Map.Entry<String, JsonElement> opr = entries.get(0);
+                    Map.Entry<String, JsonElement> item = entries.get(1);
+                    VertexPayload vertexPayload = VertexPayload.fromJson(item.getValue().getAsJsonObject().toString());
 
-                if (opr.getValue().getAsString().equalsIgnoreCase("delete")) {
-                    String type = OxmModelValidator.resolveCollectionType(version, vertexPayload.getType());
-                    deleteBulkVertex(vertexPayload.getId(), version, type, txId);
+                    if (opr.getValue().getAsString().equalsIgnoreCase("delete")) {
+                        String type = OxmModelValidator.resolveCollectionType(version, vertexPayload.getType());
+                        vertexDeletes.submit(vertexPayload.getId(),
+                                () -> deleteBulkVertex(vertexPayload.getId(), version, type, txId));
+                    }
                 }
+            } finally {
+                vertexDeletes.drain();
             }
+            vertexDeletes.rethrowFailure();
 
             // Step 3: Handle vertex add/modify (must happen before edge adds)
-            for (JsonElement v : payload.getObjects()) {
-                List<Map.Entry<String, JsonElement>> entries = new ArrayList<Map.Entry<String, JsonElement>>(
-                        v.getAsJsonObject().entrySet());
+            CrudAsyncBulkPhase vertexUpserts = new CrudAsyncBulkPhase(bulkWindow);
+            try {
+                for (JsonElement v : payload.getObjects()) {
+                    List<Map.Entry<String, JsonElement>> entries = new ArrayList<Map.Entry<String, JsonElement>>(
+                            v.getAsJsonObject().entrySet());
 
-                if (entries.size() != 2) {
-                    throw new CrudException("", Status.BAD_REQUEST);
-                }
-                Map.Entry<String, JsonElement> opr = entries.get(0);
-                Map.Entry<String, JsonElement> item = entries.get(1);
-                VertexPayload vertexPayload = VertexPayload.fromJson(item.getValue().getAsJsonObject().toString());
-
-                // Add vertex
-                if (opr.getValue().getAsString().equalsIgnoreCase("add")) {
-                    vertexPayload.setProperties(CrudServiceUtil.mergeHeaderInFoToPayload(vertexPayload.getProperties(),
-                            headers, true));
-                    Vertex validatedVertex = OxmModelValidator.validateIncomingUpsertPayload(null, version, vertexPayload.getType(),
-                            vertexPayload.getProperties());
-                    Vertex persistedVertex = addBulkVertex(validatedVertex, version, txId);
-                    Vertex outgoingVertex = OxmModelValidator.validateOutgoingPayload(version, persistedVertex);
-                    vertices.put(item.getKey(), outgoingVertex);
-                }
+                    if (entries.size() != 2) {
+                        throw new CrudException("", Status.BAD_REQUEST);
+                    }
+                    Map.Entry<String, JsonElement> opr = entries.get(0);
+                    Map.Entry<String, JsonElement> item = entries.get(1);
+                    VertexPayload vertexPayload = VertexPayload.fromJson(item.getValue().getAsJsonObject().toString());
 
-                // Update vertex
-                else if (opr.getValue().getAsString().equalsIgnoreCase("modify")) {
-                    vertexPayload.setProperties(CrudServiceUtil.mergeHeaderInFoToPayload(vertexPayload.getProperties(),
-                            headers, false));
-                    Vertex validatedVertex = OxmModelValidator.validateIncomingUpsertPayload(vertexPayload.getId(), version,
-                            vertexPayload.getType(), vertexPayload.getProperties());
-                    Vertex persistedVertex = updateBulkVertex(validatedVertex, vertexPayload.getId(), version, txId);
-                    Vertex outgoingVertex = OxmModelValidator.validateOutgoingPayload(version, persistedVertex);
-                    vertices.put(item.getKey(), outgoingVertex);
-                }
+                    // Add vertex
+                    if (opr.getValue().getAsString().equalsIgnoreCase("add")) {
+                        vertexPayload.setProperties(CrudServiceUtil.mergeHeaderInFoToPayload(vertexPayload.getProperties(),
+                                headers, true));
+                        Vertex validatedVertex = OxmModelValidator.validateIncomingUpsertPayload(null, version, vertexPayload.getType(),
+                                vertexPayload.getProperties());
+                        persistedVertices.put(item.getKey(),
+                                vertexUpserts.submit(null, () -> addBulkVertex(validatedVertex, version, txId)));
+                    }
 
-                // Patch vertex
-                else if (opr.getValue().getAsString().equalsIgnoreCase("patch")) {
-                    if ( (vertexPayload.getId() == null) || (vertexPayload.getType() == null) ) {
-                        throw new CrudException("id and type must be specified for patch request", Status.BAD_REQUEST);
+                    // Update vertex
+                    else if (opr.getValue().getAsString().equalsIgnoreCase("modify")) {
+                        vertexPayload.setProperties(CrudServiceUtil.mergeHeaderInFoToPayload(vertexPayload.getProperties(),
+                                headers, false));
+                        Vertex validatedVertex = OxmModelValidator.validateIncomingUpsertPayload(vertexPayload.getId(), version,
+                                vertexPayload.getType(), vertexPayload.getProperties());
+                        persistedVertices.put(item.getKey(), vertexUpserts.submit(vertexPayload.getId(),
+                                () -> updateBulkVertex(validatedVertex, vertexPayload.getId(), version, txId)));
                     }
 
-                    vertexPayload.setProperties(CrudServiceUtil.mergeHeaderInFoToPayload(vertexPayload.getProperties(),
-                            headers, false));
+                    // Patch vertex
+                    else if (opr.getValue().getAsString().equalsIgnoreCase("patch")) {
+                        if ( (vertexPayload.getId() == null) || (vertexPayload.getType() == null) ) {
+                            throw new CrudException("id and type must be specified for patch request", Status.BAD_REQUEST);
+                        }
+
+                        vertexPayload.setProperties(CrudServiceUtil.mergeHeaderInFoToPayload(vertexPayload.getProperties(),
+                                headers, false));
 
-                    OperationResult existingVertexOpResult = dao.getVertex(vertexPayload.getId(), OxmModelValidator.resolveCollectionType(version, vertexPayload.getType()), version, new HashMap<String, String>());
-                    Vertex existingVertex = Vertex.fromJson(existingVertexOpResult.getResult(), version);
-                    Vertex validatedVertex = OxmModelValidator.validateIncomingPatchPayload(vertexPayload.getId(),
-                            version, vertexPayload.getType(), vertexPayload.getProperties(), existingVertex);
-                    Vertex persistedVertex = updateBulkVertex(validatedVertex, vertexPayload.getId(), version, txId);
-                    Vertex outgoingVertex = OxmModelValidator.validateOutgoingPayload(version, persistedVertex);
-                    vertices.put(item.getKey(), outgoingVertex);
+                        vertexUpserts.awaitEntity(vertexPayload.getId());
+                        OperationResult existingVertexOpResult = dao.getVertex(vertexPayload.getId(), OxmModelValidator.resolveCollectionType(version, vertexPayload.getType()), version, new HashMap<String, String>());
+                        Vertex existingVertex = Vertex.fromJson(existingVertexOpResult.getResult(), version);
+                        Vertex validatedVertex = OxmModelValidator.validateIncomingPatchPayload(vertexPayload.getId(),
+                                version, vertexPayload.getType(), vertexPayload.getProperties(), existingVertex);
+                        persistedVertices.put(item.getKey(), vertexUpserts.submit(vertexPayload.getId(),
+                                () -> updateBulkVertex(validatedVertex, vertexPayload.getId(), version, txId)));
+                    }
                 }
+            } finally {
+                vertexUpserts.drain();
+            }
+            vertexUpserts.rethrowFailure();
+            for (Map.Entry<String, CompletableFuture<Vertex>> persistedVertex : persistedVertices.entrySet()) {
+                vertices.put(persistedVertex.getKey(),
+                        OxmModelValidator.validateOutgoingPayload(version, persistedVertex.getValue().join()));
             }
 
             // Step 4: Handle edge add/modify
-            for (JsonElement v : payload.getRelationships()) {
-                List<Map.Entry<String, JsonElement>> entries = new ArrayList<Map.Entry<String, JsonElement>>(
-                        v.getAsJsonObject().entrySet());
+            CrudAsyncBulkPhase edgeUpserts = new CrudAsyncBulkPhase(bulkWindow);
+            try {
+                for (JsonElement v : payload.getRelationships()) {
+                    List<Map.Entry<String, JsonElement>> entries = new ArrayList<Map.Entry<String, JsonElement>>(
+                            v.getAsJsonObject().entrySet());
 
-                if (entries.size() != 2) {
-                    throw new CrudException("", Status.BAD_REQUEST);
-                }
-                Map.Entry<String, JsonElement> opr = entries.get(0);
-                Map.Entry<String, JsonElement> item = entries.get(1);
-                EdgePayload edgePayload = EdgePayload.fromJson(item.getValue().getAsJsonObject().toString());
-
-                // Add/Update edge
-                if (opr.getValue().getAsString().equalsIgnoreCase("add")
-                        || opr.getValue().getAsString().equalsIgnoreCase("modify")
-                        || opr.getValue().getAsString().equalsIgnoreCase("patch")) {
-                    Edge validatedEdge;
-                    Edge persistedEdge;
-                    if (opr.getValue().getAsString().equalsIgnoreCase("add")) {
-                        // Fix the source/destination
-                        if (edgePayload.getSource().startsWith("$")) {
-                            Vertex source = vertices.get(edgePayload.getSource().substring(1));
-                            if (source == null) {
-                                throw new CrudException("Not able to find vertex: " + edgePayload.getSource().substring(1),
-                                        Status.INTERNAL_SERVER_ERROR);
+                    if (entries.size() != 2) {
+                        throw new CrudException("", Status.BAD_REQUEST);
+                    }
+                    Map.Entry<String, JsonElement> opr = entries.get(0);
+                    Map.Entry<String, JsonElement> item = entries.get(1);
+                    EdgePayload edgePayload = EdgePayload.fromJson(item.getValue().getAsJsonObject().toString());
+
+                    // Add/Update edge
+                    if (opr.getValue().getAsString().equalsIgnoreCase("add")
+                            || opr.getValue().getAsString().equalsIgnoreCase("modify")
+                            || opr.getValue().getAsString().equalsIgnoreCase("patch")) {
+                        CompletableFuture<Edge> persistedEdge;
+                        if (opr.getValue().getAsString().equalsIgnoreCase("add")) {
+                            // Fix the source/destination
+                            if (edgePayload.getSource().startsWith("$")) {
+                                Vertex source = vertices.get(edgePayload.getSource().substring(1));
+                                if (source == null) {
+                                    throw new CrudException("Not able to find vertex: " + edgePayload.getSource().substring(1),
+                                            Status.INTERNAL_SERVER_ERROR);
+                                }
+                                edgePayload
+                                .setSource("services/inventory/" + version + "/" + source.getType() + "/" + source.getId().get());
                             }
-                            edgePayload
-                            .setSource("services/inventory/" + version + "/" + source.getType() + "/" + source.getId().get());
-                        }
-                        if (edgePayload.getTarget().startsWith("$")) {
-                            Vertex target = vertices.get(edgePayload.getTarget().substring(1));
-                            if (target == null) {
-                                throw new CrudException("Not able to find vertex: " + edgePayload.getTarget().substring(1),
-                                        Status.INTERNAL_SERVER_ERROR);
+                            if (edgePayload.getTarget().startsWith("$")) {
+                                Vertex target = vertices.get(edgePayload.getTarget().substring(1));
+                                if (target == null) {
+                                    throw new CrudException("Not able to find vertex: " + edgePayload.getTarget().substring(1),
+                                            Status.INTERNAL_SERVER_ERROR);
+                                }
+                                edgePayload
+                                .setTarget("services/inventory/" + version + "/" + target.getType() + "/" + target.getId().get());
                             }
-                            edgePayload
-                            .setTarget("services/inventory/" + version + "/" + target.getType() + "/" + target.getId().get());
-                        }
 
-                        // If the type isn't set, resolve it based on on the sourece and target vertex types
-                        if (edgePayload.getType() == null || edgePayload.getType().isEmpty()) {
-                            edgePayload.setType(CrudServiceUtil.determineEdgeType(edgePayload, version));
-                        }
+                            // If the type isn't set, resolve it based on on the sourece and target vertex types
+                            if (edgePayload.getType() == null || edgePayload.getType().isEmpty()) {
+                                edgePayload.setType(CrudServiceUtil.determineEdgeType(edgePayload, version));
+                            }
                         
-                        validatedEdge = RelationshipSchemaValidator.validateIncomingAddPayload(version, edgePayload.getType(),edgePayload);
-                        persistedEdge = addBulkEdge(validatedEdge, version, txId);
-                    } else if (opr.getValue().getAsString().equalsIgnoreCase("modify")) {
-                        Edge edge = dao.getEdge(edgePayload.getId(), txId);
-
-                        // If the type isn't set, resolve it based on on the sourece and target vertex types
-                        if (edgePayload.getType() == null || edgePayload.getType().isEmpty()) {
-                            edgePayload.setType(edge.getType());
-                        }
+                            Edge validatedEdge = RelationshipSchemaValidator.validateIncomingAddPayload(version, edgePayload.getType(),edgePayload);
+                            persistedEdge = edgeUpserts.submit(null, () -> addBulkEdge(validatedEdge, version, txId));
+                        } else if (opr.getValue().getAsString().equalsIgnoreCase("modify")) {
+                            edgeUpserts.awaitEntity(edgePayload.getId());
+                            Edge edge = dao.getEdge(edgePayload.getId(), txId);
+
+                            // If the type isn't set, resolve it based on on the sourece and target vertex types
+                            if (edgePayload.getType() == null || edgePayload.getType().isEmpty()) {
+                                edgePayload.setType(edge.getType());
+                            }
 
-                        validatedEdge = RelationshipSchemaValidator.validateIncomingUpdatePayload(edge, version, edgePayload);
-                        persistedEdge = updateBulkEdge(validatedEdge, version, txId);
-                    } else {
-                        if (edgePayload.getId() == null) {
-                            throw new CrudException("id must be specified for patch request", Status.BAD_REQUEST);
-                        }
-                        Edge existingEdge = dao.getEdge(edgePayload.getId(), txId);
+                            Edge validatedEdge = RelationshipSchemaValidator.validateIncomingUpdatePayload(edge, version, edgePayload);
+                            persistedEdge = edgeUpserts.submit(edgePayload.getId(),
+                                    () -> updateBulkEdge(validatedEdge, version, txId));
+                        } else {
+                            if (edgePayload.getId() == null) {
+                                throw new CrudException("id must be specified for patch request", Status.BAD_REQUEST);
+                            }
+                            edgeUpserts.awaitEntity(edgePayload.getId());
+                            Edge existingEdge = dao.getEdge(edgePayload.getId(), txId);
+
+                            // If the type isn't set, resolve it based on on the sourece and target vertex types
+                            if (edgePayload.getType() == null || edgePayload.getType().isEmpty()) {
+                                edgePayload.setType(existingEdge.getType());
+                            }
 
-                        // If the type isn't set, resolve it based on on the sourece and target vertex types
-                        if (edgePayload.getType() == null || edgePayload.getType().isEmpty()) {
-                            edgePayload.setType(existingEdge.getType());
+                            Edge patchedEdge = RelationshipSchemaValidator.validateIncomingPatchPayload(existingEdge, version, edgePayload);
+                            persistedEdge = edgeUpserts.submit(edgePayload.getId(),
+                                    () -> updateBulkEdge(patchedEdge, version, txId));
                         }
 
-                        Edge patchedEdge = RelationshipSchemaValidator.validateIncomingPatchPayload(existingEdge, version, edgePayload);
-                        persistedEdge = updateBulkEdge(patchedEdge, version, txId);
+                        persistedEdges.put(item.getKey(), persistedEdge);
                     }
-
-
-                    Edge outgoingEdge = RelationshipSchemaValidator.validateOutgoingPayload(version, persistedEdge);
-                    edges.put(item.getKey(), outgoingEdge);
                 }
+            } finally {
+                edgeUpserts.drain();
+            }
+            edgeUpserts.rethrowFailure();
+            for (Map.Entry<String, CompletableFuture<Edge>> persistedEdge : persistedEdges.entrySet()) {
+                edges.put(persistedEdge.getKey(),
+                        RelationshipSchemaValidator.validateOutgoingPayload(version, persistedEdge.getValue().join()));
             }
 
             // commit transaction
@@ -628,9 +872,14 @@ public class CrudAsyncGraphDataService extends AbstractGraphDataService {
         return CrudResponseBuilder.buildUpsertBulkResponse(vertices, edges, version, payload);
     }
 
-    private GraphEvent publishEvent(GraphEvent event) throws CrudException {
-        GraphEventEnvelope response = sendAndWait(event);
-        responseHandler.handleBulkEventResponse(event, response);
-        return response.getBody();
+    private CompletableFuture<GraphEvent> publishEvent(GraphEvent event) throws CrudException {
+        return sendAsync(event).thenApply(response -> {
+            try {
+                responseHandler.handleBulkEventResponse(event, response);
+            } catch (CrudException e) {
+                throw new CompletionException(e);
+            }
+            return response.getBody();
+        });
     }
-}
\ No newline at end of file
+}
@@ -20,55 +20,161 @@
  */
 package org.onap.crud.service;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.ws.rs.core.Response.Status;
 import org.onap.aai.cl.api.Logger;
 import org.onap.aai.cl.eelf.LoggerFactory;
+import org.onap.crud.event.envelope.GraphEventEnvelope;
+import org.onap.crud.exception.CrudException;
 import org.onap.crud.logging.CrudServiceMsgs;
-import org.onap.crud.service.CrudAsyncGraphDataService.CollectGraphResponse;
-import org.onap.crud.util.CrudProperties;
-import org.onap.crud.util.CrudServiceConstants;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
 
 /**
- * Self expiring Cache to hold request transactionIds . Events are expired
- * automatically after 2 seconds of request time out
+ * Bounded registry correlating request transactionIds with the future that is
+ * completed when the matching response event arrives.
+ *
+ * <p>The registry holds at most {@code capacity} pending requests; a slot is
+ * reserved atomically before an entry is added, and further requests are
+ * rejected up front with a 503. Entries are expired after the configured
+ * interval, and any entry evicted by the registry fails its waiting caller
+ * immediately rather than leaving it to time out. The pending count, response
+ * hits/misses, evictions and rejections are exported as metrics through the
+ * owning data service.
  */
-public class CrudAsyncGraphEventCache {
+public class CrudAsyncGraphEventCache implements PublicMetrics {
   private static Logger logger = LoggerFactory.getInstance().getLogger(CrudAsyncGraphEventCache
       .class.getName());
 
-  private static Integer interval;
-
-  static {
-    // Set the cache eviction timeout = request timeout + 2 sec for the
-    // buffer
-    interval = CrudAsyncGraphDataService.DEFAULT_REQUEST_TIMEOUT + 2000;
-    try {
-      interval = Integer
-          .parseInt(CrudProperties.get(CrudServiceConstants.CRD_ASYNC_REQUEST_TIMEOUT) + 2000);
-    } catch (Exception ex) {
-      logger.error(CrudServiceMsgs.ASYNC_DATA_CACHE_ERROR, "Unable to parse "
-          + CrudServiceConstants.CRD_ASYNC_REQUEST_TIMEOUT + " error: "
-          + ex.getMessage());
-    }
-  }
+  public static final long DEFAULT_CAPACITY = 10000;
+
+  private static final String METRIC_PREFIX = "gizmo.async.requests.";
 
-  private final static Cache<String, CollectGraphResponse> cache = CacheBuilder.newBuilder()
-      .expireAfterWrite(interval, TimeUnit.MILLISECONDS).build();
+  private final Cache<String, CompletableFuture<GraphEventEnvelope>> cache;
+  private final long capacity;
 
+  // Number of registered requests, reserved before an entry is added and released when it is removed
+  private final AtomicLong pending = new AtomicLong();
+
+  private final AtomicLong responseHits = new AtomicLong();
+  private final AtomicLong responseMisses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong rejections = new AtomicLong();
+
+  /**
+   * @param expiryInMs time after which a pending request is evicted
+   * @param capacity maximum number of pending requests
+   */
+  public CrudAsyncGraphEventCache(long expiryInMs, long capacity) {
+    this.capacity = capacity;
+    this.cache = CacheBuilder.newBuilder()
+        .expireAfterWrite(expiryInMs, TimeUnit.MILLISECONDS)
+        .removalListener(this::onRemoval)
+        .build();
+  }
 
-  public static void put(String uuid, CollectGraphResponse collector) {
-    cache.put(uuid, collector);
+  /**
+   * Registers a pending request.
+   *
+   * @throws CrudException with status 503 if the registry is full
+   */
+  public void put(String uuid, CompletableFuture<GraphEventEnvelope> future) throws CrudException {
+    if (!reserve()) {
+      // Give expired entries a chance to be evicted before rejecting
+      cache.cleanUp();
+      if (!reserve()) {
+        rejections.incrementAndGet();
+        throw new CrudException("Too many pending requests (" + capacity + "), rejecting transactionId: " + uuid,
+            Status.SERVICE_UNAVAILABLE);
+      }
+    }
+    cache.put(uuid, future);
+  }
 
+  private boolean reserve() {
+    long current;
+    do {
+      current = pending.get();
+      if (current >= capacity) {
+        return false;
+      }
+    } while (!pending.compareAndSet(current, current + 1));
+    return true;
   }
 
-  public static CollectGraphResponse get(String uuid) {
+  public CompletableFuture<GraphEventEnvelope> get(String uuid) {
     return cache.getIfPresent(uuid);
   }
 
-  public static void invalidate(String uuid) {
+  /**
+   * Removes the pending request for the given transactionId and completes it
+   * with the response envelope.
+   *
+   * @return true if a caller was still waiting for this response
+   */
+  public boolean complete(String uuid, GraphEventEnvelope envelope) {
+    CompletableFuture<GraphEventEnvelope> future = cache.asMap().remove(uuid);
+    if (future != null && future.complete(envelope)) {
+      responseHits.incrementAndGet();
+      return true;
+    }
+    responseMisses.incrementAndGet();
+    return false;
+  }
+
+  public void invalidate(String uuid) {
     cache.invalidate(uuid);
   }
 
-}
\ No newline at end of file
+  public long getPendingCount() {
+    return pending.get();
+  }
+
+  public long getResponseHits() {
+    return responseHits.get();
+  }
+
+  public long getResponseMisses() {
+    return responseMisses.get();
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  public long getRejections() {
+    return rejections.get();
+  }
+
+  @Override
+  public Collection<Metric<?>> metrics() {
+    return Arrays.<Metric<?>>asList(
+        new Metric<Long>(METRIC_PREFIX + "pending", getPendingCount()),
+        new Metric<Long>(METRIC_PREFIX + "response.hits", getResponseHits()),
+        new Metric<Long>(METRIC_PREFIX + "response.misses", getResponseMisses()),
+        new Metric<Long>(METRIC_PREFIX + "evictions", getEvictions()),
+        new Metric<Long>(METRIC_PREFIX + "rejections", getRejections()));
+  }
+
+  private void onRemoval(RemovalNotification<String, CompletableFuture<GraphEventEnvelope>> notification) {
+    pending.decrementAndGet();
+    if (!notification.wasEvicted() || notification.getValue() == null) {
+      return;
+    }
+    evictions.incrementAndGet();
+    if (notification.getValue().completeExceptionally(new CrudException("Pending request evicted ("
+        + notification.getCause() + "), transactionId: " + notification.getKey(), Status.INTERNAL_SERVER_ERROR))) {
+      logger.error(CrudServiceMsgs.ASYNC_DATA_CACHE_ERROR,
+          "Evicted pending request for transactionId: " + notification.getKey() + " cause: "
+              + notification.getCause());
+    }
+  }
+
+}
@@ -0,0 +1,234 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.ws.rs.core.Response.Status;
+import org.onap.aai.cl.api.Logger;
+import org.onap.aai.cl.eelf.LoggerFactory;
+import org.onap.aai.event.api.EventPublisher;
+import org.onap.crud.exception.CrudException;
+import org.onap.crud.logging.CrudServiceMsgs;
+
+/**
+ * Coalesces request envelopes published by concurrent callers into batches which are sent to the request topic with
+ * a single {@link EventPublisher#sendSync(java.util.Collection)} call.
+ *
+ * <p>A batch is sent as soon as it reaches the maximum batch size, or once the linger interval has elapsed since its
+ * first message was queued. Each caller gets its own future, which is completed when its batch has been published
+ * or failed with the cause if the batch could not be published at all.
+ *
+ * <p>When the publisher reports that only part of a batch was sent, it does not say which messages were dropped, so
+ * the whole batch is failed with the publish error rather than leaving the dropped requests to the request timeout.
+ * As with a timed out request, the caller cannot tell whether a failed request was applied.
+ *
+ * <p>Batching is enabled by default. A maximum batch size of 1 publishes each request on its own, as the service did
+ * before requests were batched.
+ */
+public class CrudAsyncRequestBatcher implements Runnable {
+
+    private static Logger logger = LoggerFactory.getInstance().getLogger(CrudAsyncRequestBatcher.class.getName());
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 50;
+    public static final long DEFAULT_LINGER = 5;
+
+    private final EventPublisher publisher;
+    private final int maxBatchSize;
+    private final long linger;
+    private final BlockingQueue<PendingMessage> queue = new LinkedBlockingQueue<>();
+
+    private volatile boolean running;
+    private Thread publisherThread;
+
+    private final AtomicLong batchesPublished = new AtomicLong();
+    private final AtomicLong messagesPublished = new AtomicLong();
+    private final AtomicLong messagesFailed = new AtomicLong();
+
+    public CrudAsyncRequestBatcher(EventPublisher publisher, int maxBatchSize, long linger) {
+        Objects.requireNonNull(publisher);
+        this.publisher = publisher;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.linger = Math.max(0, linger);
+    }
+
+    /**
+     * Starts publishing batches on a dedicated thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        publisherThread = new CrudThreadFactory("crudAsyncRequestBatcher").newThread(this);
+        publisherThread.setDaemon(true);
+        publisherThread.start();
+    }
+
+    /**
+     * Stops the publisher thread. Messages which have not been published yet are failed.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (publisherThread != null) {
+            publisherThread.interrupt();
+            publisherThread = null;
+        }
+        List<PendingMessage> unpublished = new ArrayList<>();
+        queue.drainTo(unpublished);
+        fail(unpublished, new CrudException("Request publisher stopped", Status.SERVICE_UNAVAILABLE));
+    }
+
+    /**
+     * Queues a message for publishing.
+     *
+     * @return a future completed once the message has been published
+     */
+    public CompletableFuture<Void> publish(String message) {
+        PendingMessage pending = new PendingMessage(message);
+        if (!running) {
+            pending.future.completeExceptionally(
+                    new CrudException("Request publisher is not running", Status.SERVICE_UNAVAILABLE));
+            return pending.future;
+        }
+        queue.add(pending);
+        // stop() may have drained the queue between the check above and the add, in which case nothing would
+        // ever publish or fail this message
+        if (!running && queue.remove(pending)) {
+            pending.future.completeExceptionally(
+                    new CrudException("Request publisher is not running", Status.SERVICE_UNAVAILABLE));
+        }
+        return pending.future;
+    }
+
+    @Override
+    public void run() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            List<PendingMessage> batch = nextBatch();
+            if (!batch.isEmpty()) {
+                send(batch);
+            }
+        }
+    }
+
+    /**
+     * Waits for a first message, then collects further messages until the batch is full or the linger interval
+     * since the first message has elapsed. If the thread is interrupted the messages already taken from the queue
+     * are returned, so that they are still sent rather than lost.
+     */
+    List<PendingMessage> nextBatch() {
+        List<PendingMessage> batch = new ArrayList<>(maxBatchSize);
+        try {
+            PendingMessage first = queue.poll(1, TimeUnit.SECONDS);
+            if (first == null) {
+                return batch;
+            }
+            batch.add(first);
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(linger);
+            while (batch.size() < maxBatchSize) {
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                long remaining = deadline - System.nanoTime();
+                if (batch.size() >= maxBatchSize || remaining <= 0) {
+                    break;
+                }
+                PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return batch;
+    }
+
+    void send(List<PendingMessage> batch) {
+        List<String> messages = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            messages.add(pending.message);
+        }
+
+        int sent;
+        try {
+            if (messages.size() == 1) {
+                publisher.sendSync(messages.get(0));
+                sent = 1;
+            } else {
+                sent = publisher.sendSync(messages);
+            }
+        } catch (Exception e) {
+            logger.error(CrudServiceMsgs.ASYNC_DATA_SERVICE_ERROR,
+                    "Unable to publish batch of " + messages.size() + " requests: " + e.getMessage());
+            messagesFailed.addAndGet(messages.size());
+            fail(batch, e);
+            return;
+        }
+
+        if (sent < messages.size()) {
+            String error = "Published only " + sent + " of a batch of " + messages.size() + " requests";
+            logger.error(CrudServiceMsgs.ASYNC_DATA_SERVICE_ERROR, error);
+            messagesFailed.addAndGet(messages.size());
+            fail(batch, new CrudException(error, Status.SERVICE_UNAVAILABLE));
+            return;
+        }
+
+        batchesPublished.incrementAndGet();
+        messagesPublished.addAndGet(messages.size());
+        for (PendingMessage pending : batch) {
+            pending.future.complete(null);
+        }
+    }
+
+    private static void fail(List<PendingMessage> batch, Throwable cause) {
+        for (PendingMessage pending : batch) {
+            pending.future.completeExceptionally(cause);
+        }
+    }
+
+    public long getBatchesPublished() {
+        return batchesPublished.get();
+    }
+
+    public long getMessagesPublished() {
+        return messagesPublished.get();
+    }
+
+    public long getMessagesFailed() {
+        return messagesFailed.get();
+    }
+
+    static class PendingMessage {
+        private final String message;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingMessage(String message) {
+            this.message = message;
+        }
+    }
+}
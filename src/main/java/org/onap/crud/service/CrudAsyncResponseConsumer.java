@@ -20,60 +20,259 @@
  */
 package org.onap.crud.service;
 
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
-import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.ws.rs.core.Response.Status;
+import org.onap.aai.cl.api.LogFields;
 import org.onap.aai.cl.api.Logger;
 import org.onap.aai.cl.eelf.LoggerFactory;
+import org.onap.aai.cl.mdc.MdcContext;
+import org.onap.aai.cl.mdc.MdcOverride;
 import org.onap.aai.event.api.EventConsumer;
+import org.onap.crud.event.envelope.GraphEventEnvelope;
 import org.onap.crud.logging.CrudServiceMsgs;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
 
-public class CrudAsyncResponseConsumer extends TimerTask {
+/**
+ * Continuously consumes response events from the async response topic. Batches are consumed back to back while
+ * events are available; the loop only backs off for the configured idle interval when a consume returns nothing, so
+ * the added latency for a response is bounded by the broker round trip rather than a polling period.
+ *
+ * <p>When configured with more than one worker, the events of a batch are parsed in parallel and then dispatched in
+ * partitions keyed by transaction-id, so events for the same transaction keep their arrival order. Offsets are only
+ * committed once the whole batch has been dispatched.
+ *
+ * <p>The number of batches and events processed and the latency of the last batch are exported as metrics through
+ * the owning data service.
+ */
+public class CrudAsyncResponseConsumer implements Runnable, PublicMetrics {
 
     private static Logger logger = LoggerFactory.getInstance().getLogger(CrudAsyncResponseConsumer
         .class.getName());
+    private static Logger metricsLogger = LoggerFactory.getInstance().getMetricsLogger(CrudAsyncResponseConsumer
+        .class.getName());
+    private static LogFields okFields = new LogFields();
+
+    static {
+        okFields.setField(Status.OK, Status.OK.toString());
+    }
+
+    public static final long DEFAULT_IDLE_BACKOFF = 100;
+    // Parsing and dispatching a response only takes CPU, so one worker per processor, up to 4
+    public static final int DEFAULT_WORKERS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    private static final String METRIC_PREFIX = "gizmo.async.responses.";
 
     private final EventConsumer asyncResponseConsumer;
     private final GraphEventUpdater graphEventUpdater;
+    private final long idleBackoff;
+    private final int workers;
+    private ExecutorService workerPool;
+
+    private volatile boolean running;
+    private Thread consumerThread;
+
+    private final AtomicLong batchesProcessed = new AtomicLong();
+    private final AtomicLong eventsProcessed = new AtomicLong();
+    private volatile long lastBatchLatency;
 
 
     public CrudAsyncResponseConsumer(EventConsumer asyncResponseConsumer, GraphEventUpdater graphEventUpdater) {
+        this(asyncResponseConsumer, graphEventUpdater, DEFAULT_IDLE_BACKOFF);
+    }
+
+    /**
+     * Creates a consumer which dispatches the events on its own thread, one at a time.
+     */
+    public CrudAsyncResponseConsumer(EventConsumer asyncResponseConsumer, GraphEventUpdater graphEventUpdater,
+        long idleBackoff) {
+        this(asyncResponseConsumer, graphEventUpdater, idleBackoff, 1);
+    }
+
+    /**
+     * @param workers number of threads parsing and dispatching the events of a batch, or 1 to dispatch them on the
+     *        consumer thread. The data service reads it from crud.async.response.workers, which defaults to
+     *        {@link #DEFAULT_WORKERS}.
+     */
+    public CrudAsyncResponseConsumer(EventConsumer asyncResponseConsumer, GraphEventUpdater graphEventUpdater,
+        long idleBackoff, int workers) {
         Objects.requireNonNull(asyncResponseConsumer);
         Objects.requireNonNull(graphEventUpdater);
         this.asyncResponseConsumer = asyncResponseConsumer;
         this.graphEventUpdater = graphEventUpdater;
+        this.idleBackoff = idleBackoff;
+        this.workers = Math.max(1, workers);
+        if (this.workers > 1) {
+            this.workerPool =
+                Executors.newFixedThreadPool(this.workers, new CrudThreadFactory("crudAsyncResponseWorker"));
+        }
         logger.info(CrudServiceMsgs.ASYNC_RESPONSE_CONSUMER_INFO,
             "CrudAsyncResponseConsumer initialized SUCCESSFULLY! with event consumer "
                 + asyncResponseConsumer.getClass().getName());
     }
 
+    /**
+     * Starts the consumer loop on its own dedicated thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        consumerThread = new CrudThreadFactory("crudAsyncResponseConsumer").newThread(this);
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+    }
+
+    /**
+     * Stops the consumer loop. Any batch currently being processed is allowed to complete.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (consumerThread != null) {
+            consumerThread.interrupt();
+            consumerThread = null;
+        }
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+    }
 
     @Override
     public void run() {
-
         logger.info(CrudServiceMsgs.ASYNC_RESPONSE_CONSUMER_INFO, "Listening for graph events");
 
+        while (running) {
+            int processed = processNextBatch();
+            if (processed == 0 && running) {
+                try {
+                    Thread.sleep(idleBackoff);
+                } catch (InterruptedException e) {
+                    // Restore interrupted state...
+                    Thread.currentThread().interrupt();
+                    running = false;
+                }
+            }
+        }
+
+        logger.info(CrudServiceMsgs.ASYNC_RESPONSE_CONSUMER_INFO, "Stopped listening for graph events");
+    }
+
+    /**
+     * Consumes a single batch of events, dispatches them and commits the offsets.
+     *
+     * @return the number of events processed
+     */
+    int processNextBatch() {
+        long startTimeInMs = System.currentTimeMillis();
+        int processed = 0;
+
         try {
             Iterable<String> events = asyncResponseConsumer.consume();
-            processEvents(events);
+            processed = processEvents(events);
             asyncResponseConsumer.commitOffsets();
         } catch (Exception e) {
             logger.error(CrudServiceMsgs.ASYNC_RESPONSE_CONSUMER_ERROR, e, e.getMessage());
         }
+
+        if (processed > 0) {
+            lastBatchLatency = System.currentTimeMillis() - startTimeInMs;
+            batchesProcessed.incrementAndGet();
+            eventsProcessed.addAndGet(processed);
+
+            SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
+            MdcOverride override = new MdcOverride();
+            override.addAttribute(MdcContext.MDC_START_TIME, formatter.format(startTimeInMs));
+            metricsLogger.info(CrudServiceMsgs.ASYNC_RESPONSE_CONSUMER_INFO, okFields, override,
+                "Consumed and dispatched " + processed + " events in " + lastBatchLatency + " ms");
+        }
+        return processed;
+    }
+
+    public long getBatchesProcessed() {
+        return batchesProcessed.get();
+    }
+
+    public long getEventsProcessed() {
+        return eventsProcessed.get();
+    }
+
+    public long getLastBatchLatency() {
+        return lastBatchLatency;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.<Metric<?>>asList(
+            new Metric<Long>(METRIC_PREFIX + "batches", getBatchesProcessed()),
+            new Metric<Long>(METRIC_PREFIX + "events", getEventsProcessed()),
+            new Metric<Long>(METRIC_PREFIX + "batch.latency.last", getLastBatchLatency()),
+            new Metric<Integer>(METRIC_PREFIX + "workers", workers));
     }
 
-    private void processEvents(Iterable<String> events) {
-        if (areEventsAvailable(events)) {
+    private int processEvents(Iterable<String> events) {
+        int processed = 0;
+        if (areEventsAvailable(events) && workerPool == null) {
             for (String event : events) {
                 graphEventUpdater.update(event);
+                processed++;
             }
-            logger.info(CrudServiceMsgs.ASYNC_RESPONSE_CONSUMER_INFO, "No events recieved");
+        } else if (areEventsAvailable(events)) {
+            processed = processEventsInParallel(events);
         } else {
-            logger.info(CrudServiceMsgs.ASYNC_RESPONSE_CONSUMER_INFO, "No events recieved");
+            logger.debug(CrudServiceMsgs.ASYNC_RESPONSE_CONSUMER_INFO, "No events recieved");
         }
+        return processed;
+    }
+
+    private int processEventsInParallel(Iterable<String> events) {
+        // Parse the whole batch in parallel
+        List<CompletableFuture<GraphEventEnvelope>> parsedEvents = new ArrayList<>();
+        for (String event : events) {
+            parsedEvents.add(CompletableFuture.supplyAsync(() -> graphEventUpdater.parse(event), workerPool));
+        }
+
+        // Partition by transaction-id, preserving the arrival order within each partition
+        List<List<GraphEventEnvelope>> partitions = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (CompletableFuture<GraphEventEnvelope> parsedEvent : parsedEvents) {
+            GraphEventEnvelope envelope = parsedEvent.join();
+            if (envelope != null) {
+                partitions.get(partitionFor(envelope)).add(envelope);
+            }
+        }
+
+        // Dispatch the partitions in parallel and wait for the whole batch before returning
+        List<CompletableFuture<Void>> dispatched = new ArrayList<>(workers);
+        for (List<GraphEventEnvelope> partition : partitions) {
+            if (!partition.isEmpty()) {
+                dispatched.add(CompletableFuture.runAsync(() -> partition.forEach(graphEventUpdater::dispatch),
+                    workerPool));
+            }
+        }
+        CompletableFuture.allOf(dispatched.toArray(new CompletableFuture[dispatched.size()])).join();
+
+        return parsedEvents.size();
+    }
+
+    private int partitionFor(GraphEventEnvelope envelope) {
+        String transactionId = envelope.getBody() == null ? null : envelope.getBody().getTransactionId();
+        return transactionId == null ? 0 : Math.floorMod(transactionId.hashCode(), workers);
     }
 
     private boolean areEventsAvailable(Iterable<String> events) {
         return !(events == null || !events.iterator().hasNext());
     }
 
-}
\ No newline at end of file
+}
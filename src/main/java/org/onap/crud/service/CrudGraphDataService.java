@@ -21,7 +21,6 @@
 package org.onap.crud.service;
 
 
-import java.util.HashMap;
 import java.util.List;
 
 import javax.ws.rs.core.EntityTag;
@@ -53,13 +52,13 @@ public class CrudGraphDataService extends AbstractGraphDataService {
   public CrudGraphDataService(GraphDao dao) throws CrudException {
     super();
     this.dao = dao;
-    this.daoForGet = dao;
+    this.daoForGet = withEntityCache(dao);
   }
 
   public CrudGraphDataService(GraphDao dao, GraphDao daoForGet) throws CrudException {
     super();
     this.dao = dao;
-    this.daoForGet = daoForGet;
+    this.daoForGet = withEntityCache(daoForGet);
   }
 
   @Override
@@ -90,6 +89,7 @@ public class CrudGraphDataService extends AbstractGraphDataService {
 
   private ImmutablePair<EntityTag, String> addEdge(String version, Edge edge) throws CrudException {
     OperationResult addedEdgeResult = dao.addEdge(edge.getType(), edge.getSource(), edge.getTarget(), edge.getProperties(), version);
+    invalidateEdge(edge);
     EntityTag entityTag = CrudServiceUtil.getETagFromHeader(addedEdgeResult.getHeaders());
     Edge addedEdge = Edge.fromJson(addedEdgeResult.getResult());
     String payload = CrudResponseBuilder
@@ -99,41 +99,52 @@ public class CrudGraphDataService extends AbstractGraphDataService {
   }
 
   @Override
-  public ImmutablePair<EntityTag, String> updateVertex(String version, String id, String type, VertexPayload payload)
-            throws CrudException {
-    Vertex vertex = OxmModelValidator.validateIncomingUpsertPayload(id, version, type, payload.getProperties());
-    return updateVertex(version, vertex);
+  public ImmutablePair<EntityTag, String> updateVertex(String version, String id, String type, VertexPayload payload,
+            String ifMatch) throws CrudException {
+    if (ifMatch != null) {
+      getVertexForWrite(version, id, type, ifMatch);
+    }
+    try {
+      Vertex vertex = OxmModelValidator.validateIncomingUpsertPayload(id, version, type, payload.getProperties());
+      return updateVertex(version, vertex);
+    } finally {
+      if (ifMatch != null) {
+        vertexWrites.endWrite(id);
+      }
+    }
   }
 
   private ImmutablePair<EntityTag, String> updateVertex(String version, Vertex vertex) throws CrudException {
     OperationResult updatedVertexResult = dao.updateVertex(vertex.getId().get(), vertex.getType(), vertex.getProperties(), version);
-    String payload = getUpdatedVertexPayload(version, updatedVertexResult);
+    invalidateVertex(vertex.getId().get());
+    Vertex updatedVertex = Vertex.fromJson(updatedVertexResult.getResult(), version);
+    String payload = CrudResponseBuilder
+      .buildUpsertVertexResponse(OxmModelValidator.validateOutgoingPayload(version, updatedVertex), version);
     EntityTag entityTag = CrudServiceUtil.getETagFromHeader(updatedVertexResult.getHeaders());
 
     return new ImmutablePair<>(entityTag, payload);
   }
 
-  private String getUpdatedVertexPayload(String version, OperationResult updatedVertexResult) throws CrudException {
-    Vertex updatedVertex = Vertex.fromJson(updatedVertexResult.getResult(), version);
-
-    return CrudResponseBuilder
-      .buildUpsertVertexResponse(OxmModelValidator.validateOutgoingPayload(version, updatedVertex), version);
-  }
-
   @Override
-  public ImmutablePair<EntityTag, String> patchVertex(String version, String id, String type, VertexPayload payload)
-            throws CrudException {
-    OperationResult existingVertexOpResult = dao.getVertex(id, OxmModelValidator.resolveCollectionType(version, type), version, new HashMap<String, String>());
-    Vertex existingVertex = Vertex.fromJson(existingVertexOpResult.getResult(), version);
-    Vertex vertex = OxmModelValidator.validateIncomingPatchPayload(id, version, type, payload.getProperties(),
-          existingVertex);
-    return updateVertex(version, vertex);
+  public ImmutablePair<EntityTag, String> patchVertex(String version, String id, String type, VertexPayload payload,
+            String ifMatch) throws CrudException {
+    Vertex existingVertex = getVertexForWrite(version, id, type, ifMatch);
+    try {
+      Vertex vertex = OxmModelValidator.validateIncomingPatchPayload(id, version, type, payload.getProperties(),
+            existingVertex);
+      return updateVertex(version, vertex);
+    } finally {
+      if (ifMatch != null) {
+        vertexWrites.endWrite(id);
+      }
+    }
   }
 
   @Override
   public String deleteVertex(String version, String id, String type) throws CrudException {
     type = OxmModelValidator.resolveCollectionType(version, type);
     dao.deleteVertex(id, type);
+    invalidateVertex(id);
     return "";
   }
 
@@ -141,43 +152,47 @@ public class CrudGraphDataService extends AbstractGraphDataService {
   public String deleteEdge(String version, String id, String type) throws CrudException {
     RelationshipSchemaValidator.validateType(version, type);
     dao.deleteEdge(id);
+    invalidateEdge(id);
     return "";
   }
 
   @Override
-  public ImmutablePair<EntityTag, String> updateEdge(String version, String id, String type, EdgePayload payload)
-            throws CrudException {
-	Edge validatedEdge = getValidatedEdge(version, id, type, payload);
-
-    return updateEdge(version, validatedEdge);
+  public ImmutablePair<EntityTag, String> updateEdge(String version, String id, String type, EdgePayload payload,
+            String ifMatch) throws CrudException {
+    Edge existingEdge = getEdgeForWrite(id, type, ifMatch);
+    try {
+      Edge validatedEdge = RelationshipSchemaValidator.validateIncomingUpdatePayload(existingEdge, version, payload);
+      return updateEdge(version, validatedEdge);
+    } finally {
+      if (ifMatch != null) {
+        edgeWrites.endWrite(id);
+      }
+    }
   }
 
   private ImmutablePair<EntityTag, String> updateEdge(String version, Edge edge) throws CrudException {
     OperationResult updatedEdgeResult = dao.updateEdge(edge);
-    String payload = getUpdatedEdgePayload(version, updatedEdgeResult);
+    invalidateEdge(edge);
+    Edge updatedEdge = Edge.fromJson(updatedEdgeResult.getResult());
+    String payload = CrudResponseBuilder
+      .buildUpsertEdgeResponse(RelationshipSchemaValidator.validateOutgoingPayload(version, updatedEdge), version);
     EntityTag entityTag = CrudServiceUtil.getETagFromHeader(updatedEdgeResult.getHeaders());
 
     return new ImmutablePair<>(entityTag, payload);
   }
 
-  private String getUpdatedEdgePayload(String version, OperationResult updatedEdgeResult) throws CrudException {
-    Edge updatedEdge = Edge.fromJson(updatedEdgeResult.getResult());
-
-    return CrudResponseBuilder
-      .buildUpsertEdgeResponse(RelationshipSchemaValidator.validateOutgoingPayload(version, updatedEdge), version);
-  }
-
-  private Edge getValidatedEdge(String version, String id, String type, EdgePayload payload) throws CrudException {
-    OperationResult operationResult = dao.getEdge(id, type, new HashMap<String, String>());
-    return RelationshipSchemaValidator.validateIncomingUpdatePayload(Edge.fromJson(operationResult.getResult()), version, payload);
-  }
-  
   @Override
-  public ImmutablePair<EntityTag, String> patchEdge(String version, String id, String type, EdgePayload payload)
-            throws CrudException {
-    OperationResult operationResult = dao.getEdge(id, type, new HashMap<String, String>());
-    Edge patchedEdge = RelationshipSchemaValidator.validateIncomingPatchPayload(Edge.fromJson(operationResult.getResult()), version, payload);
-    return updateEdge(version, patchedEdge);
+  public ImmutablePair<EntityTag, String> patchEdge(String version, String id, String type, EdgePayload payload,
+            String ifMatch) throws CrudException {
+    Edge existingEdge = getEdgeForWrite(id, type, ifMatch);
+    try {
+      Edge patchedEdge = RelationshipSchemaValidator.validateIncomingPatchPayload(existingEdge, version, payload);
+      return updateEdge(version, patchedEdge);
+    } finally {
+      if (ifMatch != null) {
+        edgeWrites.endWrite(id);
+      }
+    }
   }
   
   @Override
@@ -185,7 +200,13 @@ public class CrudGraphDataService extends AbstractGraphDataService {
       ChampBulkPayload champPayload = new ChampBulkPayload();
       champPayload.fromGizmoPayload(payload, version, headers, dao);
       logger.info(CrudServiceMsgs.CHAMP_BULK_OP_INFO, "ChampBulkPayload-> "+new GsonBuilder().disableHtmlEscaping().setPrettyPrinting().create().toJson(champPayload));
-      OperationResult bulkResult = dao.bulkOperation(champPayload);
+      OperationResult bulkResult;
+      try {
+        bulkResult = dao.bulkOperation(champPayload);
+      } finally {
+        // The bulk operation may still have been applied if it failed
+        invalidateAll();
+      }
 
       ChampBulkPayloadResponse response = ChampBulkPayloadResponse.fromJson(bulkResult.getResult());
       response.populateChampData(version);
@@ -27,6 +27,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.security.auth.x500.X500Principal;
 import javax.servlet.http.HttpServletRequest;
@@ -39,6 +41,8 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
@@ -53,6 +57,7 @@ import org.apache.cxf.jaxrs.ext.PATCH;
 import org.onap.aai.cl.api.Logger;
 import org.onap.aai.cl.eelf.LoggerFactory;
 import org.onap.aaiauth.auth.Auth;
+import org.onap.crud.dao.GraphReadExecutor;
 import org.onap.crud.exception.CrudException;
 import org.onap.crud.logging.CrudServiceMsgs;
 import org.onap.crud.logging.LoggingUtil;
@@ -78,6 +83,7 @@ public class CrudRestService {
     Logger auditLogger = LoggerFactory.getInstance().getAuditLogger(CrudRestService.class.getName());
     private Auth auth;
     private boolean authorizationEnabled;
+    private long suspendTimeout;
 
     private String mediaType = MediaType.APPLICATION_JSON;
     public static final String HTTP_PATCH_METHOD_OVERRIDE = "X-HTTP-Method-Override";
@@ -93,12 +99,14 @@ public class CrudRestService {
         if (this.authorizationEnabled) {
             this.auth = new Auth(CrudServiceConstants.CRD_AUTH_FILE);
         }        
+        this.suspendTimeout = graphDataService.getSuspendTimeout();
     }
 
     // For unit testing
     public CrudRestService(AbstractGraphDataService graphDataService, Auth auth) throws Exception {
         this.graphDataService = graphDataService;
         this.auth = auth;
+        this.suspendTimeout = graphDataService.getSuspendTimeout();
     }
 
     public enum Action {
@@ -112,6 +120,7 @@ public class CrudRestService {
     @ApiOperation(value = "Get Vertex" , notes="For example : https://<host>:9520/services/inventory/v11/pserver/<id>")
     @ApiResponses({    
       @ApiResponse(code = 200, message = "Success"),
+      @ApiResponse(code = 304, message = "Not Modified"),
       @ApiResponse(code = 403, message = "Forbidden"),    
       @ApiResponse(code = 404, message = "Not Found"),
       @ApiResponse(code = 500, message = "Internal Server Error") })
@@ -135,9 +144,9 @@ public class CrudRestService {
 
         try {
             if (validateRequest(req, uri, content, Action.GET, CrudServiceConstants.CRD_AUTH_POLICY_NAME, headers)) {
-                ImmutablePair<EntityTag, String> result = graphDataService.getVertex(version, id, type, params);
-                responseBuilder =
-                        Response.status(Status.OK).entity(result.getValue()).tag(result.getKey()).type(mediaType);
+                ImmutablePair<EntityTag, String> result = graphDataService.getVertex(version, id, type, params,
+                        isCacheBypassed(headers), headers.getRequestHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+                responseBuilder = okOrNotModified(headers, result);
             } else {
                 responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
             }
@@ -158,6 +167,7 @@ public class CrudRestService {
     @ApiOperation(value = "Get Vertices" , notes="For example : https://<host>:9520/services/inventory/v11/pserver/")
     @ApiResponses({    
       @ApiResponse(code = 200, message = "Success"),
+      @ApiResponse(code = 304, message = "Not Modified"),
       @ApiResponse(code = 403, message = "Forbidden"),    
       @ApiResponse(code = 404, message = "Not Found"),
       @ApiResponse(code = 500, message = "Internal Server Error") })
@@ -191,8 +201,7 @@ public class CrudRestService {
 
                 ImmutablePair<EntityTag, String> result =
                         graphDataService.getVertices(version, type, filter, properties);
-                responseBuilder =
-                        Response.status(Status.OK).entity(result.getValue()).tag(result.getKey()).type(mediaType);
+                responseBuilder = okOrNotModified(headers, result);
             } else {
                 responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
             }
@@ -213,6 +222,7 @@ public class CrudRestService {
     @ApiOperation(value = "Get Edge" , notes="For example : https://<host>:9520/services/inventory/relationships/v11/tosca.relationships.HostedOn/<id>")
     @ApiResponses({    
       @ApiResponse(code = 200, message = "Success"),
+      @ApiResponse(code = 304, message = "Not Modified"),
       @ApiResponse(code = 403, message = "Forbidden"),    
       @ApiResponse(code = 404, message = "Not Found"),
       @ApiResponse(code = 500, message = "Internal Server Error") })
@@ -237,9 +247,9 @@ public class CrudRestService {
         try {
             if (validateRequest(req, uri, content, Action.GET, CrudServiceConstants.CRD_AUTH_POLICY_NAME, headers)) {
 
-                ImmutablePair<EntityTag, String> result = graphDataService.getEdge(version, id, type, params);
-                responseBuilder =
-                        Response.status(Status.OK).entity(result.getValue()).tag(result.getKey()).type(mediaType);
+                ImmutablePair<EntityTag, String> result = graphDataService.getEdge(version, id, type, params,
+                        isCacheBypassed(headers), headers.getRequestHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+                responseBuilder = okOrNotModified(headers, result);
             } else {
                 responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
             }
@@ -259,6 +269,7 @@ public class CrudRestService {
     @ApiOperation(value = "Get Edges" , notes="For example : https://<host>:9520/services/inventory/relationships/v11/tosca.relationships.HostedOn/")
     @ApiResponses({    
       @ApiResponse(code = 200, message = "Success"),
+      @ApiResponse(code = 304, message = "Not Modified"),
       @ApiResponse(code = 403, message = "Forbidden"),    
       @ApiResponse(code = 404, message = "Not Found"),
       @ApiResponse(code = 500, message = "Internal Server Error") })
@@ -283,8 +294,7 @@ public class CrudRestService {
         try {
             if (validateRequest(req, uri, content, Action.GET, CrudServiceConstants.CRD_AUTH_POLICY_NAME, headers)) {
                 ImmutablePair<EntityTag, String> result = graphDataService.getEdges(version, type, filter);
-                responseBuilder =
-                        Response.status(Status.OK).entity(result.getValue()).tag(result.getKey()).type(mediaType);
+                responseBuilder = okOrNotModified(headers, result);
             } else {
                 responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
             }
@@ -312,6 +322,7 @@ public class CrudRestService {
       @ApiResponse(code = 200, message = "Success"),
       @ApiResponse(code = 403, message = "Forbidden"),    
       @ApiResponse(code = 404, message = "Not Found"),
+      @ApiResponse(code = 412, message = "Precondition Failed"),
       @ApiResponse(code = 400, message = "Bad Request"),
       @ApiResponse(code = 500, message = "Internal Server Error") })
     @ApiImplicitParams({
@@ -322,14 +333,20 @@ public class CrudRestService {
     @Path("/relationships/{version}/{type}/{id}")
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response updateEdge(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
+    public void updateEdge(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
             @PathParam("id") String id, @PathParam("uri") @Encoded @ApiParam(hidden=true) String uri, @Context HttpHeaders headers,
-            @Context UriInfo uriInfo, @Context HttpServletRequest req) {
+            @Context UriInfo uriInfo, @Context HttpServletRequest req,
+            @Suspended @ApiParam(hidden=true) AsyncResponse asyncResponse) {
+        resume(asyncResponse, updateEdgeAsync(content, version, type, id, uri, headers, uriInfo, req));
+    }
+
+    private CompletableFuture<Response> updateEdgeAsync(String content, String version, String type, String id,
+            String uri, HttpHeaders headers, UriInfo uriInfo, HttpServletRequest req) {
 
         LoggingUtil.initMdcContext(req, headers);
         logger.debug("Incoming request..." + content);
 
-        ResponseBuilder responseBuilder;
+        CompletableFuture<ResponseBuilder> responseBuilder;
 
         try {
             if (validateRequest(req, uri, content, Action.PUT, CrudServiceConstants.CRD_AUTH_POLICY_NAME, headers)) {
@@ -340,32 +357,28 @@ public class CrudRestService {
                 if (payload.getId() != null && !payload.getId().equals(id)) {
                     throw new CrudException("ID Mismatch", Status.BAD_REQUEST);
                 }
-                ImmutablePair<EntityTag, String> result;
                 if (headers.getRequestHeaders().getFirst(HTTP_PATCH_METHOD_OVERRIDE) != null
                         && headers.getRequestHeaders().getFirst(HTTP_PATCH_METHOD_OVERRIDE).equalsIgnoreCase("PATCH")) {
-                    result = graphDataService.patchEdge(version, id, type, payload);
-                    responseBuilder =
-                            Response.status(Status.OK).entity(result.getValue()).type(mediaType).tag(result.getKey());
+                    responseBuilder = graphDataService.patchEdgeAsync(version, id, type, payload, getIfMatch(headers))
+                            .thenApply(result ->
+                                    Response.status(Status.OK).entity(result.getValue()).type(mediaType).tag(result.getKey()));
                 } else {
-                    result = graphDataService.updateEdge(version, id, type, payload);
-                    responseBuilder =
-                            Response.status(Status.OK).entity(result.getValue()).type(mediaType).tag(result.getKey());
+                    responseBuilder = graphDataService.updateEdgeAsync(version, id, type, payload, getIfMatch(headers))
+                            .thenApply(result ->
+                                    Response.status(Status.OK).entity(result.getValue()).type(mediaType).tag(result.getKey()));
                 }
 
             } else {
-                responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
+                responseBuilder = CompletableFuture.completedFuture(
+                        Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON));
             }
         } catch (CrudException ce) {
-            responseBuilder = Response.status(ce.getHttpStatus()).entity(ce.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(ce));
         } catch (Exception e) {
-            responseBuilder = Response.status(Status.INTERNAL_SERVER_ERROR).entity(e.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(e));
         }
 
-        setTxIdOnResponseHeader(headers, responseBuilder);
-
-        Response response = responseBuilder.build();
-        LoggingUtil.logRestRequest(logger, auditLogger, req, response);
-        return response;
+        return completeRequest(headers, req, responseBuilder);
     }
 
     @ApiOperation(value = "Patch Edge" , notes = "# Payload \n"
@@ -380,6 +393,7 @@ public class CrudRestService {
       @ApiResponse(code = 403, message = "Forbidden"), 
       @ApiResponse(code = 400, message = "Bad Request"),
       @ApiResponse(code = 404, message = "Not Found"),
+      @ApiResponse(code = 412, message = "Precondition Failed"),
       @ApiResponse(code = 500, message = "Internal Server Error") })
     @ApiImplicitParams({
       @ApiImplicitParam(name = "X-FromAppId", required = true, dataType = "string", paramType = "header"),
@@ -389,14 +403,20 @@ public class CrudRestService {
     @Path("/relationships/{version}/{type}/{id}")
     @Consumes({"application/merge-patch+json"})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response patchEdge(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
+    public void patchEdge(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
             @PathParam("id") String id, @PathParam("uri") @Encoded @ApiParam(hidden=true) String uri, @Context HttpHeaders headers,
-            @Context UriInfo uriInfo, @Context HttpServletRequest req) {
+            @Context UriInfo uriInfo, @Context HttpServletRequest req,
+            @Suspended @ApiParam(hidden=true) AsyncResponse asyncResponse) {
+        resume(asyncResponse, patchEdgeAsync(content, version, type, id, uri, headers, uriInfo, req));
+    }
+
+    private CompletableFuture<Response> patchEdgeAsync(String content, String version, String type, String id,
+            String uri, HttpHeaders headers, UriInfo uriInfo, HttpServletRequest req) {
 
         LoggingUtil.initMdcContext(req, headers);
         logger.debug("Incoming request..." + content);
 
-        ResponseBuilder responseBuilder;
+        CompletableFuture<ResponseBuilder> responseBuilder;
 
         try {
             if (validateRequest(req, uri, content, Action.PATCH, CrudServiceConstants.CRD_AUTH_POLICY_NAME, headers)) {
@@ -408,23 +428,20 @@ public class CrudRestService {
                     throw new CrudException("ID Mismatch", Status.BAD_REQUEST);
                 }
 
-                ImmutablePair<EntityTag, String> result = graphDataService.patchEdge(version, id, type, payload);
-                responseBuilder =
-                        Response.status(Status.OK).entity(result.getValue()).type(mediaType).tag(result.getKey());
+                responseBuilder = graphDataService.patchEdgeAsync(version, id, type, payload, getIfMatch(headers))
+                        .thenApply(result ->
+                                Response.status(Status.OK).entity(result.getValue()).type(mediaType).tag(result.getKey()));
             } else {
-                responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
+                responseBuilder = CompletableFuture.completedFuture(
+                        Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON));
             }
         } catch (CrudException ce) {
-            responseBuilder = Response.status(ce.getHttpStatus()).entity(ce.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(ce));
         } catch (Exception e) {
-            responseBuilder = Response.status(Status.INTERNAL_SERVER_ERROR).entity(e.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(e));
         }
 
-        setTxIdOnResponseHeader(headers, responseBuilder);
-
-        Response response = responseBuilder.build();
-        LoggingUtil.logRestRequest(logger, auditLogger, req, response);
-        return response;
+        return completeRequest(headers, req, responseBuilder);
     }
 
     @ApiOperation(value = "Update Vertex" , notes = "# Payload \n"
@@ -440,6 +457,7 @@ public class CrudRestService {
       @ApiResponse(code = 403, message = "Forbidden"), 
       @ApiResponse(code = 400, message = "Bad Request"),
       @ApiResponse(code = 404, message = "Not Found"),
+      @ApiResponse(code = 412, message = "Precondition Failed"),
       @ApiResponse(code = 500, message = "Internal Server Error") })
     @ApiImplicitParams({
       @ApiImplicitParam(name = "X-FromAppId", required = true, dataType = "string", paramType = "header"),
@@ -449,14 +467,20 @@ public class CrudRestService {
     @Path("/{version}/{type}/{id}")
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response updateVertex(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
+    public void updateVertex(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
             @PathParam("id") String id, @PathParam("uri") @Encoded @ApiParam(hidden=true) String uri, @Context HttpHeaders headers,
-            @Context UriInfo uriInfo, @Context HttpServletRequest req) {
+            @Context UriInfo uriInfo, @Context HttpServletRequest req,
+            @Suspended @ApiParam(hidden=true) AsyncResponse asyncResponse) {
+        resume(asyncResponse, updateVertexAsync(content, version, type, id, uri, headers, uriInfo, req));
+    }
+
+    private CompletableFuture<Response> updateVertexAsync(String content, String version, String type, String id,
+            String uri, HttpHeaders headers, UriInfo uriInfo, HttpServletRequest req) {
 
         LoggingUtil.initMdcContext(req, headers);
         logger.debug("Incoming request..." + content);
 
-        ResponseBuilder responseBuilder;
+        CompletableFuture<ResponseBuilder> responseBuilder;
 
         try {
             if (validateRequest(req, uri, content, Action.PUT, CrudServiceConstants.CRD_AUTH_POLICY_NAME, headers)) {
@@ -471,32 +495,28 @@ public class CrudRestService {
                 payload.setProperties(
                         CrudServiceUtil.mergeHeaderInFoToPayload(payload.getProperties(), headers, false));
 
-                ImmutablePair<EntityTag, String> result;
                 if (headers.getRequestHeaders().getFirst(HTTP_PATCH_METHOD_OVERRIDE) != null
                         && headers.getRequestHeaders().getFirst(HTTP_PATCH_METHOD_OVERRIDE).equalsIgnoreCase("PATCH")) {
-                    result = graphDataService.patchVertex(version, id, type, payload);
-                    responseBuilder =
-                            Response.status(Status.OK).entity(result.getValue()).type(mediaType).tag(result.getKey());
+                    responseBuilder = graphDataService.patchVertexAsync(version, id, type, payload, getIfMatch(headers))
+                            .thenApply(result ->
+                                    Response.status(Status.OK).entity(result.getValue()).type(mediaType).tag(result.getKey()));
                 } else {
-                    result = graphDataService.updateVertex(version, id, type, payload);
-                    responseBuilder =
-                            Response.status(Status.OK).entity(result.getValue()).type(mediaType).tag(result.getKey());
+                    responseBuilder = graphDataService.updateVertexAsync(version, id, type, payload, getIfMatch(headers))
+                            .thenApply(result ->
+                                    Response.status(Status.OK).entity(result.getValue()).type(mediaType).tag(result.getKey()));
                 }
 
             } else {
-                responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
+                responseBuilder = CompletableFuture.completedFuture(
+                        Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON));
             }
         } catch (CrudException ce) {
-            responseBuilder = Response.status(ce.getHttpStatus()).entity(ce.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(ce));
         } catch (Exception e) {
-            responseBuilder = Response.status(Status.INTERNAL_SERVER_ERROR).entity(e.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(e));
         }
 
-        setTxIdOnResponseHeader(headers, responseBuilder);
-
-        Response response = responseBuilder.build();
-        LoggingUtil.logRestRequest(logger, auditLogger, req, response);
-        return response;
+        return completeRequest(headers, req, responseBuilder);
     }
 
     @ApiOperation(value = "Patch Vertex" , notes = "# Payload \n"
@@ -512,6 +532,7 @@ public class CrudRestService {
       @ApiResponse(code = 403, message = "Forbidden"), 
       @ApiResponse(code = 400, message = "Bad Request"),
       @ApiResponse(code = 404, message = "Not Found"),
+      @ApiResponse(code = 412, message = "Precondition Failed"),
       @ApiResponse(code = 500, message = "Internal Server Error") })
     @ApiImplicitParams({
       @ApiImplicitParam(name = "X-FromAppId", required = true, dataType = "string", paramType = "header"),
@@ -521,14 +542,20 @@ public class CrudRestService {
     @Path("/{version}/{type}/{id}")
     @Consumes({"application/merge-patch+json"})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response patchVertex(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
+    public void patchVertex(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
             @PathParam("id") String id, @PathParam("uri") @Encoded @ApiParam(hidden=true) String uri, @Context HttpHeaders headers,
-            @Context UriInfo uriInfo, @Context HttpServletRequest req) {
+            @Context UriInfo uriInfo, @Context HttpServletRequest req,
+            @Suspended @ApiParam(hidden=true) AsyncResponse asyncResponse) {
+        resume(asyncResponse, patchVertexAsync(content, version, type, id, uri, headers, uriInfo, req));
+    }
+
+    private CompletableFuture<Response> patchVertexAsync(String content, String version, String type, String id,
+            String uri, HttpHeaders headers, UriInfo uriInfo, HttpServletRequest req) {
 
         LoggingUtil.initMdcContext(req, headers);
         logger.debug("Incoming request..." + content);
 
-        ResponseBuilder responseBuilder;
+        CompletableFuture<ResponseBuilder> responseBuilder;
 
         try {
             if (validateRequest(req, uri, content, Action.PATCH, CrudServiceConstants.CRD_AUTH_POLICY_NAME, headers)) {
@@ -543,23 +570,20 @@ public class CrudRestService {
                 payload.setProperties(
                         CrudServiceUtil.mergeHeaderInFoToPayload(payload.getProperties(), headers, false));
 
-                ImmutablePair<EntityTag, String> result = graphDataService.patchVertex(version, id, type, payload);
-                responseBuilder =
-                        Response.status(Status.OK).entity(result.getValue()).type(mediaType).tag(result.getKey());
+                responseBuilder = graphDataService.patchVertexAsync(version, id, type, payload, getIfMatch(headers))
+                        .thenApply(result ->
+                                Response.status(Status.OK).entity(result.getValue()).type(mediaType).tag(result.getKey()));
             } else {
-                responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
+                responseBuilder = CompletableFuture.completedFuture(
+                        Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON));
             }
         } catch (CrudException ce) {
-            responseBuilder = Response.status(ce.getHttpStatus()).entity(ce.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(ce));
         } catch (Exception e) {
-            responseBuilder = Response.status(Status.INTERNAL_SERVER_ERROR).entity(e.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(e));
         }
 
-        setTxIdOnResponseHeader(headers, responseBuilder);
-
-        Response response = responseBuilder.build();
-        LoggingUtil.logRestRequest(logger, auditLogger, req, response);
-        return response;
+        return completeRequest(headers, req, responseBuilder);
     }
 
     @ApiOperation(value = "Create Vertex" , notes = "# Payload \n"
@@ -583,14 +607,20 @@ public class CrudRestService {
     @Path("/{version}/{type}/")
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response addVertex(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
+    public void addVertex(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
             @PathParam("uri") @Encoded @ApiParam(hidden=true) String uri, @Context HttpHeaders headers, @Context UriInfo uriInfo,
-            @Context HttpServletRequest req) {
+            @Context HttpServletRequest req,
+            @Suspended @ApiParam(hidden=true) AsyncResponse asyncResponse) {
+        resume(asyncResponse, addVertexAsync(content, version, type, uri, headers, uriInfo, req));
+    }
+
+    private CompletableFuture<Response> addVertexAsync(String content, String version, String type, String uri,
+            HttpHeaders headers, UriInfo uriInfo, HttpServletRequest req) {
 
         LoggingUtil.initMdcContext(req, headers);
         logger.debug("Incoming request..." + content);
 
-        ResponseBuilder responseBuilder;
+        CompletableFuture<ResponseBuilder> responseBuilder;
 
         try {
             if (validateRequest(req, uri, content, Action.POST, CrudServiceConstants.CRD_AUTH_POLICY_NAME, headers)) {
@@ -608,23 +638,20 @@ public class CrudRestService {
 
                 payload.setProperties(CrudServiceUtil.mergeHeaderInFoToPayload(payload.getProperties(), headers, true));
 
-                ImmutablePair<EntityTag, String> result = graphDataService.addVertex(version, type, payload);
-                responseBuilder =
-                        Response.status(Status.CREATED).entity(result.getValue()).tag(result.getKey()).type(mediaType);
+                responseBuilder = graphDataService.addVertexAsync(version, type, payload)
+                        .thenApply(result ->
+                                Response.status(Status.CREATED).entity(result.getValue()).tag(result.getKey()).type(mediaType));
             } else {
-                responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
+                responseBuilder = CompletableFuture.completedFuture(
+                        Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON));
             }
         } catch (CrudException ce) {
-            responseBuilder = Response.status(ce.getHttpStatus()).entity(ce.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(ce));
         } catch (Exception e) {
-            responseBuilder = Response.status(Status.INTERNAL_SERVER_ERROR).entity(e.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(e));
         }
 
-        setTxIdOnResponseHeader(headers, responseBuilder);
-
-        Response response = responseBuilder.build();
-        LoggingUtil.logRestRequest(logger, auditLogger, req, response);
-        return response;
+        return completeRequest(headers, req, responseBuilder);
     }
 
     private void validateBulkPayload(BulkPayload payload) throws CrudException {
@@ -802,14 +829,20 @@ public class CrudRestService {
     @Path("/{version}/")
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response addVertex(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version,
+    public void addVertex(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version,
             @PathParam("uri") @Encoded  @ApiParam(hidden=true) String uri, @Context HttpHeaders headers, @Context UriInfo uriInfo,
-            @Context HttpServletRequest req) {
+            @Context HttpServletRequest req,
+            @Suspended @ApiParam(hidden=true) AsyncResponse asyncResponse) {
+        resume(asyncResponse, addVertexAsync(content, version, uri, headers, uriInfo, req));
+    }
+
+    private CompletableFuture<Response> addVertexAsync(String content, String version, String uri,
+            HttpHeaders headers, UriInfo uriInfo, HttpServletRequest req) {
 
         LoggingUtil.initMdcContext(req, headers);
         logger.debug("Incoming request..." + content);
 
-        ResponseBuilder responseBuilder;
+        CompletableFuture<ResponseBuilder> responseBuilder;
 
         try {
 
@@ -828,24 +861,20 @@ public class CrudRestService {
 
                 payload.setProperties(CrudServiceUtil.mergeHeaderInFoToPayload(payload.getProperties(), headers, true));
 
-                ImmutablePair<EntityTag, String> result =
-                        graphDataService.addVertex(version, payload.getType(), payload);
-                responseBuilder =
-                        Response.status(Status.CREATED).entity(result.getValue()).tag(result.getKey()).type(mediaType);
+                responseBuilder = graphDataService.addVertexAsync(version, payload.getType(), payload)
+                        .thenApply(result ->
+                                Response.status(Status.CREATED).entity(result.getValue()).tag(result.getKey()).type(mediaType));
             } else {
-                responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
+                responseBuilder = CompletableFuture.completedFuture(
+                        Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON));
             }
         } catch (CrudException ce) {
-            responseBuilder = Response.status(ce.getHttpStatus()).entity(ce.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(ce));
         } catch (Exception e) {
-            responseBuilder = Response.status(Status.INTERNAL_SERVER_ERROR).entity(e.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(e));
         }
 
-        setTxIdOnResponseHeader(headers, responseBuilder);
-
-        Response response = responseBuilder.build();
-        LoggingUtil.logRestRequest(logger, auditLogger, req, response);
-        return response;
+        return completeRequest(headers, req, responseBuilder);
     }
 
     @ApiOperation(value = "Create Edge" , notes = "# Payload \n"
@@ -872,14 +901,20 @@ public class CrudRestService {
     @Path("/relationships/{version}/{type}/")
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response addEdge(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
+    public void addEdge(String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
             @PathParam("uri") @Encoded @ApiParam(hidden=true) String uri, @Context HttpHeaders headers, @Context UriInfo uriInfo,
-            @Context HttpServletRequest req) {
+            @Context HttpServletRequest req,
+            @Suspended @ApiParam(hidden=true) AsyncResponse asyncResponse) {
+        resume(asyncResponse, addEdgeAsync(content, version, type, uri, headers, uriInfo, req));
+    }
+
+    private CompletableFuture<Response> addEdgeAsync(String content, String version, String type, String uri,
+            HttpHeaders headers, UriInfo uriInfo, HttpServletRequest req) {
 
         LoggingUtil.initMdcContext(req, headers);
         logger.debug("Incoming request..." + content);
 
-        ResponseBuilder responseBuilder;
+        CompletableFuture<ResponseBuilder> responseBuilder;
 
         try {
             if (validateRequest(req, uri, content, Action.POST, CrudServiceConstants.CRD_AUTH_POLICY_NAME, headers)) {
@@ -894,23 +929,20 @@ public class CrudRestService {
                 if (payload.getType() != null && !payload.getType().equals(type)) {
                     throw new CrudException("Edge Type mismatch", Status.BAD_REQUEST);
                 }
-                ImmutablePair<EntityTag, String> result = graphDataService.addEdge(version, type, payload);
-                responseBuilder =
-                        Response.status(Status.CREATED).entity(result.getValue()).tag(result.getKey()).type(mediaType);
+                responseBuilder = graphDataService.addEdgeAsync(version, type, payload)
+                        .thenApply(result ->
+                                Response.status(Status.CREATED).entity(result.getValue()).tag(result.getKey()).type(mediaType));
             } else {
-                responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
+                responseBuilder = CompletableFuture.completedFuture(
+                        Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON));
             }
         } catch (CrudException ce) {
-            responseBuilder = Response.status(ce.getHttpStatus()).entity(ce.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(ce));
         } catch (Exception e) {
-            responseBuilder = Response.status(Status.INTERNAL_SERVER_ERROR).entity(e.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(e));
         }
 
-        setTxIdOnResponseHeader(headers, responseBuilder);
-
-        Response response = responseBuilder.build();
-        LoggingUtil.logRestRequest(logger, auditLogger, req, response);
-        return response;
+        return completeRequest(headers, req, responseBuilder);
     }
 
     @ApiOperation(value = "Create Edge (typeless endpoint)" , nickname="addEdge-typeless",notes = "# Payload \n"
@@ -937,13 +969,19 @@ public class CrudRestService {
     @Path("/relationships/{version}/")
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response addEdge(String content, @PathParam("version")  @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("uri") @Encoded @ApiParam(hidden=true) String uri,
-            @Context HttpHeaders headers, @Context UriInfo uriInfo, @Context HttpServletRequest req) {
+    public void addEdge(String content, @PathParam("version")  @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("uri") @Encoded @ApiParam(hidden=true) String uri,
+            @Context HttpHeaders headers, @Context UriInfo uriInfo, @Context HttpServletRequest req,
+            @Suspended @ApiParam(hidden=true) AsyncResponse asyncResponse) {
+        resume(asyncResponse, addEdgeAsync(content, version, uri, headers, uriInfo, req));
+    }
+
+    private CompletableFuture<Response> addEdgeAsync(String content, String version, String uri, HttpHeaders headers,
+            UriInfo uriInfo, HttpServletRequest req) {
 
         LoggingUtil.initMdcContext(req, headers);
         logger.debug("Incoming request..." + content);
 
-        ResponseBuilder responseBuilder;
+        CompletableFuture<ResponseBuilder> responseBuilder;
 
         try {
             if (validateRequest(req, uri, content, Action.POST, CrudServiceConstants.CRD_AUTH_POLICY_NAME, headers)) {
@@ -959,23 +997,20 @@ public class CrudRestService {
                     payload.setType(CrudServiceUtil.determineEdgeType(payload, version));
                 }
 
-                ImmutablePair<EntityTag, String> result = graphDataService.addEdge(version, payload.getType(), payload);
-                responseBuilder =
-                        Response.status(Status.CREATED).entity(result.getValue()).tag(result.getKey()).type(mediaType);
+                responseBuilder = graphDataService.addEdgeAsync(version, payload.getType(), payload)
+                        .thenApply(result ->
+                                Response.status(Status.CREATED).entity(result.getValue()).tag(result.getKey()).type(mediaType));
             } else {
-                responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
+                responseBuilder = CompletableFuture.completedFuture(
+                        Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON));
             }
         } catch (CrudException ce) {
-            responseBuilder = Response.status(ce.getHttpStatus()).entity(ce.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(ce));
         } catch (Exception e) {
-            responseBuilder = Response.status(Status.INTERNAL_SERVER_ERROR).entity(e.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(e));
         }
 
-        setTxIdOnResponseHeader(headers, responseBuilder);
-
-        Response response = responseBuilder.build();
-        LoggingUtil.logRestRequest(logger, auditLogger, req, response);
-        return response;
+        return completeRequest(headers, req, responseBuilder);
     }
 
     @ApiOperation(value = "Delete Vertex" , notes="For example : https://<host>:9520/services/inventory/v11/pserver/<id>")
@@ -993,33 +1028,36 @@ public class CrudRestService {
     @Path("/{version}/{type}/{id}")
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response deleteVertex(@ApiParam(hidden=true) String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
+    public void deleteVertex(@ApiParam(hidden=true) String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
             @PathParam("id") String id, @PathParam("uri") @Encoded @ApiParam(hidden=true)  String uri, @Context HttpHeaders headers,
-            @Context UriInfo uriInfo, @Context HttpServletRequest req) {
+            @Context UriInfo uriInfo, @Context HttpServletRequest req,
+            @Suspended @ApiParam(hidden=true) AsyncResponse asyncResponse) {
+        resume(asyncResponse, deleteVertexAsync(content, version, type, id, uri, headers, uriInfo, req));
+    }
+
+    private CompletableFuture<Response> deleteVertexAsync(String content, String version, String type, String id,
+            String uri, HttpHeaders headers, UriInfo uriInfo, HttpServletRequest req) {
 
         LoggingUtil.initMdcContext(req, headers);
         logger.debug("Incoming request..." + content);
 
-        ResponseBuilder responseBuilder;
+        CompletableFuture<ResponseBuilder> responseBuilder;
 
         try {
             if (validateRequest(req, uri, content, Action.DELETE, CrudServiceConstants.CRD_AUTH_POLICY_NAME, headers)) {
-                String result = graphDataService.deleteVertex(version, id, type);
-                responseBuilder = Response.status(Status.OK).entity(result).type(mediaType);
+                responseBuilder = graphDataService.deleteVertexAsync(version, id, type)
+                        .thenApply(result -> Response.status(Status.OK).entity(result).type(mediaType));
             } else {
-                responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
+                responseBuilder = CompletableFuture.completedFuture(
+                        Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON));
             }
         } catch (CrudException ce) {
-            responseBuilder = Response.status(ce.getHttpStatus()).entity(ce.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(ce));
         } catch (Exception e) {
-            responseBuilder = Response.status(Status.INTERNAL_SERVER_ERROR).entity(e.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(e));
         }
 
-        setTxIdOnResponseHeader(headers, responseBuilder);
-
-        Response response = responseBuilder.build();
-        LoggingUtil.logRestRequest(logger, auditLogger, req, response);
-        return response;
+        return completeRequest(headers, req, responseBuilder);
     }
 
     @ApiOperation(value = "Delete Edge" , notes="For example : https://<host>:9520/services/inventory/v11/pserver/<id>")
@@ -1037,33 +1075,36 @@ public class CrudRestService {
     @Path("/relationships/{version}/{type}/{id}")
     @Consumes({MediaType.APPLICATION_JSON})
     @Produces({MediaType.APPLICATION_JSON})
-    public Response deleteEdge(@ApiParam(hidden=true) String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
+    public void deleteEdge(@ApiParam(hidden=true) String content, @PathParam("version") @ApiParam(value="oxm model version",defaultValue="v13") String version, @PathParam("type") String type,
             @PathParam("id") String id, @PathParam("uri") @Encoded @ApiParam(hidden=true) String uri, @Context HttpHeaders headers,
-            @Context UriInfo uriInfo, @Context HttpServletRequest req) {
+            @Context UriInfo uriInfo, @Context HttpServletRequest req,
+            @Suspended @ApiParam(hidden=true) AsyncResponse asyncResponse) {
+        resume(asyncResponse, deleteEdgeAsync(content, version, type, id, uri, headers, uriInfo, req));
+    }
+
+    private CompletableFuture<Response> deleteEdgeAsync(String content, String version, String type, String id,
+            String uri, HttpHeaders headers, UriInfo uriInfo, HttpServletRequest req) {
 
         LoggingUtil.initMdcContext(req, headers);
         logger.debug("Incoming request..." + content);
 
-        ResponseBuilder responseBuilder;
+        CompletableFuture<ResponseBuilder> responseBuilder;
 
         try {
             if (validateRequest(req, uri, content, Action.DELETE, CrudServiceConstants.CRD_AUTH_POLICY_NAME, headers)) {
-                String result = graphDataService.deleteEdge(version, id, type);
-                responseBuilder = Response.status(Status.OK).entity(result).type(mediaType);
+                responseBuilder = graphDataService.deleteEdgeAsync(version, id, type)
+                        .thenApply(result -> Response.status(Status.OK).entity(result).type(mediaType));
             } else {
-                responseBuilder = Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON);
+                responseBuilder = CompletableFuture.completedFuture(
+                        Response.status(Status.FORBIDDEN).entity(content).type(MediaType.APPLICATION_JSON));
             }
         } catch (CrudException ce) {
-            responseBuilder = Response.status(ce.getHttpStatus()).entity(ce.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(ce));
         } catch (Exception e) {
-            responseBuilder = Response.status(Status.INTERNAL_SERVER_ERROR).entity(e.getMessage());
+            responseBuilder = CompletableFuture.completedFuture(errorResponse(e));
         }
 
-        setTxIdOnResponseHeader(headers, responseBuilder);
-
-        Response response = responseBuilder.build();
-        LoggingUtil.logRestRequest(logger, auditLogger, req, response);
-        return response;
+        return completeRequest(headers, req, responseBuilder);
     }
 
     protected boolean validateRequest(HttpServletRequest req, String uri, String content, Action action,
@@ -1129,6 +1170,29 @@ public class CrudRestService {
         MDC.clear();
     }
 
+    private String getIfMatch(HttpHeaders headers) {
+        return headers.getRequestHeaders().getFirst(HttpHeaders.IF_MATCH);
+    }
+
+    /**
+     * Answers a GET with 304 Not Modified when the client already holds the current result.
+     */
+    private ResponseBuilder okOrNotModified(HttpHeaders headers, ImmutablePair<EntityTag, String> result) {
+        if (CrudServiceUtil.matchesETag(headers.getRequestHeaders().getFirst(HttpHeaders.IF_NONE_MATCH),
+                result.getKey())) {
+            return Response.notModified(result.getKey());
+        }
+        return Response.status(Status.OK).entity(result.getValue()).tag(result.getKey()).type(mediaType);
+    }
+
+    /**
+     * A request carrying "Cache-Control: no-cache" is always answered from the graph rather than the entity cache.
+     */
+    private boolean isCacheBypassed(HttpHeaders headers) {
+        String cacheControl = headers.getRequestHeaders().getFirst(HttpHeaders.CACHE_CONTROL);
+        return cacheControl != null && cacheControl.toLowerCase().contains("no-cache");
+    }
+
     private Map<String, String> addParams(UriInfo info, boolean filter, String type, String version) {
         String propertiesKey = CrudProperties.get(CrudServiceConstants.CRD_COLLECTION_PROPERTIES_KEY);
         Map<String, String> params = new HashMap<String, String>();
@@ -1148,6 +1212,64 @@ public class CrudRestService {
         return params;
     }
 
+    /**
+     * Completes the response once the data service operation has finished: failures are mapped onto their HTTP
+     * status, the transaction id header is set and the request is logged. The completion may run on the thread that
+     * received the async response event, so the MDC context of the request is installed for the logging only and the
+     * context of that thread is restored afterwards.
+     */
+    private CompletableFuture<Response> completeRequest(HttpHeaders headers, HttpServletRequest req,
+            CompletableFuture<ResponseBuilder> responseBuilder) {
+        Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+
+        return responseBuilder.exceptionally(this::errorResponse).thenApply(builder -> {
+            Map<String, String> callerContext = MDC.getCopyOfContextMap();
+            if (mdcContext != null) {
+                MDC.setContextMap(mdcContext);
+            }
+            try {
+                setTxIdOnResponseHeader(headers, builder);
+
+                Response response = builder.build();
+                LoggingUtil.logRestRequest(logger, auditLogger, req, response);
+                return response;
+            } finally {
+                if (callerContext != null) {
+                    MDC.setContextMap(callerContext);
+                } else {
+                    MDC.clear();
+                }
+            }
+        });
+    }
+
+    /**
+     * Resumes a suspended request once its response is complete. The request is always resumed: a failure while
+     * completing it is mapped onto its HTTP status. When the data service has a suspend timeout, a request still
+     * suspended after it is answered with a timeout error; the data service fails its requests before then.
+     */
+    private void resume(AsyncResponse asyncResponse, CompletableFuture<Response> response) {
+        if (suspendTimeout > 0) {
+            asyncResponse.setTimeoutHandler(suspended -> suspended.resume(
+                    errorResponse(new CrudException("Timed out waiting for the request to complete",
+                            Status.INTERNAL_SERVER_ERROR)).build()));
+            asyncResponse.setTimeout(suspendTimeout, TimeUnit.MILLISECONDS);
+        }
+
+        response.whenComplete((result, error) -> {
+            if (error != null) {
+                asyncResponse.resume(errorResponse(error).build());
+            } else {
+                asyncResponse.resume(result);
+            }
+        });
+    }
+
+    private ResponseBuilder errorResponse(Throwable error) {
+        CrudException ce = GraphReadExecutor.toCrudException(error);
+        return Response.status(ce.getHttpStatus()).entity(ce.getMessage());
+    }
+
     private void setTxIdOnResponseHeader(HttpHeaders headers, ResponseBuilder responseBuilder) {
         String txId = headers.getHeaderString(TRANSACTIONID_HEADER);
         if (txId != null) {
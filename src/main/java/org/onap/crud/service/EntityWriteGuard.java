@@ -0,0 +1,113 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Response.Status;
+import org.onap.crud.exception.CrudException;
+import org.onap.crud.util.CrudServiceUtil;
+
+/**
+ * Serializes the conditional writes of each vertex or edge made through this instance, so that the If-Match
+ * precondition of a write is evaluated against the entity as left by any earlier conditional write.
+ *
+ * <p>A conditional write reserves its entity with {@link #beginWrite(String)}, then reads the entity from the graph
+ * and checks the client's tag against the current one with {@link #verify(String, String, EntityTag)}. Only the tag
+ * read from the graph decides a 412, since the entity may also be written by other instances or clients. A write
+ * which finds the entity reserved waits for the write in flight to end rather than failing.
+ *
+ * <p>A reservation which hasn't been ended within the pending write timeout is taken over, as a safeguard against a
+ * write which is never ended.
+ */
+public class EntityWriteGuard {
+
+  public static final long DEFAULT_PENDING_WRITE_TIMEOUT = 60000;
+
+  private final ConcurrentMap<String, CompletableFuture<Void>> pendingWrites = new ConcurrentHashMap<>();
+  private final long pendingWriteTimeoutInMs;
+
+  public EntityWriteGuard() {
+    this(DEFAULT_PENDING_WRITE_TIMEOUT);
+  }
+
+  /**
+   * @param pendingWriteTimeoutInMs time after which a conditional write which hasn't ended releases the entity. This
+   *        must be longer than any write can take.
+   */
+  public EntityWriteGuard(long pendingWriteTimeoutInMs) {
+    this.pendingWriteTimeoutInMs = pendingWriteTimeoutInMs;
+  }
+
+  /**
+   * Starts a conditional write of an entity, first waiting for any conditional write of it in flight to end. The
+   * write must be ended with {@link #endWrite(String)}.
+   */
+  public void beginWrite(String id) throws CrudException {
+    CompletableFuture<Void> reservation = new CompletableFuture<>();
+    while (true) {
+      CompletableFuture<Void> pending = pendingWrites.putIfAbsent(id, reservation);
+      if (pending == null) {
+        return;
+      }
+      try {
+        pending.get(pendingWriteTimeoutInMs, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        // The write in flight was never ended
+        if (pendingWrites.replace(id, pending, reservation)) {
+          return;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CrudException("Interrupted while waiting for a write of entity " + id,
+            Status.INTERNAL_SERVER_ERROR);
+      } catch (ExecutionException e) {
+        // Reservations are only ever completed normally
+      }
+    }
+  }
+
+  /**
+   * Checks the tag of an entity read from the graph during a conditional write.
+   *
+   * @throws CrudException with status 412 if the client's tag isn't the current one
+   */
+  public void verify(String id, String ifMatch, EntityTag currentTag) throws CrudException {
+    if (!CrudServiceUtil.matchesETag(ifMatch, currentTag, true)) {
+      throw new CrudException("Precondition failed, entity " + id + " has been modified", Status.PRECONDITION_FAILED);
+    }
+  }
+
+  /**
+   * Ends a conditional write, whatever its outcome, letting the next write of the entity proceed.
+   */
+  public void endWrite(String id) {
+    CompletableFuture<Void> pending = pendingWrites.remove(id);
+    if (pending != null) {
+      pending.complete(null);
+    }
+  }
+}
@@ -35,7 +35,25 @@ public class GraphEventUpdater {
     private static Logger auditLogger = LoggerFactory.getInstance()
         .getAuditLogger(GraphEventUpdater.class.getName());
 
+    private final CrudAsyncGraphEventCache pendingRequests;
+
+    public GraphEventUpdater(CrudAsyncGraphEventCache pendingRequests) {
+        this.pendingRequests = pendingRequests;
+    }
+
     public void update(String eventAsJson) {
+        GraphEventEnvelope graphEventEnvelope = parse(eventAsJson);
+        if (graphEventEnvelope != null) {
+            dispatch(graphEventEnvelope);
+        }
+    }
+
+    /**
+     * Parses and logs a received response event.
+     *
+     * @return the parsed envelope, or null if the event could not be parsed
+     */
+    public GraphEventEnvelope parse(String eventAsJson) {
         try {
 
             GraphEventEnvelope graphEventEnvelope = GraphEventEnvelope.fromJson(eventAsJson);
@@ -53,15 +71,24 @@ public class GraphEventUpdater {
             logger.debug(CrudServiceMsgs.ASYNC_RESPONSE_CONSUMER_INFO,
                 "Event received with payload:" + eventAsJson);
 
-            if (CrudAsyncGraphEventCache.get(graphEvent.getTransactionId()) != null) {
-                CrudAsyncGraphEventCache.get(graphEvent.getTransactionId())
-                    .populateGraphEventEnvelope(graphEventEnvelope);
-            } else {
+            return graphEventEnvelope;
+        } catch (Exception e) {
+            logger.error(CrudServiceMsgs.ASYNC_RESPONSE_CONSUMER_ERROR, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Hands a parsed response event to the request waiting for it.
+     */
+    public void dispatch(GraphEventEnvelope graphEventEnvelope) {
+        try {
+            GraphEvent graphEvent = graphEventEnvelope.getBody();
+            if (!pendingRequests.complete(graphEvent.getTransactionId(), graphEventEnvelope)) {
                 logger.error(CrudServiceMsgs.ASYNC_DATA_SERVICE_ERROR,
                     "Request timed out. Not sending response for transaction-id: "
                         + graphEvent.getTransactionId());
             }
-
         } catch (Exception e) {
             logger.error(CrudServiceMsgs.ASYNC_RESPONSE_CONSUMER_ERROR, e.getMessage());
         }
@@ -35,8 +35,25 @@ public class CrudServiceConstants {
   public static final String CRD_DATAROUTER_AUTH_FILE = CRD_HOME_AUTH + "datarouter-cert.p12";
   public static final String CRD_AUTH_POLICY_NAME = "crud";
   public static final String CRD_AUTHORIZATION_ENABLED = "crud.authorization.enabled";
+  public static final String CRD_ENTITY_CACHE_SIZE = "crud.entity.cache.size";
+  public static final String CRD_ENTITY_CACHE_TTL = "crud.entity.cache.ttl";
+  public static final String CRD_VERTEX_READ_THREADS = "crud.vertex.read.threads";
+  public static final String CRD_VERTEX_READ_TIMEOUT = "crud.vertex.read.timeout";
   public static final String CRD_ASYNC_REQUEST_TIMEOUT = "crud.async.request.timeout";
-  public static final String CRD_ASYNC_RESPONSE_PROCESS_POLL_INTERVAL  = "crud.async.response.process.poll.interval";
+  public static final String CRD_ASYNC_REQUEST_MAX_PENDING = "crud.async.request.max.pending";
+  public static final String CRD_ASYNC_BULK_WINDOW = "crud.async.bulk.window";
+  public static final String CRD_ASYNC_PUBLISH_BATCH_SIZE = "crud.async.publish.batch.size";
+  public static final String CRD_ASYNC_PUBLISH_LINGER = "crud.async.publish.linger";
+  public static final String CRD_ASYNC_RESPONSE_IDLE_BACKOFF = "crud.async.response.idle.backoff";
+  public static final String CRD_ASYNC_RESPONSE_WORKERS = "crud.async.response.workers";
+  public static final String CRD_SCHEMA_LOAD_PARALLELISM = "crud.schema.load.parallelism";
+  public static final String CRD_CHAMP_CLIENT_MAX_REQUESTS = "crud.champ.client.max.requests";
+  public static final String CRD_CHAMP_CLIENT_ACQUIRE_TIMEOUT = "crud.champ.client.acquire.timeout";
+  public static final String CRD_DATAROUTER_CLIENT_MAX_REQUESTS = "crud.datarouter.client.max.requests";
+  public static final String CRD_DATAROUTER_CLIENT_ACQUIRE_TIMEOUT = "crud.datarouter.client.acquire.timeout";
+  public static final String CRD_CHAMP_ENDPOINT_READ_THREADS = "crud.champ.endpoint.read.threads";
+  public static final String CRD_CHAMP_ENDPOINT_READ_TIMEOUT = "crud.champ.endpoint.read.timeout";
+  public static final String CRD_CHAMP_ENDPOINT_CACHE_SIZE = "crud.champ.endpoint.cache.size";
   public static final String CRD_COLLECTION_PROPERTIES_KEY = "crud.collection.properties.key";
   public static final String CRD_RESERVED_VERSION = "_reserved_version";
   public static final String CRD_RESERVED_NODE_TYPE = "_reserved_aai-type";
@@ -131,6 +131,47 @@ public class CrudServiceUtil {
     return entityTag;
   }
 
+  /**
+   * Checks an If-None-Match header value against an entity tag, using the weak comparison. The header may hold "*" or
+   * a comma separated list of (possibly weak) entity tags.
+   *
+   * @return true if the header matches the entity tag, false if either is missing or they don't match
+   */
+  public static boolean matchesETag(String headerValue, EntityTag entityTag) {
+    return matchesETag(headerValue, entityTag, false);
+  }
+
+  /**
+   * Checks an If-Match or If-None-Match header value against an entity tag. If-Match requires the strong comparison,
+   * under which weak tags never match.
+   *
+   * @param strongComparison true to compare as for If-Match, false to compare as for If-None-Match
+   * @return true if the header matches the entity tag, false if either is missing or they don't match
+   */
+  public static boolean matchesETag(String headerValue, EntityTag entityTag, boolean strongComparison) {
+    if (headerValue == null || entityTag == null) {
+      return false;
+    }
+    for (String candidate : headerValue.split(",")) {
+      String tag = candidate.trim();
+      if (tag.equals("*")) {
+        return true;
+      }
+      if (tag.startsWith("W/")) {
+        if (strongComparison) {
+          continue;
+        }
+        tag = tag.substring(2);
+      } else if (strongComparison && entityTag.isWeak()) {
+        continue;
+      }
+      if (tag.replace("\"", "").equals(entityTag.getValue())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public static String determineEdgeType(EdgePayload payload, String version) throws CrudException {
     RelationshipSchema schema = EdgeRulesLoader.getSchemaForVersion(version);
 
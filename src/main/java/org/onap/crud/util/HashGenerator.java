@@ -20,22 +20,34 @@
  */
 package org.onap.crud.util;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectOutput;
-import java.io.ObjectOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 /**
- * Generates a sha 256 hash
+ * Generates a sha 256 hash.
+ *
+ * <p>The hashed bytes are those of the values written as strings to an {@link java.io.ObjectOutputStream}, which is
+ * how Champ computes its etags. They are encoded straight into a per-thread digest, so a single generator can be
+ * shared between threads and hashing doesn't go through Java serialization.
  */
 public class HashGenerator {
 
-    private MessageDigest messageDigest;
+    private static final String ALGORITHM = "SHA-256";
+    private static final int BUFFER_SIZE = 512;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    // Object stream constants, see java.io.ObjectStreamConstants
+    private static final byte[] STREAM_HEADER = {(byte) 0xac, (byte) 0xed, 0x00, 0x05};
+    private static final byte TC_REFERENCE = 0x71;
+    private static final byte TC_STRING = 0x74;
+    private static final byte TC_LONGSTRING = 0x7c;
+    private static final int BASE_WIRE_HANDLE = 0x7e0000;
+
+    private final ThreadLocal<Hash> hashes = ThreadLocal.withInitial(Hash::new);
 
     public HashGenerator() throws NoSuchAlgorithmException {
-        this.messageDigest = MessageDigest.getInstance("SHA-256");
+        // Fail fast if the platform does not provide the algorithm.
+        MessageDigest.getInstance(ALGORITHM);
     }
 
     /**
@@ -44,25 +56,163 @@ public class HashGenerator {
      * 
      * @param values
      * @return SHA 256 hash of the inputs as a hexadecimal string.
-     * @throws IOException
      */
-    public String generateSHA256AsHex(Object... values) throws IOException {
-        byte[] bytes = convertToBytes(values);
-        byte[] digest = messageDigest.digest(bytes);
-        StringBuilder result = new StringBuilder();
-        for (byte byt : digest) {
-            result.append(Integer.toString((byt & 0xff) + 0x100, 16).substring(1));
+    public String generateSHA256AsHex(Object... values) {
+        Hash hash = newHash();
+        String[] strings = new String[values.length];
+        int written = 0;
+        for (Object object : values) {
+            String value = object.toString();
+            // An object stream writes a back reference to a string it has already written
+            int handle = indexOf(strings, written, value);
+            if (handle < 0) {
+                strings[written++] = value;
+                hash.put(value);
+            } else {
+                hash.putReference(handle);
+            }
         }
-        return result.toString();
+        return hash.toHex();
     }
 
-    private byte[] convertToBytes(Object... values) throws IOException {
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream(); ObjectOutput out = new ObjectOutputStream(bos)) {
-            for (Object object : values) {
-                out.writeObject(object.toString());
+    private static int indexOf(String[] strings, int count, String value) {
+        for (int i = 0; i < count; i++) {
+            if (strings[i] == value) {
+                return i;
             }
-            return bos.toByteArray();
         }
+        return -1;
     }
 
+    /**
+     * Starts a new hash on the calling thread. The returned hash is owned by the calling thread and is
+     * reset by the next call to this method, so it must be completed with {@link Hash#toHex()} before
+     * another hash is started on the same thread.
+     *
+     * @return an empty hash
+     */
+    public Hash newHash() {
+        Hash hash = hashes.get();
+        hash.reset();
+        return hash;
+    }
+
+    /**
+     * Streaming SHA 256 hash of a sequence of strings.
+     */
+    public static final class Hash {
+
+        private final MessageDigest messageDigest;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+
+        private Hash() {
+            try {
+                this.messageDigest = MessageDigest.getInstance(ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Adds a value to the hash, encoded as an object stream encodes a string it hasn't written before: a type
+         * code, the length and the modified UTF-8 bytes of the string.
+         *
+         * @param value
+         * @return this hash
+         */
+        public Hash put(String value) {
+            long utfLength = utfLength(value);
+            if (utfLength <= 0xffff) {
+                putByte(TC_STRING);
+                putByte((byte) (utfLength >>> 8));
+                putByte((byte) utfLength);
+            } else {
+                putByte(TC_LONGSTRING);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    putByte((byte) (utfLength >>> shift));
+                }
+            }
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x0001 && c <= 0x007f) {
+                    putByte((byte) c);
+                } else if (c > 0x07ff) {
+                    putByte((byte) (0xe0 | ((c >> 12) & 0x0f)));
+                    putByte((byte) (0x80 | ((c >> 6) & 0x3f)));
+                    putByte((byte) (0x80 | (c & 0x3f)));
+                } else {
+                    putByte((byte) (0xc0 | ((c >> 6) & 0x1f)));
+                    putByte((byte) (0x80 | (c & 0x3f)));
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Completes the hash.
+         *
+         * @return SHA 256 hash of the values added so far as a hexadecimal string.
+         */
+        public String toHex() {
+            flush();
+            byte[] digest = messageDigest.digest();
+            char[] result = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                result[i * 2] = HEX_DIGITS[(digest[i] >>> 4) & 0x0f];
+                result[i * 2 + 1] = HEX_DIGITS[digest[i] & 0x0f];
+            }
+            return new String(result);
+        }
+
+        /**
+         * Adds a reference to the value added in the given position, as an object stream refers to a string written
+         * before.
+         */
+        private void putReference(int handle) {
+            int wireHandle = BASE_WIRE_HANDLE + handle;
+            putByte(TC_REFERENCE);
+            putByte((byte) (wireHandle >>> 24));
+            putByte((byte) (wireHandle >>> 16));
+            putByte((byte) (wireHandle >>> 8));
+            putByte((byte) wireHandle);
+        }
+
+        private void reset() {
+            position = 0;
+            messageDigest.reset();
+            for (byte b : STREAM_HEADER) {
+                putByte(b);
+            }
+        }
+
+        private static long utfLength(String value) {
+            long utfLength = 0;
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x0001 && c <= 0x007f) {
+                    utfLength++;
+                } else if (c > 0x07ff) {
+                    utfLength += 3;
+                } else {
+                    utfLength += 2;
+                }
+            }
+            return utfLength;
+        }
+
+        private void putByte(byte b) {
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = b;
+        }
+
+        private void flush() {
+            messageDigest.update(buffer, 0, position);
+            position = 0;
+        }
+    }
 }
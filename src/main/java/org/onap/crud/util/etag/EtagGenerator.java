@@ -20,11 +20,8 @@
  */
 package org.onap.crud.util.etag;
 
-import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Map.Entry;
 import org.onap.crud.event.GraphEventEdge;
 import org.onap.crud.event.GraphEventVertex;
@@ -33,11 +30,14 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 /**
- * Computes hash for GraphEventVertex and GraphEventEdge
+ * Computes hash for GraphEventVertex and GraphEventEdge. A single generator is shared by the workers handling async
+ * responses, each hashing into its own digest.
  */
 public class EtagGenerator {
 
     private static final String AAI_LAST_MOD_TS = "aai-last-mod-ts";
+    private static final String[] NO_KEYS = new String[0];
+
     private final HashGenerator hashGenerator;
 
     public EtagGenerator() throws NoSuchAlgorithmException {
@@ -48,45 +48,64 @@ public class EtagGenerator {
      * Takes in the GraphEventVertex for which the hash is to be computed.
      * @param GraphEventVertex
      * @return hash for the GraphEventVertex
-     * @throws IOException
      */
-    public String computeHashForVertex(GraphEventVertex graphEventVertex) throws IOException {
-        return hashGenerator.generateSHA256AsHex(graphEventVertex.getId(), graphEventVertex.getType(), convertPropertiesToMap(graphEventVertex.getProperties()));
+    public String computeHashForVertex(GraphEventVertex graphEventVertex) {
+        HashGenerator.Hash hash = hashGenerator.newHash()
+                .put(graphEventVertex.getId())
+                .put(graphEventVertex.getType());
+        putProperties(hash, graphEventVertex.getProperties());
+        return hash.toHex();
     }
 
     /**
      * Takes in the GraphEventEdge for which the hash is to be computed.
      * @param GraphEventEdge
      * @return hash for the GraphEventEdge
-     * @throws IOException
      */
-    public String computeHashForEdge(GraphEventEdge graphEventEdge) throws IOException {
-        return hashGenerator.generateSHA256AsHex(graphEventEdge.getId(), graphEventEdge.getType(),
-                convertPropertiesToMap(graphEventEdge.getProperties()),
-                computeHashForVertex(graphEventEdge.getSource()), computeHashForVertex(graphEventEdge.getTarget()));
+    public String computeHashForEdge(GraphEventEdge graphEventEdge) {
+        // The endpoint hashes reuse this thread's digest, so compute them before starting the edge hash.
+        String sourceHash = computeHashForVertex(graphEventEdge.getSource());
+        String targetHash = computeHashForVertex(graphEventEdge.getTarget());
+
+        HashGenerator.Hash hash = hashGenerator.newHash()
+                .put(graphEventEdge.getId())
+                .put(graphEventEdge.getType());
+        putProperties(hash, graphEventEdge.getProperties());
+        return hash.put(sourceHash).put(targetHash).toHex();
     }
 
-    private Map<String, Object> convertPropertiesToMap(JsonElement properties) {
-        Map<String, Object> propertiesMap = new HashMap<>();
-        if (null != properties) {
+    /**
+     * Adds the properties to the hash in key order, skipping the last modified timestamp. They are written the way a
+     * map of them prints, as they always have been hashed.
+     */
+    private void putProperties(HashGenerator.Hash hash, JsonElement properties) {
+        String[] keys = sortedKeys(properties);
+        StringBuilder propertiesString = new StringBuilder("{");
+        if (keys.length > 0) {
             JsonObject propsObject = properties.getAsJsonObject();
-            for (Entry<String, JsonElement> props : propsObject.entrySet()) {
-                String key = props.getKey();
-                String value = props.getValue().getAsString();
-                propertiesMap.put(key, value);
+            for (int i = 0; i < keys.length; i++) {
+                if (i > 0) {
+                    propertiesString.append(", ");
+                }
+                propertiesString.append(keys[i]).append('=').append(propsObject.get(keys[i]).getAsString());
             }
         }
-        return filterAndSortProperties(propertiesMap);
+        hash.put(propertiesString.append('}').toString());
     }
 
-    private Map<String, Object> filterAndSortProperties(Map<String, Object> properties) {
-        return properties
-                .entrySet()
-                .stream()
-                .filter(x -> !x.getKey().equals(AAI_LAST_MOD_TS))
-                .sorted((x, y) -> x.getKey().compareTo(y.getKey()))
-                .collect(LinkedHashMap::new,
-                        (m, e) -> m.put(e.getKey(), e.getValue()),
-                        Map::putAll);
+    private String[] sortedKeys(JsonElement properties) {
+        if (null == properties) {
+            return NO_KEYS;
+        }
+        JsonObject propsObject = properties.getAsJsonObject();
+        String[] keys = new String[propsObject.entrySet().size()];
+        int count = 0;
+        for (Entry<String, JsonElement> props : propsObject.entrySet()) {
+            if (!props.getKey().equals(AAI_LAST_MOD_TS)) {
+                keys[count++] = props.getKey();
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        return count == keys.length ? keys : Arrays.copyOf(keys, count);
     }
-}
\ No newline at end of file
+}
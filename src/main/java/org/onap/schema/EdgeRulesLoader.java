@@ -93,14 +93,16 @@ public class EdgeRulesLoader {
             logger.debug("Loading DB Edge Rules");
         }
 
-        for (String version : OxmModelLoader.getLoadedOXMVersions()) {
-            try {
+        try {
+            ParallelSchemaLoader.loadAll(OxmModelLoader.getLoadedOXMVersions(), version -> {
                 SchemaVersion schemaVersion = translator.getSchemaVersions().getVersions().stream()
                         .filter(s -> s.toString().equalsIgnoreCase(version)).findAny().orElse(null);
                 loadModel(schemaVersion, edgeIngestor, propFiles);
-            } catch (IOException | EdgeRuleNotFoundException e) {
-                throw new CrudException(e.getMessage (), e);
-            }
+            });
+        } catch (CrudException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CrudException(e.getMessage (), e);
         }
     }
 
@@ -212,8 +214,13 @@ public class EdgeRulesLoader {
         versionContextMap = new ConcurrentHashMap<> ();
     }
 
-    private static synchronized void loadModel(SchemaVersion version, EdgeIngestor edgeIngestor,
+    /**
+     * Builds the relationship schema of a version and then publishes it. Versions are loaded in parallel, so this
+     * is not synchronized: each version only touches its own entry in the context map.
+     */
+    private static void loadModel(SchemaVersion version, EdgeIngestor edgeIngestor,
             Map<String, File> props) throws IOException, CrudException, EdgeRuleNotFoundException {
+        long startTime = System.currentTimeMillis();
 
         Multimap<String, EdgeRule> edges = edgeIngestor.getAllRules ( version );
         String edgeProps;
@@ -226,6 +233,8 @@ public class EdgeRulesLoader {
             RelationshipSchema rs = new RelationshipSchema ( edges, edgeProps );
             versionContextMap.put ( version.toString ().toLowerCase (), rs );
             logger.info ( CrudServiceMsgs.LOADED_DB_RULE_FILE, version.toString () );
+            logger.info ( CrudServiceMsgs.SCHEMA_VERSION_LOAD_TIME, "DB Edge Rules", version.toString (),
+                    Long.toString ( System.currentTimeMillis () - startTime ) );
         }
     }
 
@@ -23,8 +23,10 @@ package org.onap.schema;
 import com.google.common.base.CaseFormat;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
@@ -36,7 +38,6 @@ import org.eclipse.persistence.internal.oxm.mappings.Descriptor;
 import org.eclipse.persistence.jaxb.dynamic.DynamicJAXBContext;
 import org.onap.aai.cl.eelf.LoggerFactory;
 import org.onap.aai.nodes.NodeIngestor;
-import org.onap.aai.setup.SchemaVersion;
 import org.onap.aai.setup.Translator;
 import org.onap.crud.exception.CrudException;
 import org.onap.crud.logging.CrudServiceMsgs;
@@ -51,6 +52,9 @@ public class OxmModelLoader {
 
     private static Map<String, DynamicJAXBContext> versionContextMap = new ConcurrentHashMap<>();
     private static Map<String, HashMap<String, DynamicType>> xmlElementLookup = new ConcurrentHashMap<>();
+    private static Map<String, Map<String, DynamicType>> typeLookup = new ConcurrentHashMap<>();
+    private static Map<String, Map<String, OxmTypeValidationPlan>> validationPlans = new ConcurrentHashMap<>();
+    private static Map<String, Map<String, String>> collectionTypes = new ConcurrentHashMap<>();
 
     final static Pattern versionPattern = Pattern.compile("(?i)v(\\d*)");
 
@@ -83,19 +87,38 @@ public class OxmModelLoader {
             logger.debug("Loading OXM Models");
         }
 
-        for (SchemaVersion oxmVersion : translator.getSchemaVersions().getVersions()) {
-            DynamicJAXBContext jaxbContext = nodeIngestor.getContextForVersion(oxmVersion);
-            if (jaxbContext != null) {
-                loadModel(oxmVersion.toString(), jaxbContext);
-            }
+        try {
+            ParallelSchemaLoader.loadAll(translator.getSchemaVersions().getVersions(), oxmVersion -> {
+                DynamicJAXBContext jaxbContext = nodeIngestor.getContextForVersion(oxmVersion);
+                if (jaxbContext != null) {
+                    loadModel(oxmVersion.toString(), jaxbContext);
+                }
+            });
+        } catch (CrudException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error(CrudServiceMsgs.OXM_LOAD_ERROR, e.getMessage());
+            throw new CrudException(e.getMessage(), e);
         }
     }
 
 
-    private synchronized static void loadModel(String oxmVersion, DynamicJAXBContext jaxbContext) {
-        versionContextMap.put(oxmVersion, jaxbContext);
+    /**
+     * Builds the lookup structures of a model version and then publishes the version. Versions are loaded in
+     * parallel, so this is not synchronized: each version only touches its own entries, and the version becomes
+     * visible in the context map only once its lookups are in place.
+     */
+    private static void loadModel(String oxmVersion, DynamicJAXBContext jaxbContext) {
+        long startTime = System.currentTimeMillis();
+
         loadXmlLookupMap(oxmVersion, jaxbContext);
+        loadValidationPlans(oxmVersion, jaxbContext);
+        loadCollectionTypes(oxmVersion, jaxbContext);
+        versionContextMap.put(oxmVersion, jaxbContext);
+
         logger.info(CrudServiceMsgs.LOADED_OXM_FILE, oxmVersion);
+        logger.info(CrudServiceMsgs.SCHEMA_VERSION_LOAD_TIME, "OXM model", oxmVersion,
+                Long.toString(System.currentTimeMillis() - startTime));
     }
 
     /**
@@ -188,6 +211,119 @@ public class OxmModelLoader {
             types.put(entityName, entity);
         }
         xmlElementLookup.put(version, types);
+        typeLookup.put(version, buildTypeLookup(descriptorsList, jaxbContext));
+    }
+
+    /**
+     * Builds the index used by {@link #getDynamicTypeForVersion(String, String)}. Hyphenated java names and xml
+     * root element names are stored lower case and matched case-insensitively; java names are stored as they are
+     * and matched exactly. Entries are added in the order of precedence of the original lookups.
+     */
+    @SuppressWarnings("rawtypes")
+    private static Map<String, DynamicType> buildTypeLookup(List<Descriptor> descriptorsList,
+            DynamicJAXBContext jaxbContext) {
+        Map<String, DynamicType> lookup = new HashMap<>();
+
+        for (Descriptor desc : descriptorsList) {
+            if (desc.getAlias() != null) {
+                DynamicType entity = jaxbContext.getDynamicType(desc.getAlias());
+                if (entity != null) {
+                    lookup.putIfAbsent(CaseFormat.UPPER_CAMEL.to(CaseFormat.LOWER_HYPHEN, desc.getAlias()), entity);
+                }
+            }
+        }
+        for (Descriptor desc : descriptorsList) {
+            DynamicType entity = desc.getAlias() == null ? null : jaxbContext.getDynamicType(desc.getAlias());
+            if (entity != null && desc.getDefaultRootElement() != null) {
+                lookup.putIfAbsent(desc.getDefaultRootElement().toLowerCase(Locale.ROOT), entity);
+            }
+        }
+        for (Descriptor desc : descriptorsList) {
+            DynamicType entity = desc.getAlias() == null ? null : jaxbContext.getDynamicType(desc.getAlias());
+            if (entity != null) {
+                lookup.putIfAbsent(desc.getAlias(), entity);
+            }
+        }
+        return Collections.unmodifiableMap(lookup);
+    }
+
+    /**
+     * Compiles the validation plan of every type in the model, replacing any plans from a previous load of the
+     * same version.
+     */
+    private static void loadValidationPlans(String version, DynamicJAXBContext jaxbContext) {
+        DynamicType reservedType = jaxbContext.getDynamicType("ReservedPropNames");
+        Map<String, OxmTypeValidationPlan> plans = new ConcurrentHashMap<>();
+
+        for (Map.Entry<String, DynamicType> entry : xmlElementLookup.get(version).entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                plans.put(entry.getKey(), new OxmTypeValidationPlan(entry.getValue(), reservedType));
+            }
+        }
+        validationPlans.put(version, plans);
+    }
+
+    /**
+     * Resolves every type in the model to its collection member type, replacing any resolutions from a previous
+     * load of the same version. Types that cannot be resolved are left out so that lookups report the error.
+     */
+    private static void loadCollectionTypes(String version, DynamicJAXBContext jaxbContext) {
+        Map<String, String> types = new HashMap<>();
+
+        for (Map.Entry<String, DynamicType> entry : xmlElementLookup.get(version).entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                try {
+                    types.put(entry.getKey(), OxmModelValidator.resolveCollectionType(jaxbContext, entry.getValue()));
+                } catch (CrudException e) {
+                    // Reported when the type is requested
+                }
+            }
+        }
+        collectionTypes.put(version, types);
+    }
+
+    /**
+     * Retrieves the resolved collection member type for a type, as computed when the model was loaded.
+     *
+     * @param version - The OXM version of the type.
+     * @param type - The xml root element name of the type.
+     *
+     * @return - The resolved type, or null if the type was not resolved at load time.
+     */
+    public static String getCollectionType(String version, String type) {
+        Map<String, String> types = collectionTypes.get(version);
+        return types == null ? null : types.get(type);
+    }
+
+    /**
+     * Retrieves the compiled validation plan for a type.
+     *
+     * @param version - The OXM version of the type.
+     * @param type - The type name, as accepted by {@link #getDynamicTypeForVersion(String, String)}.
+     *
+     * @return - The validation plan for the type.
+     *
+     * @throws CrudException if the version is not loaded or the type is not part of it
+     */
+    public static OxmTypeValidationPlan getValidationPlan(String version, String type) throws CrudException {
+        Map<String, OxmTypeValidationPlan> plans = validationPlans.get(version);
+        OxmTypeValidationPlan plan = plans == null ? null : plans.get(type);
+        if (plan != null) {
+            return plan;
+        }
+
+        // Other spellings of the type name share the plan of the type they resolve to.
+        DynamicType modelObjectType = getDynamicTypeForVersion(version, type);
+        if (modelObjectType == null) {
+            logger.error(CrudServiceMsgs.INVALID_OXM_FILE, "Object type not found: " + type);
+            throw new CrudException("Object type not found: " + type, Status.NOT_FOUND);
+        }
+        plan = plans == null ? null : plans.get(modelObjectType.getDescriptor().getTableName());
+        if (plan == null) {
+            plan = new OxmTypeValidationPlan(modelObjectType,
+                    getContextForVersion(version).getDynamicType("ReservedPropNames"));
+        }
+        return plan;
     }
 
 
@@ -197,15 +333,31 @@ public class OxmModelLoader {
       // If we haven't already loaded in the available OXM models, then do so now.
       if (versionContextMap == null || versionContextMap.isEmpty()) {
           loadModels();
-      } else if (!versionContextMap.containsKey(version)) {
+      }
+      DynamicJAXBContext jaxbContext = versionContextMap.get(version);
+      if (jaxbContext == null) {
           logger.error(CrudServiceMsgs.OXM_LOAD_ERROR, "Error loading oxm model: " + version);
           throw new CrudException("Error loading oxm model: " + version, Status.INTERNAL_SERVER_ERROR);
       }
 
+      // Accepted spellings of the type are indexed when the model is loaded. Lower-casing returns the same
+      // string when it is already lower case, which is the common case.
+      Map<String, DynamicType> types = typeLookup.get(version);
+      if (types != null) {
+          dynamicType = types.get(type.toLowerCase(Locale.ROOT));
+          if (dynamicType == null) {
+              dynamicType = types.get(type);
+          }
+          if (dynamicType != null) {
+              return dynamicType;
+          }
+      }
+
+      // Spellings outside the index fall back to the original lookups.
       // First try to match the Java-type based on hyphen to camel case
       // translation
       String javaTypeName = CaseFormat.LOWER_HYPHEN.to(CaseFormat.UPPER_CAMEL, type);
-      dynamicType = versionContextMap.get(version).getDynamicType(javaTypeName);
+      dynamicType = jaxbContext.getDynamicType(javaTypeName);
 
       if (xmlElementLookup.containsKey(version)) {
           if (dynamicType == null) {
@@ -220,7 +372,7 @@ public class OxmModelLoader {
 
           if (dynamicType == null) {
               // Direct lookup as java-type name
-              dynamicType = versionContextMap.get(version).getDynamicType(type);
+              dynamicType = jaxbContext.getDynamicType(type);
           }
       }
 
@@ -27,8 +27,6 @@ import javax.ws.rs.core.Response.Status;
 import org.eclipse.persistence.dynamic.DynamicType;
 import org.eclipse.persistence.internal.helper.DatabaseField;
 import org.eclipse.persistence.jaxb.dynamic.DynamicJAXBContext;
-import org.eclipse.persistence.mappings.DatabaseMapping;
-import org.eclipse.persistence.oxm.XMLField;
 import org.onap.aai.cl.api.Logger;
 import org.onap.aai.cl.eelf.LoggerFactory;
 import org.onap.crud.entity.Vertex;
@@ -40,6 +38,7 @@ import org.onap.crud.util.CrudServiceUtil;
 import com.google.common.base.CaseFormat;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
 
 public class OxmModelValidator {
   private static Logger logger = LoggerFactory.getInstance().getLogger(OxmModelValidator.class.getName());
@@ -76,43 +75,23 @@ public class OxmModelValidator {
   public static Map<String, Object> resolveCollectionfilter(String version, String type, Map<String, String> filter)
       throws CrudException {
 
-    DynamicJAXBContext jaxbContext = null;
-    try {
-      jaxbContext = OxmModelLoader.getContextForVersion(version);
-    } catch (Exception e) {
-      throw new CrudException(e);
-    }
+    final OxmTypeValidationPlan plan = OxmModelLoader.getValidationPlan(version, type);
 
     Map<String, Object> result = new HashMap<String, Object>();
-    if (jaxbContext == null) {
-      logger.error(CrudServiceMsgs.OXM_LOAD_ERROR, OXM_LOAD_ERROR + ": " + version);
-      throw new CrudException(OXM_LOAD_ERROR + ": " + version, Status.NOT_FOUND);
-    }
-    final DynamicType modelObjectType = OxmModelLoader.getDynamicTypeForVersion(version, type);
-    final DynamicType reservedObjectType = jaxbContext.getDynamicType("ReservedPropNames");
-
-    for (String key : filter.keySet()) {
-        if ((key == CrudServiceConstants.CRD_RESERVED_VERSION )  || key == CrudServiceConstants.CRD_RESERVED_NODE_TYPE ) {
-          result.put ( key, filter.get ( key ) );
-          continue;
-        }
-      String keyJavaName = CaseFormat.LOWER_HYPHEN.to(CaseFormat.LOWER_CAMEL, key);
-      DatabaseMapping mapping = modelObjectType.getDescriptor().getMappingForAttributeName(keyJavaName);
-
-      // Try both the model for the specified type and the reserved properties for our key
-      if (mapping == null) {
-        mapping = reservedObjectType.getDescriptor().getMappingForAttributeName(keyJavaName);
+    for (Map.Entry<String, String> entry : filter.entrySet()) {
+      String key = entry.getKey();
+      if (CrudServiceConstants.CRD_RESERVED_VERSION.equals(key)
+          || CrudServiceConstants.CRD_RESERVED_NODE_TYPE.equals(key)) {
+        result.put(key, entry.getValue());
+        continue;
       }
-      if (mapping != null) {
-        try {
-          Object value = CrudServiceUtil.validateFieldType(filter.get(key), mapping.getField().getType());
-          result.put(key, value);
-        } catch (Exception ex) {
-          // Skip any exceptions thrown while validating the filter
-          // key value
-          continue;
-        }
+
+      // Both the model for the specified type and the reserved properties are valid filter keys
+      OxmTypeValidationPlan.PropertyRule rule = plan.getProperty(key);
+      if (rule == null || rule.getField() == null) {
+        throw new CrudException("Invalid filter key: " + key, Status.BAD_REQUEST);
       }
+      result.put(key, CrudServiceUtil.validateFieldType(entry.getValue(), rule.getType()));
     }
 
     return result;
@@ -121,6 +100,12 @@ public class OxmModelValidator {
 
   public static String resolveCollectionType(String version, String type) throws CrudException {
 
+    // Types of the loaded models are resolved once, when the model is loaded
+    String collectionType = OxmModelLoader.getCollectionType(version, type);
+    if (collectionType != null) {
+      return collectionType;
+    }
+
     DynamicJAXBContext jaxbContext = null;
     try {
       jaxbContext = OxmModelLoader.getContextForVersion(version);
@@ -143,6 +128,16 @@ public class OxmModelValidator {
       throw new CrudException("Object of collection type not found: " + type, Status.NOT_FOUND);
     }
 
+    return resolveCollectionType(jaxbContext, modelObjectType);
+  }
+
+  /**
+   * Resolves a model type to the type of its members if it is a collection type, or to itself otherwise.
+   *
+   * @return the table name of the resolved type
+   */
+  static String resolveCollectionType(DynamicJAXBContext jaxbContext, DynamicType modelObjectType)
+      throws CrudException {
     if (modelObjectType.getDescriptor().getMappings().size() == 1
         && modelObjectType.getDescriptor().getMappings().get(0).isCollectionMapping()) {
       String childJavaObjectName = modelObjectType.getDescriptor().getMappings().get(0).getAttributeName();
@@ -165,73 +160,46 @@ public class OxmModelValidator {
 
     try {
       type = resolveCollectionType(version, type);
-      DynamicJAXBContext jaxbContext = OxmModelLoader.getContextForVersion(version);
+      final OxmTypeValidationPlan plan = OxmModelLoader.getValidationPlan(version, type);
 
-      final DynamicType modelObjectType = OxmModelLoader.getDynamicTypeForVersion(version, type);
-      final DynamicType reservedType = jaxbContext.getDynamicType("ReservedPropNames");
-
-      Set<Map.Entry<String, JsonElement>> payloadEntriesSet = properties.getAsJsonObject().entrySet();
+      JsonObject payload = properties.getAsJsonObject();
 
       // loop through input to validate against schema
-      for (Map.Entry<String, JsonElement> entry : payloadEntriesSet) {
-        String keyJavaName = CaseFormat.LOWER_HYPHEN.to(CaseFormat.LOWER_CAMEL, entry.getKey());
-
+      for (Map.Entry<String, JsonElement> entry : payload.entrySet()) {
         // check for valid field
-        if (modelObjectType.getDescriptor().getMappingForAttributeName(keyJavaName) == null) {
-          if (reservedType.getDescriptor().getMappingForAttributeName(keyJavaName) == null) {
-            throw new CrudException("Invalid field: " + entry.getKey(), Status.BAD_REQUEST);
-          }
+        if (plan.getProperty(entry.getKey()) == null) {
+          throw new CrudException("Invalid field: " + entry.getKey(), Status.BAD_REQUEST);
         }
-
-      }
-
-      Map<String, JsonElement> entriesMap = new HashMap<String, JsonElement>();
-      for (Map.Entry<String, JsonElement> entry : payloadEntriesSet) {
-        entriesMap.put(entry.getKey(), entry.getValue());
       }
 
       Vertex.Builder modelVertexBuilder = new Vertex.Builder(type);
       if (id != null) {
         modelVertexBuilder.id(id);
       }
-      for (DatabaseMapping mapping : modelObjectType.getDescriptor().getMappings()) {
-        if (mapping.isAbstractDirectMapping()) {
-          DatabaseField field = mapping.getField();
-          String defaultValue = mapping.getProperties().get("defaultValue") == null ? ""
-              : mapping.getProperties().get("defaultValue").toString();
-
-          String keyName = field.getName().substring(0, field.getName().indexOf("/"));
-
-          if (((XMLField) field).isRequired() && !entriesMap.containsKey(keyName) && !defaultValue.isEmpty()) {
-            modelVertexBuilder.property(keyName, CrudServiceUtil.validateFieldType(defaultValue, field.getType()));
-          }
-          // if schema field is required and not set then reject
-          if (((XMLField) field).isRequired() && !entriesMap.containsKey(keyName) && defaultValue.isEmpty()) {
-            throw new CrudException("Missing required field: " + keyName, Status.BAD_REQUEST);
-          }
-          // If invalid field then reject
-          if (entriesMap.containsKey(keyName)) {
-            Object value = CrudServiceUtil.validateFieldType(entriesMap.get(keyName).getAsString(), field.getType());
-            modelVertexBuilder.property(keyName, value);
-          }
-
+      for (OxmTypeValidationPlan.PropertyRule rule : plan.getModelProperties()) {
+        String keyName = rule.getName();
+        String defaultValue = rule.getDefaultValue();
+        JsonElement value = payload.get(keyName);
+
+        // if schema field is required and not set then reject
+        if (rule.isRequired() && value == null && defaultValue.isEmpty()) {
+          throw new CrudException("Missing required field: " + keyName, Status.BAD_REQUEST);
+        }
+        // If invalid field then reject
+        if (value != null) {
+          modelVertexBuilder.property(keyName, CrudServiceUtil.validateFieldType(value.getAsString(), rule.getType()));
+        } else if (!defaultValue.isEmpty()) {
           // Set defaults
-          if (!defaultValue.isEmpty() && !entriesMap.containsKey(keyName)) {
-            modelVertexBuilder.property(keyName, CrudServiceUtil.validateFieldType(defaultValue, field.getType()));
-          }
+          modelVertexBuilder.property(keyName, CrudServiceUtil.validateFieldType(defaultValue, rule.getType()));
         }
       }
 
       // Handle reserved properties
-      for (DatabaseMapping mapping : reservedType.getDescriptor().getMappings()) {
-        if (mapping.isAbstractDirectMapping()) {
-          DatabaseField field = mapping.getField();
-          String keyName = field.getName().substring(0, field.getName().indexOf("/"));
-
-          if (entriesMap.containsKey(keyName)) {
-            Object value = CrudServiceUtil.validateFieldType(entriesMap.get(keyName).getAsString(), field.getType());
-            modelVertexBuilder.property(keyName, value);
-          }
+      for (OxmTypeValidationPlan.PropertyRule rule : plan.getReservedProperties()) {
+        JsonElement value = payload.get(rule.getName());
+        if (value != null) {
+          modelVertexBuilder.property(rule.getName(),
+              CrudServiceUtil.validateFieldType(value.getAsString(), rule.getType()));
         }
       }
 
@@ -247,10 +215,7 @@ public class OxmModelValidator {
       Vertex existingVertex) throws CrudException {
     try {
       type = resolveCollectionType(version, type);
-      DynamicJAXBContext jaxbContext = OxmModelLoader.getContextForVersion(version);
-      
-      final DynamicType modelObjectType =  OxmModelLoader.getDynamicTypeForVersion(version, type);
-      final DynamicType reservedType = jaxbContext.getDynamicType("ReservedPropNames");
+      final OxmTypeValidationPlan plan = OxmModelLoader.getValidationPlan(version, type);
 
       Set<Map.Entry<String, JsonElement>> payloadEntriesSet = properties.getAsJsonObject().entrySet();
 
@@ -258,33 +223,21 @@ public class OxmModelValidator {
       // vertex props
       for (Map.Entry<String, JsonElement> entry : payloadEntriesSet) {
 
-        String keyJavaName = CaseFormat.LOWER_HYPHEN.to(CaseFormat.LOWER_CAMEL, entry.getKey());
-
-        DatabaseField field = null;
-        String defaultValue = null;
-
-        if (modelObjectType.getDescriptor().getMappingForAttributeName(keyJavaName) != null) {
-          field = modelObjectType.getDescriptor().getMappingForAttributeName(keyJavaName).getField();
-          defaultValue = modelObjectType.getDescriptor().getMappingForAttributeName(keyJavaName).getProperties()
-              .get("defaultValue") == null ? ""
-                  : modelObjectType.getDescriptor().getMappingForAttributeName(keyJavaName).getProperties()
-                      .get("defaultValue").toString();
-        } else if (reservedType.getDescriptor().getMappingForAttributeName(keyJavaName) != null) {
-          field = reservedType.getDescriptor().getMappingForAttributeName(keyJavaName).getField();
-          defaultValue = "";
-        }
-
-        if (field == null) {
+        OxmTypeValidationPlan.PropertyRule rule = plan.getProperty(entry.getKey());
+        if (rule == null || rule.getField() == null) {
           throw new CrudException("Invalid field: " + entry.getKey(), Status.BAD_REQUEST);
         }
 
+        DatabaseField field = rule.getField();
+        String defaultValue = rule.getDefaultValue();
+
         // check if mandatory field is not set to null
-        if (((XMLField) field).isRequired() && entry.getValue() instanceof JsonNull && !defaultValue.isEmpty()) {
+        if (rule.isRequired() && entry.getValue() instanceof JsonNull && !defaultValue.isEmpty()) {
           existingVertex.getProperties().put(entry.getKey(),
               CrudServiceUtil.validateFieldType(defaultValue, field.getType()));
-        } else if (((XMLField) field).isRequired() && entry.getValue() instanceof JsonNull && defaultValue.isEmpty()) {
+        } else if (rule.isRequired() && entry.getValue() instanceof JsonNull && defaultValue.isEmpty()) {
           throw new CrudException("Mandatory field: " + entry.getKey() + " can't be set to null", Status.BAD_REQUEST);
-        } else if (!((XMLField) field).isRequired() && entry.getValue() instanceof JsonNull
+        } else if (!rule.isRequired() && entry.getValue() instanceof JsonNull
             && existingVertex.getProperties().containsKey(entry.getKey())) {
           existingVertex.getProperties().remove(entry.getKey());
         } else if (!(entry.getValue() instanceof JsonNull)) {
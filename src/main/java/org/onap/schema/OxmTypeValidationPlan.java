@@ -0,0 +1,165 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.persistence.dynamic.DynamicType;
+import org.eclipse.persistence.internal.helper.DatabaseField;
+import org.eclipse.persistence.mappings.DatabaseMapping;
+import org.eclipse.persistence.oxm.XMLField;
+
+import com.google.common.base.CaseFormat;
+
+/**
+ * Validation rules for the properties of one OXM model type, compiled from the type's descriptor and the
+ * ReservedPropNames descriptor so that payload validation is a map lookup per property.
+ */
+public class OxmTypeValidationPlan {
+
+  private final DynamicType modelObjectType;
+  private final DynamicType reservedType;
+
+  // Every accepted property, keyed by its hyphenated name. Model properties win over reserved ones.
+  private final Map<String, PropertyRule> properties = new HashMap<>();
+
+  // Direct mappings, in descriptor order.
+  private final List<PropertyRule> modelProperties = new ArrayList<>();
+  private final List<PropertyRule> reservedProperties = new ArrayList<>();
+
+  public OxmTypeValidationPlan(DynamicType modelObjectType, DynamicType reservedType) {
+    this.modelObjectType = modelObjectType;
+    this.reservedType = reservedType;
+
+    compile(modelObjectType, false, modelProperties);
+    if (reservedType != null) {
+      compile(reservedType, true, reservedProperties);
+    }
+  }
+
+  /**
+   * Returns the rule for a property of an incoming payload, or null if the property is not part of the model
+   * type or the reserved properties.
+   *
+   * @param key - hyphenated property name
+   */
+  public PropertyRule getProperty(String key) {
+    PropertyRule rule = properties.get(key);
+    if (rule == null) {
+      // Property names that are not in canonical hyphenated form can still match an attribute after case
+      // conversion. They are rare, so resolve them against the descriptors without remembering the result.
+      String keyJavaName = CaseFormat.LOWER_HYPHEN.to(CaseFormat.LOWER_CAMEL, key);
+      DatabaseMapping mapping = modelObjectType.getDescriptor().getMappingForAttributeName(keyJavaName);
+      if (mapping != null) {
+        rule = new PropertyRule(mapping, false);
+      } else if (reservedType != null) {
+        mapping = reservedType.getDescriptor().getMappingForAttributeName(keyJavaName);
+        if (mapping != null) {
+          rule = new PropertyRule(mapping, true);
+        }
+      }
+    }
+    return rule;
+  }
+
+  /**
+   * @return the direct mappings of the model type
+   */
+  public List<PropertyRule> getModelProperties() {
+    return Collections.unmodifiableList(modelProperties);
+  }
+
+  /**
+   * @return the direct mappings of the reserved properties
+   */
+  public List<PropertyRule> getReservedProperties() {
+    return Collections.unmodifiableList(reservedProperties);
+  }
+
+  public DynamicType getModelObjectType() {
+    return modelObjectType;
+  }
+
+  private void compile(DynamicType dynamicType, boolean reserved, List<PropertyRule> directProperties) {
+    for (DatabaseMapping mapping : dynamicType.getDescriptor().getMappings()) {
+      PropertyRule rule = new PropertyRule(mapping, reserved);
+      properties.putIfAbsent(CaseFormat.LOWER_CAMEL.to(CaseFormat.LOWER_HYPHEN, mapping.getAttributeName()), rule);
+      if (mapping.isAbstractDirectMapping()) {
+        directProperties.add(rule);
+      }
+    }
+  }
+
+  /**
+   * Validation rule for a single property.
+   */
+  public static class PropertyRule {
+    private final DatabaseField field;
+    private final String name;
+    private final boolean required;
+    private final String defaultValue;
+
+    PropertyRule(DatabaseMapping mapping, boolean reserved) {
+      this.field = mapping.getField();
+
+      String fieldName = field == null ? mapping.getAttributeName() : field.getName();
+      int ix = fieldName.indexOf("/");
+      this.name = ix < 0 ? fieldName : fieldName.substring(0, ix);
+
+      this.required = field instanceof XMLField && ((XMLField) field).isRequired();
+
+      Object defaultProperty = reserved ? null : mapping.getProperties().get("defaultValue");
+      this.defaultValue = defaultProperty == null ? "" : defaultProperty.toString();
+    }
+
+    /**
+     * @return the schema field, or null if the mapping has none
+     */
+    public DatabaseField getField() {
+      return field;
+    }
+
+    /**
+     * @return the property name as stored on the vertex
+     */
+    public String getName() {
+      return name;
+    }
+
+    public Class<?> getType() {
+      return field.getType();
+    }
+
+    public boolean isRequired() {
+      return required;
+    }
+
+    /**
+     * @return the default value from the schema, or an empty string if there is none
+     */
+    public String getDefaultValue() {
+      return defaultValue;
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.schema;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import org.onap.aai.cl.eelf.LoggerFactory;
+import org.onap.crud.logging.CrudServiceMsgs;
+import org.onap.crud.util.CrudProperties;
+import org.onap.crud.util.CrudServiceConstants;
+
+/**
+ * Loads the versions of a schema in parallel on a bounded fork-join pool. Each version is expected to publish its
+ * own results once they are complete, so versions become available as soon as they have loaded.
+ */
+final class ParallelSchemaLoader {
+
+    private static org.onap.aai.cl.api.Logger logger =
+            LoggerFactory.getInstance().getLogger(ParallelSchemaLoader.class.getName());
+
+    /**
+     * Loads a single schema version.
+     */
+    @FunctionalInterface
+    interface VersionLoader<T> {
+        void load(T version) throws Exception;
+    }
+
+    private ParallelSchemaLoader() { }
+
+    /**
+     * Loads all versions and waits for them to complete.
+     *
+     * @throws Exception the failure of the first version to fail, after all versions have completed
+     */
+    static <T> void loadAll(Collection<T> versions, VersionLoader<T> loader) throws Exception {
+        loadAll(versions, loader, getParallelism());
+    }
+
+    static <T> void loadAll(Collection<T> versions, VersionLoader<T> loader, int parallelism) throws Exception {
+        if (parallelism <= 1 || versions.size() <= 1) {
+            for (T version : versions) {
+                loader.load(version);
+            }
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, versions.size()));
+        try {
+            List<CompletableFuture<Void>> loads = new ArrayList<>();
+            for (T version : versions) {
+                loads.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        loader.load(version);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, pool));
+            }
+
+            try {
+                CompletableFuture.allOf(loads.toArray(new CompletableFuture[loads.size()])).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() == null ? e : e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int getParallelism() {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        try {
+            parallelism = Integer.parseInt(CrudProperties.get(CrudServiceConstants.CRD_SCHEMA_LOAD_PARALLELISM,
+                    Integer.toString(parallelism)));
+        } catch (Exception ex) {
+            logger.error(CrudServiceMsgs.OXM_LOAD_ERROR, "Unable to parse "
+                    + CrudServiceConstants.CRD_SCHEMA_LOAD_PARALLELISM + " error: " + ex.getMessage());
+        }
+        return parallelism;
+    }
+}
@@ -22,10 +22,16 @@ package org.onap.schema;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 import javax.ws.rs.core.Response.Status;
 import org.codehaus.jackson.map.ObjectMapper;
@@ -38,34 +44,31 @@ public class RelationshipSchema {
 
   public static final String SCHEMA_RELATIONSHIP_TYPE = "label";
 
-  private Map<String, Map<String, Class<?>>> relations = new HashMap<>();
+  // Ids are packed 21 bits each into the long keys below
+  private static final int ID_BITS = 21;
+
+  // Node types and relationship types are interned to dense ids when the schema is built, so that lookups
+  // compare numbers rather than building composite string keys.
+  private final Map<String, Integer> nodeTypeIds = new HashMap<>();
+  private final Map<String, Integer> relationTypeIds = new HashMap<>();
+
   /**
-   * Hashmap of valid relationship types along with properties.
+   * Properties of each valid relationship type, indexed by relationship type id.
    */
-  private Map<String, Map<String, Class<?>>> relationTypes  = new HashMap<>();
+  private final List<Map<String, Class<?>>> relationTypes = new ArrayList<>();
+
+  // Sorted (source, target, relationship type) keys of the valid relations
+  private final long[] relations;
+
+  // Sorted (source, target) keys, with the valid edge types for each node pair at the same index
+  private final long[] nodePairs;
+  private final List<Set<String>> edgeTypesForNodePair = new ArrayList<>();
 
-  // A map storing the list of valid edge types for a source/target pair
-  private Map<String, Set<String>> edgeTypesForNodePair = new HashMap<>();
-  
 
   @SuppressWarnings("unchecked")
   public RelationshipSchema(Multimap<String, EdgeRule> rules, String props) throws CrudException, IOException {
     HashMap<String, String> properties = new ObjectMapper().readValue(props, HashMap.class);
 
-    // hold the true values of the edge rules by key - convert to java 8
-    for (EdgeRule rule : rules.values()) {
-      
-      String nodePairKey = buildNodePairKey(rule.getFrom(), rule.getTo());
-      if (edgeTypesForNodePair.get(nodePairKey) == null) {
-        Set<String> typeSet = new HashSet<String>();
-        typeSet.add(rule.getLabel());
-        edgeTypesForNodePair.put(nodePairKey, typeSet);
-      }
-      else {
-        edgeTypesForNodePair.get(nodePairKey).add(rule.getLabel());
-      }
-    }
-
     Map<String, Class<?>> edgeProps = properties.entrySet().stream().collect(Collectors.toMap(p -> p.getKey(), p -> {
       try {
         return resolveClass(p.getValue());
@@ -75,40 +78,97 @@ public class RelationshipSchema {
       return null;
     }));
 
-    rules.entries ().forEach ( (kv) -> {
-      relationTypes.put(kv.getValue ().getLabel (), edgeProps);
-      relations.put (buildRelation ( kv.getValue ().getFrom (), kv.getValue ().getTo (), kv.getValue ().getLabel ()), edgeProps);
-    });
+    Set<Long> relationKeys = new TreeSet<>();
+    Map<Long, Set<String>> nodePairTypes = new TreeMap<>();
+
+    // hold the true values of the edge rules by key - convert to java 8
+    for (EdgeRule rule : rules.values()) {
+      int source = intern(nodeTypeIds, rule.getFrom());
+      int target = intern(nodeTypeIds, rule.getTo());
+      int relation = relationTypeIds.computeIfAbsent(rule.getLabel(), label -> {
+        relationTypes.add(edgeProps);
+        return relationTypes.size() - 1;
+      });
+
+      relationKeys.add(relationKey(source, target, relation));
+      nodePairTypes.computeIfAbsent(nodePairKey(source, target), key -> new HashSet<String>()).add(rule.getLabel());
+    }
+
+    relations = relationKeys.stream().mapToLong(Long::longValue).toArray();
+    nodePairs = nodePairTypes.keySet().stream().mapToLong(Long::longValue).toArray();
+    for (Set<String> typeSet : nodePairTypes.values()) {
+      edgeTypesForNodePair.add(Collections.unmodifiableSet(typeSet));
+    }
   }
 
+  /**
+   * Looks up a relation by a key of the form source:target:relationshipType.
+   *
+   * @deprecated use {@link #lookupRelation(String, String, String)}, which does not need a composite key
+   */
+  @Deprecated
   public Map<String, Class<?>> lookupRelation(String key) {
-    return this.relations.get(key);
+    int targetStart = key.indexOf(':') + 1;
+    int relationStart = key.indexOf(':', targetStart) + 1;
+    if (targetStart == 0 || relationStart == 0) {
+      return null;
+    }
+    return lookupRelation(key.substring(0, targetStart - 1), key.substring(targetStart, relationStart - 1),
+        key.substring(relationStart));
+  }
+
+  /**
+   * @return the properties of the relation, or null if the relationship type is not valid between the source
+   *         and target node types
+   */
+  public Map<String, Class<?>> lookupRelation(String source, String target, String relation) {
+    Integer sourceId = nodeTypeIds.get(source);
+    Integer targetId = nodeTypeIds.get(target);
+    Integer relationId = relationTypeIds.get(relation);
+    if (sourceId == null || targetId == null || relationId == null) {
+      return null;
+    }
+
+    if (Arrays.binarySearch(relations, relationKey(sourceId, targetId, relationId)) < 0) {
+      return null;
+    }
+    return relationTypes.get(relationId);
   }
 
   public Map<String, Class<?>> lookupRelationType(String type) {
-    return this.relationTypes.get(type);
+    Integer relationId = relationTypeIds.get(type);
+    return relationId == null ? null : relationTypes.get(relationId);
   }
 
   public boolean isValidType(String type) {
-    return relationTypes.containsKey(type);
+    return relationTypeIds.containsKey(type);
   }
 
   public Set<String> getValidRelationTypes(String source, String target) {
-    Set<String> typeList = edgeTypesForNodePair.get(buildNodePairKey(source, target));
+    Integer sourceId = nodeTypeIds.get(source);
+    Integer targetId = nodeTypeIds.get(target);
+    if (sourceId == null || targetId == null) {
+      return Collections.emptySet();
+    }
 
-    if (typeList == null) {
-      return new HashSet<String>();
+    int ix = Arrays.binarySearch(nodePairs, nodePairKey(sourceId, targetId));
+    if (ix < 0) {
+      return Collections.emptySet();
     }
     
-    return typeList;
+    return edgeTypesForNodePair.get(ix);
   }
-  
-  private String buildRelation(String source, String target, String relation) {
-    return source + ":" + target + ":" + relation;
+
+  private static int intern(Map<String, Integer> ids, String name) {
+    return ids.computeIfAbsent(name, key -> ids.size());
+  }
+
+  private static long relationKey(int source, int target, int relation) {
+    return ((long) source << (2 * ID_BITS)) | ((long) target << ID_BITS) | relation;
   }
-  
-  private String buildNodePairKey(String source, String target) {
-    return source + ":" + target;
+
+  private static long nodePairKey(int source, int target) {
+    return ((long) source << ID_BITS) | target;
   }
 
   private Class<?> resolveClass(String type) throws CrudException, ClassNotFoundException {
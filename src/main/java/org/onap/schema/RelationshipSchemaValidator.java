@@ -32,6 +32,7 @@ import org.onap.crud.entity.Edge;
 import org.onap.crud.entity.Vertex;
 import org.onap.crud.exception.CrudException;
 import org.onap.crud.service.EdgePayload;
+import org.onap.crud.util.CrudServiceConstants;
 import org.onap.crud.util.CrudServiceUtil;
 import org.onap.schema.OxmModelValidator.Metadata;
 import org.radeox.util.logging.Logger;
@@ -53,19 +54,25 @@ public class RelationshipSchemaValidator {
     }
 
     Map<String, Class<?>> props = schema.lookupRelationType(type);
+    if (props == null) {
+      throw new CrudException("Invalid " + RelationshipSchema.SCHEMA_RELATIONSHIP_TYPE + ": " + type,
+          Status.BAD_REQUEST);
+    }
     Map<String, Object> result = new HashMap<String, Object>();
 
-    for (String key : filter.keySet()) {
+    for (Map.Entry<String, String> entry : filter.entrySet()) {
+      String key = entry.getKey();
+      // The reserved version and type entries are not edge properties
+      if (CrudServiceConstants.CRD_RESERVED_VERSION.equals(key)
+          || CrudServiceConstants.CRD_RESERVED_NODE_TYPE.equals(key)) {
+        continue;
+      }
 
-      if (props.containsKey(key)) {
-        try {
-          Object value = CrudServiceUtil.validateFieldType(filter.get(key), props.get(key));
-          result.put(key, value);
-        } catch (Exception ex) {
-          // Skip any exceptions thrown while validating the filter key value
-          continue;
-        }
+      Class<?> propType = props.get(key);
+      if (propType == null) {
+        throw new CrudException("Invalid filter key: " + key, Status.BAD_REQUEST);
       }
+      result.put(key, CrudServiceUtil.validateFieldType(entry.getValue(), propType));
     }
     return result;
   }
@@ -113,13 +120,12 @@ public class RelationshipSchemaValidator {
       String sourceNodeId = sourceMatcher.group(3);
       String targetNodeId = targetMatcher.group(3);
       
-      String key = sourceNodeType + ":" + targetNodeType + ":" + type;
-
       // find the validate the key from the schema
-      Map<String, Class<?>> schemaObject = schema.lookupRelation(key);
+      Map<String, Class<?>> schemaObject = schema.lookupRelation(sourceNodeType, targetNodeType, type);
 
       if (schemaObject == null) {
-        throw new CrudException("Invalid source/target/relationship type: " + key, Status.BAD_REQUEST);
+        throw new CrudException("Invalid source/target/relationship type: " + sourceNodeType + ":" + targetNodeType
+            + ":" + type, Status.BAD_REQUEST);
       }
 
       Edge.Builder modelEdgeBuilder = new Edge.Builder(type);
@@ -175,15 +181,12 @@ public class RelationshipSchemaValidator {
 	        existingProps.remove(Metadata.UPDATED_TS.propertyName());
 	      }
 
-	      // create key based on source:target:relationshipType
-	      String key = edge.getSource().getType() + ":" + edge.getTarget().getType()
-	          + ":" + edge.getType();
-
-	      // find the validate the key from the schema
-	      Map<String, Class<?>> schemaObject = schema.lookupRelation(key);
+	      // find the validate the source:target:relationshipType key from the schema
+	      Map<String, Class<?>> schemaObject = schema.lookupRelation(edge.getSource().getType(),
+	          edge.getTarget().getType(), edge.getType());
 
 	      if (schemaObject == null) {
-	        Logger.warn("key :" + key
+	        Logger.warn("key :" + relationKey(edge)
 	            + " not found in relationship schema . Skipping the schema validation");
 	        return edge;
 	      }
@@ -247,15 +250,12 @@ public class RelationshipSchemaValidator {
     		}
     	}
 
-      // create key based on source:target:relationshipType
-      String key = edge.getSource().getType() + ":" + edge.getTarget().getType()
-          + ":" + edge.getType();
-
-      // find the validate the key from the schema
-      Map<String, Class<?>> schemaObject = schema.lookupRelation(key);
+      // find the validate the source:target:relationshipType key from the schema
+      Map<String, Class<?>> schemaObject = schema.lookupRelation(edge.getSource().getType(),
+          edge.getTarget().getType(), edge.getType());
 
       if (schemaObject == null) {
-        Logger.warn("key :" + key
+        Logger.warn("key :" + relationKey(edge)
             + " not found in relationship schema . Skipping the schema validation");
         return edge;
       }
@@ -295,9 +295,8 @@ public class RelationshipSchemaValidator {
 
     RelationshipSchema schema = EdgeRulesLoader.getSchemaForVersion(version);
 
-    String key = edge.getSource().getType() + ":" + edge.getTarget().getType()
-        + ":" + edge.getType();
-    Map<String, Class<?>> schemaObject = schema.lookupRelation(key);
+    Map<String, Class<?>> schemaObject = schema.lookupRelation(edge.getSource().getType(),
+        edge.getTarget().getType(), edge.getType());
 
     if (schemaObject == null || schemaObject.isEmpty()) {
       return edge;
@@ -312,6 +311,10 @@ public class RelationshipSchemaValidator {
     return modelEdgeBuilder.build();
   }
   
+  private static String relationKey(Edge edge) {
+    return edge.getSource().getType() + ":" + edge.getTarget().getType() + ":" + edge.getType();
+  }
+
   public static String vertexTypeFromUri(String uri) throws CrudException {
 
 	  Matcher matcher = urlPattern.matcher(uri);
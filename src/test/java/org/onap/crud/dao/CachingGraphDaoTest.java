@@ -0,0 +1,162 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.onap.aai.restclient.client.OperationResult;
+import org.onap.crud.entity.Edge;
+import org.onap.crud.entity.Vertex;
+
+public class CachingGraphDaoTest {
+
+  private GraphDao delegate;
+  private CachingGraphDao cachingDao;
+  private Map<String, String> queryParams = new HashMap<>();
+
+  @Before
+  public void init() {
+    delegate = mock(GraphDao.class);
+    cachingDao = new CachingGraphDao(delegate, 100, 60000);
+  }
+
+  @Test
+  public void testRepeatedVertexReadIsServedFromCache() throws Exception {
+    OperationResult result = new OperationResult();
+    result.setResult(200, "{}");
+    when(delegate.getVertex("id1", "pserver", "v13", queryParams)).thenReturn(result);
+
+    OperationResult first = cachingDao.getVertex("id1", "pserver", "v13", queryParams);
+    OperationResult second = cachingDao.getVertex("id1", "pserver", "v13", queryParams);
+    assertEquals("{}", first.getResult());
+    assertEquals("{}", second.getResult());
+    // Each caller gets its own copy of the cached result
+    assertNotSame(first, second);
+
+    verify(delegate, times(1)).getVertex("id1", "pserver", "v13", queryParams);
+    assertEquals(1, cachingDao.getStats().hitCount());
+    assertEquals(1, cachingDao.getStats().missCount());
+  }
+
+  @Test
+  public void testVertexWriteInvalidatesCachedVertex() throws Exception {
+    when(delegate.getVertex("id1", "pserver", "v13", queryParams)).thenReturn(new OperationResult());
+
+    cachingDao.getVertex("id1", "pserver", "v13", queryParams);
+    cachingDao.updateVertex("id1", "pserver", new HashMap<String, Object>(), "v13");
+    cachingDao.getVertex("id1", "pserver", "v13", queryParams);
+
+    verify(delegate, times(2)).getVertex("id1", "pserver", "v13", queryParams);
+  }
+
+  @Test
+  public void testEdgeDeleteInvalidatesIncidentVertexEdges() throws Exception {
+    Edge edge = new Edge.Builder("tosca.relationships.HostedOn").id("edge1")
+        .source(new Vertex.Builder("vserver").id("id1").build())
+        .target(new Vertex.Builder("pserver").id("id2").build()).build();
+    List<Edge> edges = Collections.singletonList(edge);
+    when(delegate.getVertexEdges("id1", queryParams, null)).thenReturn(edges);
+
+    cachingDao.getVertexEdges("id1", queryParams, null);
+    cachingDao.getVertexEdges("id1", queryParams, null);
+    cachingDao.deleteEdge("edge1");
+    cachingDao.getVertexEdges("id1", queryParams, null);
+
+    verify(delegate, times(2)).getVertexEdges("id1", queryParams, null);
+  }
+
+  @Test
+  public void testVertexDeleteInvalidatesNeighbourVertexEdges() throws Exception {
+    Edge edge = new Edge.Builder("tosca.relationships.HostedOn").id("edge1")
+        .source(new Vertex.Builder("vserver").id("id1").build())
+        .target(new Vertex.Builder("pserver").id("id2").build()).build();
+    when(delegate.getVertexEdges("id2", queryParams, null)).thenReturn(Collections.singletonList(edge));
+    when(delegate.getVertexEdges("id3", queryParams, null)).thenReturn(Collections.<Edge>emptyList());
+
+    cachingDao.getVertexEdges("id2", queryParams, null);
+    cachingDao.getVertexEdges("id3", queryParams, null);
+    cachingDao.deleteVertex("id1", "vserver");
+    cachingDao.getVertexEdges("id2", queryParams, null);
+    cachingDao.getVertexEdges("id3", queryParams, null);
+
+    verify(delegate, times(2)).getVertexEdges("id2", queryParams, null);
+    verify(delegate, times(1)).getVertexEdges("id3", queryParams, null);
+  }
+
+  @Test
+  public void testTransactionalReadsBypassCache() throws Exception {
+    cachingDao.getVertexEdges("id1", queryParams, "tx1");
+    cachingDao.getVertexEdges("id1", queryParams, "tx1");
+
+    verify(delegate, times(2)).getVertexEdges("id1", queryParams, "tx1");
+    assertEquals(0, cachingDao.getSize());
+  }
+
+  @Test
+  public void testEdgeDeleteOnlyInvalidatesListsContainingTheEdge() throws Exception {
+    Edge edge = new Edge.Builder("tosca.relationships.HostedOn").id("edge1")
+        .source(new Vertex.Builder("vserver").id("id1").build())
+        .target(new Vertex.Builder("pserver").id("id2").build()).build();
+    when(delegate.getVertexEdges("id1", queryParams, null)).thenReturn(Collections.singletonList(edge));
+    when(delegate.getVertexEdges("id3", queryParams, null)).thenReturn(Collections.<Edge>emptyList());
+
+    cachingDao.getVertexEdges("id1", queryParams, null);
+    cachingDao.getVertexEdges("id3", queryParams, null);
+    cachingDao.invalidateEdge("edge1");
+    List<Edge> edges = cachingDao.getVertexEdges("id1", queryParams, null);
+    cachingDao.getVertexEdges("id3", queryParams, null);
+
+    assertEquals("edge1", edges.get(0).getId().get());
+    assertEquals("id2", edges.get(0).getTarget().getId().get());
+    verify(delegate, times(2)).getVertexEdges("id1", queryParams, null);
+    verify(delegate, times(1)).getVertexEdges("id3", queryParams, null);
+  }
+
+  @Test
+  public void testReadRacingWithInvalidationIsNotCached() throws Exception {
+    OperationResult stale = new OperationResult();
+    stale.setResult(200, "{\"hostname\":\"old\"}");
+    OperationResult fresh = new OperationResult();
+    fresh.setResult(200, "{\"hostname\":\"new\"}");
+    // The vertex is written, and invalidated, while the first read is in flight
+    when(delegate.getVertex("id1", "pserver", "v13", queryParams)).thenAnswer(invocation -> {
+      cachingDao.invalidateVertex("id1");
+      return stale;
+    }).thenReturn(fresh);
+
+    assertEquals(stale.getResult(), cachingDao.getVertex("id1", "pserver", "v13", queryParams).getResult());
+    assertEquals(fresh.getResult(), cachingDao.getVertex("id1", "pserver", "v13", queryParams).getResult());
+    assertEquals(fresh.getResult(), cachingDao.getVertex("id1", "pserver", "v13", queryParams).getResult());
+
+    verify(delegate, times(2)).getVertex("id1", "pserver", "v13", queryParams);
+  }
+}
@@ -0,0 +1,253 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.dao.champ;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.ws.rs.core.MediaType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.mockito.stubbing.OngoingStubbing;
+import org.onap.aai.restclient.client.OperationResult;
+import org.onap.aai.restclient.client.RestClient;
+import org.onap.crud.OXMModelLoaderSetup;
+import org.onap.crud.dao.GraphReadExecutor;
+import org.onap.crud.entity.Edge;
+import org.onap.crud.entity.Vertex;
+import org.onap.crud.exception.CrudException;
+import com.google.common.cache.CacheBuilder;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ChampDaoAddEdgeTest extends OXMModelLoaderSetup {
+
+  private static final String OBJECT_URL = "https://champ/objects";
+  private static final String RELATIONSHIP_URL = "https://champ/relationships";
+  private static final String TRANSACTION_URL = "https://champ/transaction";
+  private static final String BULK_URL = "https://champ/bulk";
+
+  private static final String SOURCE_ID = "50bdab41-ad1c-4d00-952c-a0aa5d827811";
+  private static final String TARGET_ID = "1d326bc7-b985-492b-9604-0d5d1f06f908";
+
+  // @formatter:off
+  private final String champEdge = "{" +
+      "\"key\": \"test-uuid\"," +
+      "\"type\": \"tosca.relationships.HostedOn\"," +
+      "\"properties\": {}," +
+      "\"source\": {" +
+      "\"key\": \"" + SOURCE_ID + "\", \"type\": \"vserver\"}," +
+      "\"target\": {" +
+      "\"key\": \"" + TARGET_ID + "\", \"type\": \"pserver\"}" +
+      " }";
+  // @formatter:on
+
+  private final Vertex source = new Vertex.Builder("vserver").id(SOURCE_ID).build();
+  private final Vertex target = new Vertex.Builder("pserver").id(TARGET_ID).build();
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private RestClient restClient;
+  private ChampDao champDao;
+
+  @Before
+  public void init() throws Exception {
+    System.setProperty("CONFIG_HOME", "src/test/resources");
+
+    restClient = mock(RestClient.class);
+    champDao = new ChampDao(restClient, OBJECT_URL, RELATIONSHIP_URL, TRANSACTION_URL);
+    champDao.baseBulkUrl = BULK_URL;
+    champDao.endpointReadExecutor = new GraphReadExecutor("test", 2, 5000);
+
+    when(restClient.post(eq(RELATIONSHIP_URL), anyString(), anyMap(), any(), any()))
+        .thenReturn(result(201, champEdge));
+    when(restClient.post(eq(RELATIONSHIP_URL + "?transactionId=tx1"), anyString(), anyMap(), any(), any()))
+        .thenReturn(result(201, champEdge));
+    when(restClient.post(eq(BULK_URL), anyString(), anyMap(), any(), any())).thenReturn(result(200, "{}"));
+    when(restClient.delete(eq(OBJECT_URL + "/" + SOURCE_ID), anyMap(), any())).thenReturn(result(200, ""));
+  }
+
+  @After
+  public void releaseReads() {
+    release.countDown();
+  }
+
+  @Test
+  public void testTargetIsReadWhileSourceIsRead() throws Exception {
+    CountDownLatch targetRead = new CountDownLatch(1);
+    whenGet(OBJECT_URL + "/" + TARGET_ID).thenAnswer(invocation -> {
+      targetRead.countDown();
+      return vertex(TARGET_ID, "pserver");
+    });
+    whenGet(OBJECT_URL + "/" + SOURCE_ID).thenAnswer(invocation -> {
+      assertTrue("target not read concurrently", targetRead.await(5, TimeUnit.SECONDS));
+      return vertex(SOURCE_ID, "vserver");
+    });
+
+    OperationResult result = champDao.addEdge("tosca.relationships.HostedOn", source, target,
+        Collections.emptyMap(), "v11");
+
+    assertEquals(201, result.getResultCode());
+  }
+
+  @Test
+  public void testTargetReadIsAbandonedWhenSourceReadFails() throws Exception {
+    AtomicBoolean targetStarted = new AtomicBoolean();
+    whenGet(OBJECT_URL + "/" + TARGET_ID).thenAnswer(invocation -> {
+      targetStarted.set(true);
+      release.await(10, TimeUnit.SECONDS);
+      return vertex(TARGET_ID, "pserver");
+    });
+    whenGet(OBJECT_URL + "/" + SOURCE_ID).thenReturn(result(404, null));
+
+    long start = System.currentTimeMillis();
+    try {
+      champDao.addEdge("tosca.relationships.HostedOn", source, target, Collections.emptyMap(), "v11");
+      fail("Expected a CrudException");
+    } catch (CrudException e) {
+      assertEquals(404, e.getHttpStatus().getStatusCode());
+    }
+
+    // The failure is reported without waiting for the target read
+    assertTrue(System.currentTimeMillis() - start < 5000);
+    verify(restClient, never()).post(eq(RELATIONSHIP_URL), anyString(), anyMap(), any(), any());
+  }
+
+  @Test
+  public void testTransactionReadsAreSequential() throws Exception {
+    Thread caller = Thread.currentThread();
+    AtomicBoolean sourceRead = new AtomicBoolean();
+    whenGet(OBJECT_URL + "/" + SOURCE_ID + "?transactionId=tx1").thenAnswer(invocation -> {
+      sourceRead.set(true);
+      return vertex(SOURCE_ID, "vserver");
+    });
+    whenGet(OBJECT_URL + "/" + TARGET_ID + "?transactionId=tx1").thenAnswer(invocation -> {
+      assertTrue("target read before source", sourceRead.get());
+      assertSame(caller, Thread.currentThread());
+      return vertex(TARGET_ID, "pserver");
+    });
+
+    Edge edge = champDao.addEdge("tosca.relationships.HostedOn", source, target, Collections.emptyMap(), "v11",
+        "tx1");
+
+    assertEquals("test-uuid", edge.getId().get());
+  }
+
+  @Test
+  public void testKnownEndpointsAreNotReadAgain() throws Exception {
+    enableKnownVertexCache();
+    whenGet(OBJECT_URL + "/" + SOURCE_ID).thenReturn(vertex(SOURCE_ID, "vserver"));
+    whenGet(OBJECT_URL + "/" + TARGET_ID).thenReturn(vertex(TARGET_ID, "pserver"));
+
+    champDao.addEdge("tosca.relationships.HostedOn", source, target, Collections.emptyMap(), "v11");
+    champDao.addEdge("tosca.relationships.HostedOn", source, target, Collections.emptyMap(), "v11");
+
+    verifyGet(OBJECT_URL + "/" + SOURCE_ID, 1);
+    verifyGet(OBJECT_URL + "/" + TARGET_ID, 1);
+    verify(restClient, times(2)).post(eq(RELATIONSHIP_URL), anyString(), anyMap(), any(), any());
+  }
+
+  @Test
+  public void testKnownEndpointIsForgottenWhenDeleted() throws Exception {
+    enableKnownVertexCache();
+    whenGet(OBJECT_URL + "/" + SOURCE_ID).thenReturn(vertex(SOURCE_ID, "vserver"));
+    whenGet(OBJECT_URL + "/" + TARGET_ID).thenReturn(vertex(TARGET_ID, "pserver"));
+
+    champDao.addEdge("tosca.relationships.HostedOn", source, target, Collections.emptyMap(), "v11");
+    champDao.deleteVertex(SOURCE_ID, "vserver");
+    champDao.addEdge("tosca.relationships.HostedOn", source, target, Collections.emptyMap(), "v11");
+
+    verifyGet(OBJECT_URL + "/" + SOURCE_ID, 2);
+    verifyGet(OBJECT_URL + "/" + TARGET_ID, 1);
+  }
+
+  @Test
+  public void testKnownEndpointsAreForgottenOnBulkRequest() throws Exception {
+    enableKnownVertexCache();
+    whenGet(OBJECT_URL + "/" + SOURCE_ID).thenReturn(vertex(SOURCE_ID, "vserver"));
+    whenGet(OBJECT_URL + "/" + TARGET_ID).thenReturn(vertex(TARGET_ID, "pserver"));
+
+    champDao.addEdge("tosca.relationships.HostedOn", source, target, Collections.emptyMap(), "v11");
+    champDao.bulkOperation(new ChampBulkPayload());
+    champDao.addEdge("tosca.relationships.HostedOn", source, target, Collections.emptyMap(), "v11");
+
+    verifyGet(OBJECT_URL + "/" + SOURCE_ID, 2);
+    verifyGet(OBJECT_URL + "/" + TARGET_ID, 2);
+  }
+
+  @Test
+  public void testEndpointWithOtherTypeIsReadAgain() throws Exception {
+    enableKnownVertexCache();
+    whenGet(OBJECT_URL + "/" + SOURCE_ID).thenReturn(vertex(SOURCE_ID, "vserver"));
+    whenGet(OBJECT_URL + "/" + TARGET_ID).thenReturn(vertex(TARGET_ID, "pserver"));
+
+    champDao.addEdge("tosca.relationships.HostedOn", source, target, Collections.emptyMap(), "v11");
+    try {
+      champDao.addEdge("tosca.relationships.HostedOn", new Vertex.Builder("pserver").id(SOURCE_ID).build(), target,
+          Collections.emptyMap(), "v11");
+      fail("Expected a CrudException");
+    } catch (CrudException e) {
+      assertEquals(404, e.getHttpStatus().getStatusCode());
+    }
+
+    verifyGet(OBJECT_URL + "/" + SOURCE_ID, 2);
+  }
+
+  private void enableKnownVertexCache() {
+    champDao.knownVertexTypes = CacheBuilder.newBuilder().build();
+  }
+
+  private OngoingStubbing<OperationResult> whenGet(String url) {
+    return when(restClient.get(eq(url), anyMap(), any(MediaType.class)));
+  }
+
+  private void verifyGet(String url, int count) {
+    verify(restClient, times(count)).get(eq(url), anyMap(), any(MediaType.class));
+  }
+
+  private static OperationResult vertex(String id, String type) {
+    return result(200, "{\"key\": \"" + id + "\", \"type\": \"" + type + "\", \"properties\": {}}");
+  }
+
+  private static OperationResult result(int resultCode, String payload) {
+    OperationResult result = new OperationResult();
+    result.setResultCode(resultCode);
+    result.setResult(payload);
+    return result;
+  }
+}
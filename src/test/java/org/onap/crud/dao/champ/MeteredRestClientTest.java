@@ -0,0 +1,125 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.dao.champ;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.onap.aai.restclient.client.OperationResult;
+import org.springframework.boot.actuate.metrics.Metric;
+
+public class MeteredRestClientTest {
+
+  @Test
+  public void testRequestsAreNotLimitedByDefault() throws Exception {
+    MeteredRestClient client = new MeteredRestClient("test", MeteredRestClient.DEFAULT_MAX_CONCURRENT_REQUESTS, 10);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<OperationResult> pending =
+        CompletableFuture.supplyAsync(() -> client.execute("https://champ/objects/1", () -> {
+          started.countDown();
+          await(release);
+          return result(200);
+        }));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    assertEquals(200, client.execute("https://champ/objects/2", () -> result(200)).getResultCode());
+    assertEquals(1, client.getActiveRequests());
+
+    release.countDown();
+    assertEquals(200, pending.get(5, TimeUnit.SECONDS).getResultCode());
+
+    Map<String, Number> metrics = metrics(client);
+    assertEquals(0, metrics.get("gizmo.test.client.max").intValue());
+    assertEquals(2L, metrics.get("gizmo.test.client.requests"));
+    assertEquals(0L, metrics.get("gizmo.test.client.rejections"));
+    assertEquals(0L, metrics.get("gizmo.test.client.active"));
+  }
+
+  @Test
+  public void testRequestIsRejectedWhenTheLimitIsReached() throws Exception {
+    MeteredRestClient client = new MeteredRestClient("test", 1, 10);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<OperationResult> pending =
+        CompletableFuture.supplyAsync(() -> client.execute("https://champ/objects/1", () -> {
+          started.countDown();
+          await(release);
+          return result(200);
+        }));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    OperationResult result = client.execute("https://champ/objects/2", () -> result(200));
+
+    assertEquals(503, result.getResultCode());
+    assertTrue(result.getFailureCause().contains("https://champ/objects/2"));
+    assertEquals(1, client.getRejections());
+    assertEquals(1, client.getActiveRequests());
+    assertEquals(0, client.getWaiting());
+
+    release.countDown();
+    assertEquals(200, pending.get(5, TimeUnit.SECONDS).getResultCode());
+
+    Map<String, Number> metrics = metrics(client);
+    assertEquals(2L, metrics.get("gizmo.test.client.requests"));
+    assertEquals(1L, metrics.get("gizmo.test.client.rejections"));
+    assertEquals(0L, metrics.get("gizmo.test.client.active"));
+    assertTrue(metrics.get("gizmo.test.client.wait.time.max").longValue() >= 10);
+  }
+
+  @Test
+  public void testClientDoesNotChangeKeepAliveCacheSize() {
+    String keepAlive = System.getProperty("http.maxConnections");
+
+    new MeteredRestClient("test", 50, 10);
+
+    assertEquals(keepAlive, System.getProperty("http.maxConnections"));
+  }
+
+  private static OperationResult result(int resultCode) {
+    OperationResult result = new OperationResult();
+    result.setResultCode(resultCode);
+    return result;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Map<String, Number> metrics(MeteredRestClient client) {
+    Map<String, Number> metrics = new HashMap<>();
+    for (Metric<?> metric : client.metrics()) {
+      metrics.put(metric.getName(), metric.getValue());
+    }
+    return metrics;
+  }
+}
@@ -0,0 +1,101 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.onap.crud.OXMModelLoaderSetup;
+import org.onap.crud.entity.Edge;
+import org.onap.crud.entity.Vertex;
+import org.onap.crud.exception.CrudException;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class CrudResponseBuilderTest extends OXMModelLoaderSetup {
+  // @formatter:off
+  private final String champVertices = "[ {" +
+      "\"key\": \"uuid-1\"," +
+      "\"type\": \"pserver\"," +
+      "\"properties\": {" +
+      "\"fqdn\": \"myhost.onap.com\"," +
+      "\"hostname\": \"myhost\" } }, {" +
+      "\"key\": \"uuid-2\"," +
+      "\"type\": \"pserver\"," +
+      "\"properties\": {" +
+      "\"hostname\": \"otherhost\" } } ]";
+
+  private final String champEdge = "{" +
+      "\"key\": \"test-uuid\"," +
+      "\"type\": \"tosca.relationships.HostedOn\"," +
+      "\"properties\": {" +
+      "\"prevent-delete\": \"NONE\" }," +
+      "\"source\": {" +
+      "\"key\": \"50bdab41-ad1c-4d00-952c-a0aa5d827811\", \"type\": \"vserver\"}," +
+      "\"target\": {" +
+      "\"key\": \"1d326bc7-b985-492b-9604-0d5d1f06f908\", \"type\": \"pserver\"}" +
+      " }";
+
+  private final String champEdges = "[ " + champEdge + " ]";
+  // @formatter:on
+
+  @Before
+  public void init() throws Exception {
+    System.setProperty("CONFIG_HOME", "src/test/resources");
+  }
+
+  @Test
+  public void streamedVerticesMatchDecodedVertices() throws CrudException {
+    List<Vertex> vertices = Vertex.collectionFromJson(champVertices, "v11");
+
+    assertEquals(CrudResponseBuilder.buildGetVerticesResponse(vertices, "v11"),
+        CrudResponseBuilder.buildGetVerticesResponse(new StringReader(champVertices), "v11"));
+  }
+
+  @Test
+  public void streamedEdgesMatchDecodedEdges() throws CrudException {
+    List<Edge> edges = Collections.singletonList(Edge.fromJson(champEdge));
+
+    assertEquals(CrudResponseBuilder.buildGetEdgesResponse(edges, "v11"),
+        CrudResponseBuilder.buildGetEdgesResponse(new StringReader(champEdges), "v11"));
+  }
+
+  @Test
+  public void emptyCollectionStreamsToEmptyArray() throws CrudException {
+    assertEquals("[]", CrudResponseBuilder.buildGetVerticesResponse(new StringReader("[]"), "v11"));
+    assertEquals("[]", CrudResponseBuilder.buildGetEdgesResponse(new StringReader(" [ ] "), "v11"));
+  }
+
+  @Test
+  public void truncatedResponseIsRejected() {
+    try {
+      CrudResponseBuilder.buildGetEdgesResponse(new StringReader(champEdges.substring(0, 40)), "v11");
+      fail("Expected a CrudException");
+    } catch (CrudException e) {
+      assertEquals(500, e.getHttpStatus().getStatusCode());
+    }
+  }
+}
@@ -275,6 +275,7 @@ public class ChampDaoMockTest {
         mockGetVertexEdges("1d326bc7-b985-492b-9604-0d5d1f06f908", emptyQueryParams, null, "tosca.relationships.HostedOn");
         mockGetVertexEdges("50bdab41-ad1c-4d00-952c-a0aa5d827811", emptyQueryParams, "?transactionId=", "tosca.relationships.HostedOn");
         mockGetVertexEdges("1d326bc7-b985-492b-9604-0d5d1f06f908", emptyQueryParams, "?transactionId=", "tosca.relationships.HostedOn");
+        mockGetVertexWithoutEdges("test-uuid");
         mockGetEdges("?", "tosca.relationships.HostedOn");
         mockGetEdge("50bdab41-ad1c-4d00-952c-a0aa5d827811", "?transactionId=", "tosca.relationships.HostedOn");
         mockGetEdge("872dd5df-0be9-4167-95e9-2cf4b21165ed", emptyQueryParams, "tosca.relationships.HostedOn");
@@ -366,6 +367,9 @@ public class ChampDaoMockTest {
         OperationResult operationResult = new OperationResult();
         operationResult.setResult(vertexResponse);
         operationResult.setResultCode(200);
+        MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.add("etag", "test123");
+        operationResult.setHeaders(headers);
 
         StringBuilder url = appendQueryParams(BASE_OBJECT_URL + "/" + id, queryParams);
 
@@ -394,6 +398,15 @@ public class ChampDaoMockTest {
                 .thenReturn(operationResult);
     }
 
+    public void mockGetVertexWithoutEdges(String id) {
+        OperationResult operationResult = new OperationResult();
+        operationResult.setResult("[]");
+        operationResult.setResultCode(200);
+
+        when(restClientMock.get(BASE_OBJECT_URL + "/" + RELATIONSHIP_SUB_URL + "/" + id, createHeaders(),
+                MediaType.APPLICATION_JSON_TYPE)).thenReturn(operationResult);
+    }
+
     public void mockGetVertices(Map<String, String> queryParams, String type) {
         String vertexResponse = champVertex.replace("vertexType", type);
         OperationResult operationResult = new OperationResult();
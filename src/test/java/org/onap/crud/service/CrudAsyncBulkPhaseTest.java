@@ -0,0 +1,160 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.core.Response.Status;
+import org.junit.After;
+import org.junit.Test;
+import org.onap.crud.exception.CrudException;
+
+public class CrudAsyncBulkPhaseTest {
+
+    private final ExecutorService submitter = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        submitter.shutdownNow();
+    }
+
+    @Test
+    public void shouldKeepWindowOfOperationsInFlight() throws Exception {
+        CrudAsyncBulkPhase phase = new CrudAsyncBulkPhase(3);
+        AtomicInteger published = new AtomicInteger();
+        List<CompletableFuture<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            responses.add(new CompletableFuture<>());
+        }
+
+        Future<?> submissions = submitter.submit(() -> {
+            for (CompletableFuture<String> response : responses) {
+                phase.submit(null, () -> {
+                    published.incrementAndGet();
+                    return response;
+                });
+            }
+            return null;
+        });
+
+        // Three operations are published without waiting for a response, the fourth waits for a free slot
+        waitFor(published, 3);
+        Thread.sleep(50);
+        assertEquals(3, published.get());
+
+        responses.get(0).complete("v1");
+        submissions.get(5, TimeUnit.SECONDS);
+        assertEquals(4, published.get());
+
+        responses.forEach(response -> response.complete("done"));
+        phase.drain();
+        phase.rethrowFailure();
+    }
+
+    @Test
+    public void shouldApplyOperationsOnTheSameEntityInOrder() throws Exception {
+        CrudAsyncBulkPhase phase = new CrudAsyncBulkPhase(8);
+        CompletableFuture<String> firstResponse = new CompletableFuture<>();
+        List<String> published = Collections.synchronizedList(new ArrayList<>());
+
+        phase.submit("vertex-1", () -> {
+            published.add("first");
+            return firstResponse;
+        });
+        CountDownLatch otherEntityPublished = new CountDownLatch(1);
+        Future<?> second = submitter.submit(() -> {
+            phase.submit("vertex-2", () -> {
+                otherEntityPublished.countDown();
+                return CompletableFuture.completedFuture("other");
+            });
+            phase.submit("vertex-1", () -> {
+                published.add("second");
+                return CompletableFuture.completedFuture("second");
+            });
+            return null;
+        });
+
+        assertTrue(otherEntityPublished.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertFalse(second.isDone());
+        assertEquals(1, published.size());
+
+        firstResponse.complete("first");
+        second.get(5, TimeUnit.SECONDS);
+        phase.drain();
+        assertEquals("[first, second]", published.toString());
+    }
+
+    @Test
+    public void shouldStopSubmittingAfterAFailure() throws Exception {
+        CrudAsyncBulkPhase phase = new CrudAsyncBulkPhase(4);
+        CompletableFuture<String> inFlight = new CompletableFuture<>();
+        CompletableFuture<String> failed = new CompletableFuture<>();
+
+        phase.submit("vertex-1", () -> inFlight);
+        phase.submit("vertex-2", () -> failed);
+        failed.completeExceptionally(new CrudException("Vertex not found", Status.NOT_FOUND));
+
+        AtomicInteger published = new AtomicInteger();
+        try {
+            phase.submit("vertex-3", () -> {
+                published.incrementAndGet();
+                return CompletableFuture.completedFuture("never");
+            });
+            fail("Expected the phase to reject further operations");
+        } catch (CrudException e) {
+            assertEquals(Status.NOT_FOUND, e.getHttpStatus());
+        }
+        assertEquals(0, published.get());
+
+        // Operations already in flight are still waited for before the failure is reported
+        submitter.submit(() -> inFlight.complete("done"));
+        phase.drain();
+        assertTrue(inFlight.isDone());
+        try {
+            phase.rethrowFailure();
+            fail("Expected the phase failure to be rethrown");
+        } catch (CrudException e) {
+            assertEquals(Status.NOT_FOUND, e.getHttpStatus());
+        }
+    }
+
+    private static void waitFor(AtomicInteger counter, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (counter.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, counter.get());
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2018 Nokia
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.core.Response.Status;
+import org.junit.Test;
+import org.onap.crud.event.GraphEvent;
+import org.onap.crud.event.envelope.GraphEventEnvelope;
+import org.onap.crud.exception.CrudException;
+
+public class CrudAsyncGraphEventCacheTest {
+
+    private static final GraphEventEnvelope RESPONSE =
+            new GraphEventEnvelope(GraphEvent.builder(GraphEvent.GraphEventOperation.CREATE).build());
+
+    @Test
+    public void shouldCompletePendingRequestWithResponse() throws Exception {
+        CrudAsyncGraphEventCache cache = new CrudAsyncGraphEventCache(60000, 10);
+        CompletableFuture<GraphEventEnvelope> future = new CompletableFuture<>();
+        cache.put("tx1", future);
+        assertEquals(1, cache.getPendingCount());
+
+        assertTrue(cache.complete("tx1", RESPONSE));
+        assertFalse(cache.complete("tx1", RESPONSE));
+
+        assertEquals(RESPONSE, future.get());
+        assertEquals(0, cache.getPendingCount());
+        assertEquals(1, cache.getResponseHits());
+        assertEquals(1, cache.getResponseMisses());
+    }
+
+    @Test
+    public void shouldRejectRequestsWhenFull() throws Exception {
+        CrudAsyncGraphEventCache cache = new CrudAsyncGraphEventCache(60000, 1);
+        cache.put("tx1", new CompletableFuture<>());
+        try {
+            cache.put("tx2", new CompletableFuture<>());
+            fail("Expected the registry to reject the request");
+        } catch (CrudException e) {
+            assertEquals(Status.SERVICE_UNAVAILABLE, e.getHttpStatus());
+        }
+        assertEquals(1, cache.getRejections());
+        assertEquals(1, cache.getPendingCount());
+    }
+
+    @Test
+    public void shouldFailWaitingCallerWhenEvicted() throws Exception {
+        CrudAsyncGraphEventCache cache = new CrudAsyncGraphEventCache(1, 1);
+        CompletableFuture<GraphEventEnvelope> future = new CompletableFuture<>();
+        cache.put("tx1", future);
+
+        Thread.sleep(10);
+        cache.put("tx2", new CompletableFuture<>());
+
+        try {
+            future.get();
+            fail("Expected the evicted request to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CrudException);
+        }
+        assertEquals(1, cache.getEvictions());
+        assertEquals(1, cache.getPendingCount());
+    }
+
+    @Test
+    public void shouldNotExceedCapacityUnderConcurrentPuts() throws Exception {
+        CrudAsyncGraphEventCache cache = new CrudAsyncGraphEventCache(60000, 50);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Future<?>> puts = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            String txId = "tx" + i;
+            puts.add(executor.submit(() -> {
+                start.await();
+                try {
+                    cache.put(txId, new CompletableFuture<>());
+                    accepted.incrementAndGet();
+                } catch (CrudException e) {
+                    // Rejected, the registry is full
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> put : puts) {
+            put.get();
+        }
+        executor.shutdown();
+
+        assertEquals(50, accepted.get());
+        assertEquals(50, cache.getPendingCount());
+        assertEquals(350, cache.getRejections());
+    }
+}
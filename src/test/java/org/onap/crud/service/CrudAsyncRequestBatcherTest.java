@@ -0,0 +1,163 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2018 Nokia
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.onap.aai.event.api.EventPublisher;
+import org.onap.crud.exception.CrudException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CrudAsyncRequestBatcherTest {
+
+    @Mock
+    private EventPublisher eventPublisher;
+
+    private CrudAsyncRequestBatcher batcher;
+
+    @After
+    public void tearDown() {
+        if (batcher != null) {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    public void shouldPublishConcurrentRequestsInOneBatch() throws Exception {
+        // given
+        when(eventPublisher.sendSync(anyCollectionOf(String.class))).thenReturn(3);
+        batcher = new CrudAsyncRequestBatcher(eventPublisher, 3, 10000);
+        batcher.start();
+
+        // when
+        CompletableFuture<Void> first = batcher.publish("event_json1");
+        CompletableFuture<Void> second = batcher.publish("event_json2");
+        CompletableFuture<Void> third = batcher.publish("event_json3");
+        CompletableFuture.allOf(first, second, third).get(5, TimeUnit.SECONDS);
+
+        // then
+        verify(eventPublisher, times(1)).sendSync(anyCollectionOf(String.class));
+        verify(eventPublisher, never()).sendSync(anyString());
+        assertEquals(1, batcher.getBatchesPublished());
+        assertEquals(3, batcher.getMessagesPublished());
+    }
+
+    @Test
+    public void shouldFailEveryRequestOfAFailedBatch() throws Exception {
+        // given
+        when(eventPublisher.sendSync(anyCollectionOf(String.class))).thenThrow(new RuntimeException("broker down"));
+        batcher = new CrudAsyncRequestBatcher(eventPublisher, 2, 10000);
+        batcher.start();
+
+        // when
+        CompletableFuture<Void> first = batcher.publish("event_json1");
+        CompletableFuture<Void> second = batcher.publish("event_json2");
+
+        // then
+        for (CompletableFuture<Void> future : Arrays.asList(first, second)) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Expected the request to fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause().getMessage().contains("broker down"));
+            }
+        }
+        assertEquals(0, batcher.getMessagesPublished());
+        assertEquals(2, batcher.getMessagesFailed());
+    }
+
+    @Test
+    public void shouldPublishAfterLingerWhenBatchIsNotFull() throws Exception {
+        // given
+        batcher = new CrudAsyncRequestBatcher(eventPublisher, 10, 10);
+        batcher.start();
+
+        // when
+        batcher.publish("event_json1").get(5, TimeUnit.SECONDS);
+
+        // then
+        verify(eventPublisher, times(1)).sendSync("event_json1");
+        assertEquals(1, batcher.getMessagesPublished());
+    }
+
+    @Test
+    public void shouldFailEveryRequestOfAShortBatch() throws Exception {
+        // given
+        when(eventPublisher.sendSync(anyCollectionOf(String.class))).thenReturn(1);
+        batcher = new CrudAsyncRequestBatcher(eventPublisher, 2, 10000);
+        batcher.start();
+
+        // when
+        CompletableFuture<Void> first = batcher.publish("event_json1");
+        CompletableFuture<Void> second = batcher.publish("event_json2");
+
+        // then the requests fail with the publish error rather than waiting for their timeout
+        for (CompletableFuture<Void> future : Arrays.asList(first, second)) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Expected the request to fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause().getMessage().contains("Published only 1 of a batch of 2 requests"));
+            }
+        }
+        assertEquals(0, batcher.getBatchesPublished());
+        assertEquals(0, batcher.getMessagesPublished());
+        assertEquals(2, batcher.getMessagesFailed());
+    }
+
+    @Test
+    public void shouldFailRequestsPublishedAfterStop() throws Exception {
+        // given
+        batcher = new CrudAsyncRequestBatcher(eventPublisher, 2, 10000);
+        batcher.start();
+        CompletableFuture<Void> queued = batcher.publish("event_json1");
+
+        // when
+        batcher.stop();
+        CompletableFuture<Void> late = batcher.publish("event_json2");
+
+        // then a request taken by the publisher thread is still sent or failed, and a later one is failed
+        queued.handle((published, error) -> null).get(5, TimeUnit.SECONDS);
+        try {
+            late.get(5, TimeUnit.SECONDS);
+            fail("Expected the request to fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CrudException);
+        }
+    }
+}
@@ -21,15 +21,21 @@
 package org.onap.crud.service;
 
 import static junit.framework.TestCase.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doThrow;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import javax.naming.OperationNotSupportedException;
 import org.junit.Before;
 import org.junit.Test;
@@ -37,6 +43,9 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.onap.aai.event.api.EventConsumer;
+import org.onap.crud.event.GraphEvent;
+import org.onap.crud.event.envelope.GraphEventEnvelope;
+import org.springframework.boot.actuate.metrics.Metric;
 
 
 @RunWith(MockitoJUnitRunner.class)
@@ -62,7 +71,7 @@ public class CrudAsyncResponseConsumerTest {
         when(eventConsumer.consume()).thenReturn(new ArrayList<>());
 
         // when
-        crudAsyncResponseConsumer.run();
+        crudAsyncResponseConsumer.processNextBatch();
 
         // then
         verify(graphEventUpdater, never()).update(anyString());
@@ -75,7 +84,7 @@ public class CrudAsyncResponseConsumerTest {
         when(eventConsumer.consume()).thenReturn(null);
 
         // when
-        crudAsyncResponseConsumer.run();
+        crudAsyncResponseConsumer.processNextBatch();
 
         // then
         verify(graphEventUpdater, never()).update(anyString());
@@ -88,7 +97,7 @@ public class CrudAsyncResponseConsumerTest {
         when(eventConsumer.consume()).thenReturn(EVENTS);
 
         // when
-        crudAsyncResponseConsumer.run();
+        crudAsyncResponseConsumer.processNextBatch();
 
         // then
         verify(graphEventUpdater, times(2)).update(anyString());
@@ -103,13 +112,71 @@ public class CrudAsyncResponseConsumerTest {
 
         // when
         try {
-            crudAsyncResponseConsumer.run();
+            crudAsyncResponseConsumer.processNextBatch();
         } catch (Exception e) {
-            fail("Any error reported by run method is wrong!");
+            fail("Any error reported by processNextBatch method is wrong!");
         }
 
         // then
         verify(graphEventUpdater, times(2)).update(anyString());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldConsumeContinuouslyUntilStopped() throws Exception {
+        // given
+        when(eventConsumer.consume()).thenReturn(EVENTS).thenReturn(new ArrayList<>());
+        crudAsyncResponseConsumer = new CrudAsyncResponseConsumer(eventConsumer, graphEventUpdater, 10);
+
+        // when
+        crudAsyncResponseConsumer.start();
+
+        // then
+        verify(eventConsumer, timeout(1000).atLeast(3)).consume();
+        crudAsyncResponseConsumer.stop();
+        verify(graphEventUpdater, times(2)).update(anyString());
+        verify(eventConsumer, atLeastOnce()).commitOffsets();
+        assertEquals(2, crudAsyncResponseConsumer.getEventsProcessed());
+        assertEquals(1, crudAsyncResponseConsumer.getBatchesProcessed());
+    }
+
+    @Test
+    public void shouldDispatchEventsInParallelBeforeCommittingOffsets() throws Exception {
+        // given
+        when(eventConsumer.consume()).thenReturn(Lists.newArrayList("event_json1", "event_json2", "event_json3"));
+        when(graphEventUpdater.parse(anyString())).thenReturn(
+                new GraphEventEnvelope(GraphEvent.builder(GraphEvent.GraphEventOperation.CREATE).build()));
+        crudAsyncResponseConsumer = new CrudAsyncResponseConsumer(eventConsumer, graphEventUpdater, 10, 4);
+
+        // when
+        crudAsyncResponseConsumer.processNextBatch();
+        crudAsyncResponseConsumer.stop();
+
+        // then
+        verify(graphEventUpdater, times(3)).parse(anyString());
+        verify(graphEventUpdater, times(3)).dispatch(any(GraphEventEnvelope.class));
+        verify(graphEventUpdater, never()).update(anyString());
+        verify(eventConsumer, times(1)).commitOffsets();
+        assertEquals(3, crudAsyncResponseConsumer.getEventsProcessed());
+    }
+
+    @Test
+    public void shouldExportMetrics() throws Exception {
+        // given
+        when(eventConsumer.consume()).thenReturn(EVENTS);
+        crudAsyncResponseConsumer = new CrudAsyncResponseConsumer(eventConsumer, graphEventUpdater, 10);
+
+        // when
+        crudAsyncResponseConsumer.processNextBatch();
+
+        // then
+        Map<String, Number> metrics = new HashMap<>();
+        for (Metric<?> metric : crudAsyncResponseConsumer.metrics()) {
+            metrics.put(metric.getName(), metric.getValue());
+        }
+        assertEquals(1L, metrics.get("gizmo.async.responses.batches"));
+        assertEquals(2L, metrics.get("gizmo.async.responses.events"));
+        assertEquals(crudAsyncResponseConsumer.getLastBatchLatency(),
+                metrics.get("gizmo.async.responses.batch.latency.last"));
+    }
+}
@@ -26,20 +26,36 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.onap.aai.cl.mdc.MdcContext;
+import org.onap.aai.restclient.client.OperationResult;
+import org.onap.crud.dao.GraphDao;
+import org.onap.crud.dao.GraphReadExecutor;
 import org.onap.crud.exception.CrudException;
 import org.onap.crud.service.util.TestHeaders;
 import org.onap.crud.service.util.TestRequest;
 import org.onap.crud.service.util.TestUriInfo;
 import org.onap.schema.EdgeRulesLoader;
+import org.slf4j.MDC;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.onap.crud.OXMModelLoaderSetup;
@@ -73,6 +89,8 @@ public class CrudRestServiceTest extends OXMModelLoaderSetup{
       "\"prevent-delete\": \"NONE\" } }";
 
 
+  private static final String VERTEX_ID = "872dd5df-0be9-4167-95e9-2cf4b21165ed";
+
   private CrudRestService mockService;
 
   @Rule
@@ -97,12 +115,12 @@ public class CrudRestServiceTest extends OXMModelLoaderSetup{
   public void testDelete() throws CrudException {
     Response response;
 
-    response = mockService.deleteVertex("", "v11", "pserver", "872dd5df-0be9-4167-95e9-2cf4b21165ed",
-        "services/inventory/v11", new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.deleteVertex("", "v11", "pserver", "872dd5df-0be9-4167-95e9-2cf4b21165ed",
+        "services/inventory/v11", new TestHeaders(), null, new TestRequest(), asyncResponse));
     assertTrue(response.getStatus() == 200);
 
-    response = mockService.deleteEdge("", "v11", "tosca.relationships.HostedOn", "872dd5df-0be9-4167-95e9-2cf4b21165ed",
-        "services/inventory/v11", new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.deleteEdge("", "v11", "tosca.relationships.HostedOn", "872dd5df-0be9-4167-95e9-2cf4b21165ed",
+        "services/inventory/v11", new TestHeaders(), null, new TestRequest(), asyncResponse));
     assertTrue(response.getStatus() == 200);
   }
 
@@ -111,49 +129,71 @@ public class CrudRestServiceTest extends OXMModelLoaderSetup{
     Response response;
 
 	// Cannot find OXM version
-    response = mockService.addVertex(postVertexPayload, "v7", "services/inventory/v8",
-            new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.addVertex(postVertexPayload, "v7", "services/inventory/v8",
+            new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 500);
     Assert.assertNull(response.getEntityTag());
 
-    response = mockService.addVertex(postMissingPropVertexPayload, "v11", "services/inventory/v11",
-        new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.addVertex(postMissingPropVertexPayload, "v11", "services/inventory/v11",
+        new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 400);
 	Assert.assertNull(response.getEntityTag());
 
-    response = mockService.addVertex(postVertexPayload, "v11", "services/inventory/v11",
-        new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.addVertex(postVertexPayload, "v11", "services/inventory/v11",
+        new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 201);
 	Assert.assertEquals(response.getEntityTag().getValue(), "test123");
 
-    response = mockService.addVertex(postMissingPropVertexPayload, "v11", "pserver", "services/inventory/v11",
-        new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.addVertex(postMissingPropVertexPayload, "v11", "pserver", "services/inventory/v11",
+        new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 400);
 	Assert.assertNull(response.getEntityTag());
 
-    response = mockService.addVertex(postVertexPayload, "v11", "pserver", "services/inventory/v11",
-        new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.addVertex(postVertexPayload, "v11", "pserver", "services/inventory/v11",
+        new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 201);
 	Assert.assertEquals(response.getEntityTag().getValue(), "test123");
   }
 
+  @Test
+  public void testAddVertexSuspended() throws CrudException {
+    AsyncResponse asyncResponse = Mockito.mock(AsyncResponse.class);
+    ArgumentCaptor<Response> captor = ArgumentCaptor.forClass(Response.class);
+
+    mockService.addVertex(postVertexPayload, "v11", "pserver", "services/inventory/v11",
+        new TestHeaders(), null, new TestRequest(), asyncResponse);
+
+    Mockito.verify(asyncResponse).resume(captor.capture());
+    assertTrue(captor.getValue().getStatus() == 201);
+    Assert.assertEquals(captor.getValue().getEntityTag().getValue(), "test123");
+
+    mockService.deleteVertex("", "v11", "pserver", "872dd5df-0be9-4167-95e9-2cf4b21165ed",
+        "services/inventory/v11", new TestHeaders(), null, new TestRequest(), asyncResponse);
+
+    Mockito.verify(asyncResponse, Mockito.times(2)).resume(captor.capture());
+    assertTrue(captor.getValue().getStatus() == 200);
+
+    // Requests to the synchronous data service are bounded by the graph client, not by a suspend timeout
+    Mockito.verify(asyncResponse, Mockito.never()).setTimeout(Mockito.anyLong(), Mockito.any(TimeUnit.class));
+  }
+
   @Test
   public void testAddEdge() throws CrudException {
     Response response;
 
-    response = mockService.addEdge(postEdgePayload, "v9", "services/inventory/v9",
-        new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.addEdge(postEdgePayload, "v9", "services/inventory/v9",
+        new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 201);
 	Assert.assertEquals(response.getEntityTag().getValue(), "test123");
 
-    response = mockService.addEdge(postEdgePayload, "v9", "tosca.relationships.HostedOn", "services/inventory/v11",
-        new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.addEdge(postEdgePayload, "v9", "tosca.relationships.HostedOn", "services/inventory/v11",
+        new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 201);
 	Assert.assertEquals(response.getEntityTag().getValue(), "test123");
@@ -164,29 +204,29 @@ public class CrudRestServiceTest extends OXMModelLoaderSetup{
     Response response;
 
 	// Cannot find OXM version
-    response = mockService.updateVertex(putVertexPayload, "v7", "pserver", "test-uuid", "services/inventory/v8",
-            new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.updateVertex(putVertexPayload, "v7", "pserver", "test-uuid", "services/inventory/v8",
+            new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 500);
     Assert.assertNull(response.getEntityTag());
 
     // Test ID mismatch
-    response = mockService.updateVertex(putVertexPayload, "v11", "pserver", "bad-id",
-        "services/inventory/v11", new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.updateVertex(putVertexPayload, "v11", "pserver", "bad-id",
+        "services/inventory/v11", new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 400);
     Assert.assertNull(response.getEntityTag());
 
     // Success case
-    response = mockService.updateVertex(putVertexPayload, "v11", "pserver", "test-uuid", "services/inventory/v11",
-                new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.updateVertex(putVertexPayload, "v11", "pserver", "test-uuid", "services/inventory/v11",
+                new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 200);
 	Assert.assertEquals(response.getEntityTag().getValue(), "test123");
 
     // Patch
-    response = mockService.patchVertex(putVertexPayload, "v11", "pserver", "test-uuid",
-        "services/inventory/v11", new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.patchVertex(putVertexPayload, "v11", "pserver", "test-uuid",
+        "services/inventory/v11", new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 200);
 	Assert.assertEquals(response.getEntityTag().getValue(), "test123");
@@ -196,15 +236,15 @@ public class CrudRestServiceTest extends OXMModelLoaderSetup{
   public void testUpdateEdge() throws CrudException {
     Response response;
 
-    response = mockService.updateEdge(postEdgePayload, "v9", "tosca.relationships.HostedOn", "my-uuid",
-        "services/inventory/v9", new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.updateEdge(postEdgePayload, "v9", "tosca.relationships.HostedOn", "my-uuid",
+        "services/inventory/v9", new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 200);
 	Assert.assertEquals(response.getEntityTag().getValue(), "test123");
 
     // Patch
-    response = mockService.patchEdge(postEdgePayload, "v9", "tosca.relationships.HostedOn", "my-uuid",
-        "services/inventory/v9", new TestHeaders(), null, new TestRequest());
+    response = resumed(asyncResponse -> mockService.patchEdge(postEdgePayload, "v9", "tosca.relationships.HostedOn", "my-uuid",
+        "services/inventory/v9", new TestHeaders(), null, new TestRequest(), asyncResponse));
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 200);
 	Assert.assertEquals(response.getEntityTag().getValue(), "test123");
@@ -230,11 +270,141 @@ public class CrudRestServiceTest extends OXMModelLoaderSetup{
     assertTrue(response.getStatus() == 200);
 
     response = mockService.getEdges("", "v11", "tosca.relationships.HostedOn",
-        "services/inventory/v11", new TestHeaders(), new TestUriInfo(), new TestRequest());
+        "services/inventory/v11", new TestHeaders(), edgeFilterUriInfo(), new TestRequest());
     System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
     assertTrue(response.getStatus() == 200);
   }
 
+  @Test
+  public void testGetVertexNotModified() throws CrudException {
+    Response response = mockService.getVertex("", "v11", "pserver", "872dd5df-0be9-4167-95e9-2cf4b21165ed",
+        "services/inventory/v11", new TestHeaders(), new TestUriInfo(), new TestRequest());
+    assertTrue(response.getStatus() == 200);
+    String etag = response.getEntityTag().getValue();
+    Assert.assertEquals("test123", etag);
+
+    TestHeaders conditionalHeaders = new TestHeaders();
+    conditionalHeaders.getRequestHeaders().add(HttpHeaders.IF_NONE_MATCH, "\"" + etag + "\"");
+    response = mockService.getVertex("", "v11", "pserver", "872dd5df-0be9-4167-95e9-2cf4b21165ed",
+        "services/inventory/v11", conditionalHeaders, new TestUriInfo(), new TestRequest());
+    assertTrue(response.getStatus() == 304);
+    Assert.assertEquals(etag, response.getEntityTag().getValue());
+    Assert.assertNull(response.getEntity());
+
+    TestHeaders staleHeaders = new TestHeaders();
+    staleHeaders.getRequestHeaders().add(HttpHeaders.IF_NONE_MATCH, "\"stale\"");
+    response = mockService.getVertex("", "v11", "pserver", "872dd5df-0be9-4167-95e9-2cf4b21165ed",
+        "services/inventory/v11", staleHeaders, new TestUriInfo(), new TestRequest());
+    assertTrue(response.getStatus() == 200);
+    Assert.assertEquals(etag, response.getEntityTag().getValue());
+  }
+
+  @Test
+  public void testGetVertexReadsEdgesWhileVertexIsRead() throws Exception {
+    GraphDao dao = Mockito.mock(GraphDao.class);
+    CountDownLatch edgesRead = new CountDownLatch(1);
+    AtomicBoolean concurrent = new AtomicBoolean();
+    Mockito.when(dao.getVertexEdges(Mockito.eq(VERTEX_ID), Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+      edgesRead.countDown();
+      return Collections.emptyList();
+    });
+    Mockito.when(dao.getVertex(Mockito.eq(VERTEX_ID), Mockito.eq("pserver"), Mockito.eq("v11"), Mockito.any()))
+        .thenAnswer(invocation -> {
+          concurrent.set(edgesRead.await(5, TimeUnit.SECONDS));
+          return champVertex();
+        });
+
+    Response response = concurrentGetService(dao, 5000).getVertex("", "v11", "pserver", VERTEX_ID,
+        "services/inventory/v11", new TestHeaders(), new TestUriInfo(), new TestRequest());
+    assertTrue(response.getStatus() == 200);
+    assertTrue(concurrent.get());
+  }
+
+  @Test
+  public void testGetVertexDoesNotWaitForEdgesWhenVertexReadFails() throws Exception {
+    GraphDao dao = Mockito.mock(GraphDao.class);
+    CountDownLatch release = new CountDownLatch(1);
+    Mockito.when(dao.getVertexEdges(Mockito.eq(VERTEX_ID), Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+      release.await(10, TimeUnit.SECONDS);
+      return Collections.emptyList();
+    });
+    Mockito.when(dao.getVertex(Mockito.eq(VERTEX_ID), Mockito.eq("pserver"), Mockito.eq("v11"), Mockito.any()))
+        .thenThrow(new CrudException("No vertex with id " + VERTEX_ID + " found in graph", Status.NOT_FOUND));
+
+    try {
+      long start = System.currentTimeMillis();
+      Response response = concurrentGetService(dao, 30000).getVertex("", "v11", "pserver", VERTEX_ID,
+          "services/inventory/v11", new TestHeaders(), new TestUriInfo(), new TestRequest());
+      assertTrue(response.getStatus() == 404);
+      // The pending edge read is abandoned rather than waited for
+      assertTrue(System.currentTimeMillis() - start < 5000);
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  public void testGetVertexTimesOutWaitingForEdges() throws Exception {
+    GraphDao dao = Mockito.mock(GraphDao.class);
+    CountDownLatch release = new CountDownLatch(1);
+    Mockito.when(dao.getVertexEdges(Mockito.eq(VERTEX_ID), Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+      release.await(10, TimeUnit.SECONDS);
+      return Collections.emptyList();
+    });
+    Mockito.when(dao.getVertex(Mockito.eq(VERTEX_ID), Mockito.eq("pserver"), Mockito.eq("v11"), Mockito.any()))
+        .thenReturn(champVertex());
+
+    try {
+      Response response = concurrentGetService(dao, 100).getVertex("", "v11", "pserver", VERTEX_ID,
+          "services/inventory/v11", new TestHeaders(), new TestUriInfo(), new TestRequest());
+      assertTrue(response.getStatus() == 500);
+      assertTrue(response.getEntity().toString().contains("Timed out reading the edges of vertex " + VERTEX_ID));
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  public void testGetVertexReadsEdgesWithTheCallerLoggingContext() throws Exception {
+    GraphDao dao = Mockito.mock(GraphDao.class);
+    AtomicReference<String> requestId = new AtomicReference<>();
+    AtomicReference<Thread> reader = new AtomicReference<>();
+    Mockito.when(dao.getVertexEdges(Mockito.eq(VERTEX_ID), Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+      requestId.set(MDC.get(MdcContext.MDC_REQUEST_ID));
+      reader.set(Thread.currentThread());
+      return Collections.emptyList();
+    });
+    Mockito.when(dao.getVertex(Mockito.eq(VERTEX_ID), Mockito.eq("pserver"), Mockito.eq("v11"), Mockito.any()))
+        .thenReturn(champVertex());
+
+    Response response = concurrentGetService(dao, 5000).getVertex("", "v11", "pserver", VERTEX_ID,
+        "services/inventory/v11", new TestHeaders(), new TestUriInfo(), new TestRequest());
+    assertTrue(response.getStatus() == 200);
+    // The transaction id of the request is sent with the edge read, which runs on a pool thread
+    Assert.assertEquals("1234567890", requestId.get());
+    Assert.assertNotSame(Thread.currentThread(), reader.get());
+  }
+
+  @Test
+  public void testGetCollectionWithInvalidFilter() throws CrudException {
+    MultivaluedMap<String, String> filter = new MultivaluedHashMap<String, String>();
+    filter.add("no-such-property", "value");
+
+    Response response = mockService.getVertices("", "v11", "pserver",
+        "services/inventory/v11", new TestHeaders(), new TestUriInfo(filter), new TestRequest());
+    assertTrue(response.getStatus() == 400);
+
+    response = mockService.getEdges("", "v11", "tosca.relationships.HostedOn",
+        "services/inventory/v11", new TestHeaders(), new TestUriInfo(filter), new TestRequest());
+    assertTrue(response.getStatus() == 400);
+
+    filter = new MultivaluedHashMap<String, String>();
+    filter.add("number-of-cpus", "many");
+    response = mockService.getVertices("", "v11", "pserver",
+        "services/inventory/v11", new TestHeaders(), new TestUriInfo(filter), new TestRequest());
+    assertTrue(response.getStatus() == 400);
+  }
+
   @Test
   public void testValidRequestHeader() throws CrudException {
     TestHeaders testHeaders = new TestHeaders();
@@ -302,7 +472,7 @@ public class CrudRestServiceTest extends OXMModelLoaderSetup{
         assertTrue(response.getStatus() == 200);
 
         response = mockService.getEdges("", "v11", "tosca.relationships.HostedOn", "services/inventory/v11",
-                new TestHeaders(), new TestUriInfo(), new TestRequest());
+                new TestHeaders(), edgeFilterUriInfo(), new TestRequest());
         System.out.println("Response: " + response.getStatus() + "\n" + response.getEntity().toString());
         assertTrue(response.getStatus() == 200);
     }
@@ -324,6 +494,12 @@ public class CrudRestServiceTest extends OXMModelLoaderSetup{
   }
 */
 
+  private static TestUriInfo edgeFilterUriInfo() {
+    MultivaluedMap<String, String> filter = new MultivaluedHashMap<String, String>();
+    filter.add("prevent-delete", "NONE");
+    return new TestUriInfo(filter);
+  }
+
   public static String readFileToString(File aFile) throws IOException {
 
     BufferedReader br = new BufferedReader(new FileReader(aFile));
@@ -346,4 +522,36 @@ public class CrudRestServiceTest extends OXMModelLoaderSetup{
     }
   }
 
-}
\ No newline at end of file
+  /**
+   * Makes a request of the suspended kind and returns the response it is resumed with.
+   */
+  private Response resumed(Consumer<AsyncResponse> request) {
+    AsyncResponse asyncResponse = Mockito.mock(AsyncResponse.class);
+    ArgumentCaptor<Response> captor = ArgumentCaptor.forClass(Response.class);
+    request.accept(asyncResponse);
+    Mockito.verify(asyncResponse, Mockito.timeout(5000)).resume(captor.capture());
+    return captor.getValue();
+  }
+
+  private CrudRestService concurrentGetService(GraphDao dao, long timeoutInMs) throws CrudException {
+    CrudGraphDataService service = new CrudGraphDataService(dao);
+    service.vertexReadExecutor = new GraphReadExecutor("test", 2, timeoutInMs);
+    CrudRestService restService = Mockito.spy(new CrudRestService(service, null));
+
+    Mockito.doReturn(true).when(restService).validateRequest(Mockito.any(HttpServletRequest.class),
+        Mockito.anyString(), Mockito.anyString(), Mockito.any(CrudRestService.Action.class), Mockito.anyString(),
+        Mockito.any(HttpHeaders.class));
+    return restService;
+  }
+
+  private OperationResult champVertex() {
+    OperationResult result = new OperationResult();
+    result.setResultCode(200);
+    result.setResult("{\"key\": \"" + VERTEX_ID + "\", \"type\": \"pserver\", "
+        + "\"properties\": {\"hostname\": \"myhost\"}}");
+    MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+    headers.add("etag", "test123");
+    result.setHeaders(headers);
+    return result;
+  }
+}
@@ -0,0 +1,110 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2018 Nokia
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Response.Status;
+import org.junit.Test;
+import org.onap.crud.exception.CrudException;
+
+public class EntityWriteGuardTest {
+
+    @Test
+    public void shouldAcceptCurrentTag() throws Exception {
+        EntityWriteGuard writes = new EntityWriteGuard();
+
+        writes.beginWrite("id1");
+        writes.verify("id1", "\"v1\"", new EntityTag("v1"));
+        writes.endWrite("id1");
+    }
+
+    @Test
+    public void shouldRejectStaleTag() throws Exception {
+        EntityWriteGuard writes = new EntityWriteGuard();
+
+        writes.beginWrite("id1");
+        assertPreconditionFailed(writes, "\"v1\"", new EntityTag("v2"));
+    }
+
+    @Test
+    public void shouldRejectWeakTag() throws Exception {
+        EntityWriteGuard writes = new EntityWriteGuard();
+
+        writes.beginWrite("id1");
+        assertPreconditionFailed(writes, "W/\"v1\"", new EntityTag("v1"));
+    }
+
+    @Test
+    public void shouldWaitForConditionalWriteInFlight() throws Exception {
+        EntityWriteGuard writes = new EntityWriteGuard();
+        writes.beginWrite("id1");
+
+        CountDownLatch started = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            try {
+                writes.beginWrite("id1");
+                started.countDown();
+            } catch (CrudException e) {
+                // Leave the latch up
+            }
+        });
+        writer.start();
+
+        assertFalse(started.await(100, TimeUnit.MILLISECONDS));
+        writes.endWrite("id1");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        writer.join();
+    }
+
+    @Test
+    public void shouldNotWaitForOtherEntities() throws Exception {
+        EntityWriteGuard writes = new EntityWriteGuard();
+        writes.beginWrite("id1");
+
+        writes.beginWrite("id2");
+        writes.endWrite("id2");
+    }
+
+    @Test
+    public void shouldTakeOverAbandonedWrite() throws Exception {
+        EntityWriteGuard writes = new EntityWriteGuard(10);
+        writes.beginWrite("id1");
+
+        // Never ended, so released after the pending write timeout
+        writes.beginWrite("id1");
+    }
+
+    private void assertPreconditionFailed(EntityWriteGuard writes, String ifMatch, EntityTag currentTag) {
+        try {
+            writes.verify("id1", ifMatch, currentTag);
+            fail("Expected the precondition to fail");
+        } catch (CrudException e) {
+            assertEquals(Status.PRECONDITION_FAILED, e.getHttpStatus());
+        }
+    }
+}
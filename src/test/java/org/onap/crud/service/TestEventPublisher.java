@@ -63,8 +63,7 @@ public class TestEventPublisher implements EventPublisher {
 
     @Override
     public int sendSync(Collection<String> arg0) throws Exception {
-        // TODO Auto-generated method stub
-        return 0;
+        return arg0.size();
     }
 
     @Override
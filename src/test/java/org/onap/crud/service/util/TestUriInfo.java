@@ -34,6 +34,17 @@ import org.apache.http.client.utils.URIBuilder;
 
 public class TestUriInfo implements UriInfo {
 
+  private final MultivaluedMap<String, String> queryParameters;
+
+  public TestUriInfo() {
+    this(new MultivaluedHashMap<String, String>());
+    queryParameters.add("hostname", "myhost");
+  }
+
+  public TestUriInfo(MultivaluedMap<String, String> queryParameters) {
+    this.queryParameters = queryParameters;
+  }
+
   @Override
   public URI getAbsolutePath() {
     // TODO Auto-generated method stub
@@ -114,9 +125,7 @@ public class TestUriInfo implements UriInfo {
 
   @Override
   public MultivaluedMap<String, String> getQueryParameters() {
-    MultivaluedMap<String, String> map = new MultivaluedHashMap<String, String>();
-    map.add("hostname", "myhost");
-    return map;
+    return queryParameters;
   }
 
   @Override
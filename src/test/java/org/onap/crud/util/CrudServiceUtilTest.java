@@ -20,6 +20,7 @@
  */
 package org.onap.crud.util;
 
+import javax.ws.rs.core.EntityTag;
 import org.junit.Assert;
 import org.junit.Test;
 import org.onap.crud.service.VertexPayload;
@@ -51,4 +52,27 @@ public class CrudServiceUtilTest {
         Assert.assertEquals("source-of-truth", properties.getAsJsonObject().get("source-of-truth").getAsString());
     }
 
+    @Test
+    public void testMatchesETag() throws Exception {
+        EntityTag entityTag = new EntityTag("abc123");
+
+        Assert.assertTrue(CrudServiceUtil.matchesETag("\"abc123\"", entityTag));
+        Assert.assertTrue(CrudServiceUtil.matchesETag("W/\"abc123\"", entityTag));
+        Assert.assertTrue(CrudServiceUtil.matchesETag("\"other\", \"abc123\"", entityTag));
+        Assert.assertTrue(CrudServiceUtil.matchesETag("*", entityTag));
+        Assert.assertFalse(CrudServiceUtil.matchesETag("\"other\"", entityTag));
+        Assert.assertFalse(CrudServiceUtil.matchesETag(null, entityTag));
+        Assert.assertFalse(CrudServiceUtil.matchesETag("*", null));
+    }
+
+    @Test
+    public void testMatchesETagStrongComparison() throws Exception {
+        EntityTag entityTag = new EntityTag("abc123");
+
+        Assert.assertTrue(CrudServiceUtil.matchesETag("\"abc123\"", entityTag, true));
+        Assert.assertTrue(CrudServiceUtil.matchesETag("W/\"other\", \"abc123\"", entityTag, true));
+        Assert.assertTrue(CrudServiceUtil.matchesETag("*", entityTag, true));
+        Assert.assertFalse(CrudServiceUtil.matchesETag("W/\"abc123\"", entityTag, true));
+        Assert.assertFalse(CrudServiceUtil.matchesETag("\"abc123\"", new EntityTag("abc123", true), true));
+    }
 }
@@ -0,0 +1,94 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.crud.util;
+
+import static org.junit.Assert.assertEquals;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.security.MessageDigest;
+import org.junit.Test;
+
+public class HashGeneratorTest {
+
+    private final HashGenerator hashGenerator;
+
+    public HashGeneratorTest() throws Exception {
+        hashGenerator = new HashGenerator();
+    }
+
+    /**
+     * The encoding the generator reproduces without serialization.
+     */
+    private static String objectStreamHash(Object... values) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bos)) {
+            for (Object value : values) {
+                out.writeObject(value.toString());
+            }
+        }
+        StringBuilder result = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(bos.toByteArray())) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    private static String repeat(String value, int count) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            result.append(value);
+        }
+        return result.toString();
+    }
+
+    @Test
+    public void shouldHashAsciiValuesLikeAnObjectStream() throws Exception {
+        assertEquals(objectStreamHash("vertex1", "pserver", "{prop1=value1}"),
+                hashGenerator.generateSHA256AsHex("vertex1", "pserver", "{prop1=value1}"));
+        assertEquals(objectStreamHash(), hashGenerator.generateSHA256AsHex());
+    }
+
+    @Test
+    public void shouldHashNonAsciiValuesLikeAnObjectStream() throws Exception {
+        String value = "nul\u0000 latiné greekΩ cjk中 surrogate😀";
+        assertEquals(objectStreamHash(value, ""), hashGenerator.generateSHA256AsHex(value, ""));
+    }
+
+    @Test
+    public void shouldHashLongValuesLikeAnObjectStream() throws Exception {
+        // Over 64KB of modified UTF-8 needs the long string encoding
+        String value = repeat("éx", 30000);
+        assertEquals(objectStreamHash(value, "end"), hashGenerator.generateSHA256AsHex(value, "end"));
+    }
+
+    @Test
+    public void shouldHashRepeatedValuesLikeAnObjectStream() throws Exception {
+        String repeated = new String("value");
+        assertEquals(objectStreamHash(repeated, "other", repeated, new String("value")),
+                hashGenerator.generateSHA256AsHex(repeated, "other", repeated, new String("value")));
+    }
+
+    @Test
+    public void shouldHashStreamedValuesLikeAnObjectStream() throws Exception {
+        assertEquals(objectStreamHash("edge1", "tosca.relationships.HostedOn", "{}"),
+                hashGenerator.newHash().put("edge1").put("tosca.relationships.HostedOn").put("{}").toHex());
+    }
+}
@@ -25,6 +25,11 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertThat;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.Before;
 import org.junit.Test;
 import org.onap.crud.event.GraphEventEdge;
@@ -164,5 +169,65 @@ public class EtagGeneratorTest {
                 not(etagGenerator.computeHashForVertex(targetVertex1)));
     }
 
+    @Test
+    public void testComputeHashIgnoresLastModifiedTimestamp() throws IOException {
+        GraphEventVertex sourceVertex1 = createVertex("prop1", "value1");
+        GraphEventVertex targetVertex1 = createVertex("prop1", "value1");
+        targetVertex1.getProperties().getAsJsonObject().addProperty("aai-last-mod-ts", "1526044400");
+        assertThat(etagGenerator.computeHashForVertex(sourceVertex1),
+                is(etagGenerator.computeHashForVertex(targetVertex1)));
+    }
+
+    @Test
+    public void testComputeHashIsIndependentOfPropertyOrder() throws IOException {
+        GraphEventVertex sourceVertex1 = createVertex("prop1", "value1");
+        sourceVertex1.getProperties().getAsJsonObject().addProperty("prop2", "value2");
+        GraphEventVertex targetVertex1 = createVertex("prop2", "value2");
+        targetVertex1.getProperties().getAsJsonObject().addProperty("prop1", "value1");
+        assertThat(etagGenerator.computeHashForVertex(sourceVertex1),
+                is(etagGenerator.computeHashForVertex(targetVertex1)));
+    }
 
-}
\ No newline at end of file
+    @Test
+    public void testComputeHashMatchesChampEtags() throws IOException {
+        // Hashes of the object stream encoding used by Champ, and by this class before it streamed its input
+        GraphEventVertex vertex = createVertex("prop1", "value1");
+        vertex.getProperties().getAsJsonObject().addProperty("aai-last-mod-ts", "1526044400");
+        assertThat(etagGenerator.computeHashForVertex(vertex),
+                is("6961dc2235320075edcee4260b0e7e45375dc9b39816812e8a7af37b2dbb8f79"));
+
+        GraphEventEdge edge = createEdge("edge1", createVertex("prop1", "value1"), createVertex("prop2", "value2"),
+                "prop1", "value1");
+        assertThat(etagGenerator.computeHashForEdge(edge),
+                is("fc204ffcf1fb6476b4343d3f78664d547f404e454f4ca353dd31d9e9616c6a59"));
+    }
+
+    @Test
+    public void testComputeHashForValuesThatRunTogether() throws IOException {
+        GraphEventVertex sourceVertex1 = createVertex("prop1", "value1");
+        GraphEventVertex targetVertex1 = createVertex("prop1v", "alue1");
+        assertThat(etagGenerator.computeHashForVertex(sourceVertex1),
+                not(etagGenerator.computeHashForVertex(targetVertex1)));
+    }
+
+    @Test
+    public void testComputeHashConcurrently() throws Exception {
+        GraphEventVertex sourceVertex1 = createVertex("prop1", "value1");
+        GraphEventVertex targetVertex1 = createVertex("prop2", "value2");
+        GraphEventEdge edge1 = createEdge("edge1", sourceVertex1, targetVertex1, "prop1", "value1");
+        String expected = etagGenerator.computeHashForEdge(edge1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> hashes = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                hashes.add(executor.submit(() -> etagGenerator.computeHashForEdge(edge1)));
+            }
+            for (Future<String> hash : hashes) {
+                assertThat(hash.get(), is(expected));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
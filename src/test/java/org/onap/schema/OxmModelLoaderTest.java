@@ -60,4 +60,53 @@ public class OxmModelLoaderTest extends OXMModelLoaderSetup {
         }
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testValidationPlan() throws Exception {
+        OxmModelLoader.loadModels();
+
+        OxmTypeValidationPlan plan = OxmModelLoader.getValidationPlan("v13", "pserver");
+
+        OxmTypeValidationPlan.PropertyRule hostname = plan.getProperty("hostname");
+        Assert.assertNotNull(hostname);
+        Assert.assertEquals("hostname", hostname.getName());
+        Assert.assertTrue(hostname.isRequired());
+
+        OxmTypeValidationPlan.PropertyRule cpus = plan.getProperty("number-of-cpus");
+        Assert.assertNotNull(cpus);
+        Assert.assertEquals(Integer.class, cpus.getType());
+        Assert.assertFalse(cpus.isRequired());
+
+        // reserved properties are accepted for every type
+        Assert.assertNotNull(plan.getProperty("last-mod-source-of-truth"));
+        Assert.assertNull(plan.getProperty("no-such-property"));
+
+        // other spellings of the type resolve to the same plan
+        Assert.assertSame(plan, OxmModelLoader.getValidationPlan("v13", "Pserver"));
+    }
+
+    @Test
+    public void testCollectionTypes() throws Exception {
+        OxmModelLoader.loadModels();
+
+        Assert.assertEquals("pserver", OxmModelLoader.getCollectionType("v13", "pservers"));
+        Assert.assertEquals("pserver", OxmModelLoader.getCollectionType("v13", "pserver"));
+        Assert.assertNull(OxmModelLoader.getCollectionType("v13", "no-such-type"));
+
+        Assert.assertEquals("pserver", OxmModelValidator.resolveCollectionType("v13", "pservers"));
+        Assert.assertEquals("pserver", OxmModelValidator.resolveCollectionType("v13", "Pservers"));
+    }
+
+    @Test
+    public void testDynamicTypeSpellings() throws Exception {
+        OxmModelLoader.loadModels();
+
+        DynamicType genericVnf = OxmModelLoader.getContextForVersion("v13").getDynamicType("GenericVnf");
+        Assert.assertNotNull(genericVnf);
+
+        Assert.assertSame(genericVnf, OxmModelLoader.getDynamicTypeForVersion("v13", "generic-vnf"));
+        Assert.assertSame(genericVnf, OxmModelLoader.getDynamicTypeForVersion("v13", "Generic-VNF"));
+        Assert.assertSame(genericVnf, OxmModelLoader.getDynamicTypeForVersion("v13", "GenericVnf"));
+        Assert.assertNull(OxmModelLoader.getDynamicTypeForVersion("v13", "no-such-type"));
+    }
+}
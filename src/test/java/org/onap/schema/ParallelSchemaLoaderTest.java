@@ -0,0 +1,84 @@
+/**
+ * ﻿============LICENSE_START=======================================================
+ * org.onap.aai
+ * ================================================================================
+ * Copyright © 2017-2018 AT&T Intellectual Property. All rights reserved.
+ * Copyright © 2017-2018 Amdocs
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+package org.onap.schema;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Test;
+
+public class ParallelSchemaLoaderTest {
+
+    private final List<String> versions = Arrays.asList("v8", "v9", "v10", "v11", "v13");
+
+    @Test
+    public void testLoadAllVersions() throws Exception {
+        Set<String> loaded = ConcurrentHashMap.newKeySet();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        ParallelSchemaLoader.loadAll(versions, version -> {
+            threads.add(Thread.currentThread().getName());
+            loaded.add(version);
+        }, 4);
+
+        assertEquals(versions.size(), loaded.size());
+        assertTrue(loaded.containsAll(versions));
+        assertTrue(!threads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void testLoadAllSerially() throws Exception {
+        Set<String> loaded = ConcurrentHashMap.newKeySet();
+        String testThread = Thread.currentThread().getName();
+
+        ParallelSchemaLoader.loadAll(versions, version -> {
+            assertEquals(Thread.currentThread().getName(), testThread);
+            loaded.add(version);
+        }, 1);
+
+        assertEquals(versions.size(), loaded.size());
+    }
+
+    @Test
+    public void testLoadFailure() throws Exception {
+        Set<String> loaded = ConcurrentHashMap.newKeySet();
+
+        try {
+            ParallelSchemaLoader.loadAll(versions, version -> {
+                if (version.equals("v10")) {
+                    throw new IOException("Unable to load " + version);
+                }
+                loaded.add(version);
+            }, 4);
+            fail("Expected the failure of v10 to be reported");
+        } catch (IOException e) {
+            assertEquals("Unable to load v10", e.getMessage());
+        }
+
+        // The other versions still complete
+        assertEquals(versions.size() - 1, loaded.size());
+    }
+}
@@ -59,6 +59,20 @@ public class RelationshipSchemaTest {
         assertTrue(rs.lookupRelation("availability-zone:complex:org.onap.groupsResourcesIn").containsKey("prevent-delete"));
     }
 
+    @Test
+    public void shouldLookUpByNodeTypesAndRelationType() throws Exception {
+        RelationshipSchema rs = loadRelations();
+        assertNotNull(rs.lookupRelation("service-instance", "customer", "org.onap.some-relation"));
+        assertNull(rs.lookupRelation("customer", "service-instance", "org.onap.some-relation"));
+        assertNull(rs.lookupRelation("service-instance", "customer", "org.onap.groupsResourcesIn"));
+        assertNull(rs.lookupRelation("service-instance", "unknown", "org.onap.some-relation"));
+        assertNull(rs.lookupRelation("service-instance:customer"));
+
+        assertEquals(1, rs.getValidRelationTypes("availability-zone", "complex").size());
+        assertTrue(rs.getValidRelationTypes("complex", "availability-zone").isEmpty());
+        assertTrue(rs.getValidRelationTypes("unknown", "complex").isEmpty());
+    }
+
     private RelationshipSchema loadRelations() throws CrudException, EdgeRuleNotFoundException, IOException {
         String defaultEdgeProps = "{" +
                 "\"contains-other-v\": \"java.lang.String\"," +